@@ -0,0 +1,72 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+/*
+ * Conversão de LancamentoDto em Lancamento feita por LancamentoResource.converter,
+ * com o usuário já carregado (como no lote), comparada à montagem pelo builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversaoLancamentoBenchmark {
+
+	private LancamentoResource resource;
+	private LancamentoDto dto;
+	private Usuario usuario;
+
+	@Setup
+	public void preparar() {
+		resource = new LancamentoResource(null, null, null, null, null);
+		usuario = Usuario.builder().id(1l).build();
+		dto = LancamentoDto.builder()
+				.descricao("Aluguel")
+				.mes(3)
+				.ano(2022)
+				.valor(BigDecimal.valueOf(1250.50))
+				.usuario(1l)
+				.tipo("DESPESA")
+				.status("PENDENTE")
+				.build();
+	}
+
+	@Benchmark
+	public Lancamento converterPeloResource() {
+		return resource.converter(dto, usuario);
+	}
+
+	@Benchmark
+	public Lancamento converterPeloBuilder() {
+		return Lancamento.builder()
+				.id(dto.getId())
+				.descricao(dto.getDescricao())
+				.ano(dto.getAno())
+				.mes(dto.getMes())
+				.valor(dto.getValor())
+				.usuario(usuario)
+				.tipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()))
+				.status(dto.getStatus() == null ? null : StatusLancamento.valueOf(dto.getStatus()))
+				.build();
+	}
+}
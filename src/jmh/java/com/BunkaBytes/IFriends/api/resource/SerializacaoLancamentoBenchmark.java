@@ -0,0 +1,88 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * Serialização Jackson da resposta de listagem: lista de entidades Lancamento (com o
+ * Usuario aninhado) contra a lista de LancamentoProjecao servida por GET /api/lancamentos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoLancamentoBenchmark {
+
+	@Param({"10", "1000"})
+	private int quantidade;
+
+	private ObjectMapper objectMapper;
+	private List<Lancamento> lancamentos;
+	private List<LancamentoProjecao> projecoes;
+
+	@Setup
+	public void preparar() {
+		//mesma configuração básica do ObjectMapper do Spring Boot
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+							.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+							.build();
+
+		Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@email.com").senha("senha").build();
+		lancamentos = new ArrayList<>(quantidade);
+		projecoes = new ArrayList<>(quantidade);
+		for(int i = 0; i < quantidade; i++) {
+			Lancamento lancamento = Lancamento.builder()
+										.id((long) i)
+										.descricao("Lançamento " + i)
+										.mes(i % 12 + 1)
+										.ano(2022)
+										.valor(BigDecimal.valueOf(i * 137l, 2))
+										.tipo(i % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+										.status(StatusLancamento.PENDENTE)
+										.dataCadastro(LocalDate.of(2022, 1, 1))
+										.usuario(usuario)
+										.build();
+			lancamentos.add(lancamento);
+			projecoes.add(new LancamentoProjecao(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+								lancamento.getAno(), lancamento.getValor(), lancamento.getTipo(), lancamento.getStatus(),
+								usuario.getId(), lancamento.getDataCadastro(), lancamento.getVersao()));
+		}
+	}
+
+	@Benchmark
+	public byte[] serializarEntidades() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(lancamentos);
+	}
+
+	@Benchmark
+	public byte[] serializarProjecoes() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(projecoes);
+	}
+}
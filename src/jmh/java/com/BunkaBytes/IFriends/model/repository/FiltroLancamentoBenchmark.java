@@ -0,0 +1,116 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.IFriendsApplication;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+
+/*
+ * LancamentoRepositoryImpl.filtrar com o JPQL já no cache de planos contra montar a Criteria
+ * a cada chamada, sobre o H2 do perfil teste. As duas variantes executam a mesma consulta na
+ * mesma transação somente leitura; compilar sozinho mostra quanto o cache economiza.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FiltroLancamentoBenchmark {
+
+	private static final int LANCAMENTOS = 200;
+
+	private ConfigurableApplicationContext contexto;
+	private LancamentoRepositoryImpl repositorio;
+	private TransactionTemplate leitura;
+	private FiltroLancamento filtro;
+
+	@Setup
+	public void preparar() {
+		contexto = new SpringApplicationBuilder(IFriendsApplication.class)
+						.profiles("teste")
+						.web(WebApplicationType.NONE)
+						.run();
+		repositorio = contexto.getBean(LancamentoRepositoryImpl.class);
+		leitura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+		leitura.setReadOnly(true);
+
+		Usuario usuario = contexto.getBean(UsuarioRepository.class).save(Usuario.builder()
+												.nome("benchmark")
+												.email("benchmark." + System.nanoTime() + "@email.com")
+												.senha("123")
+												.build());
+		List<Lancamento> lancamentos = new ArrayList<>(LANCAMENTOS);
+		for(int i = 0; i < LANCAMENTOS; i++) {
+			lancamentos.add(Lancamento.builder()
+								.descricao("Lançamento " + i)
+								.mes(i % 12 + 1)
+								.ano(2021 + i % 2)
+								.valor(BigDecimal.valueOf(i + 1))
+								.tipo(i % 3 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+								.status(StatusLancamento.PENDENTE)
+								.usuario(usuario)
+								.build());
+		}
+		contexto.getBean(LancamentoRepository.class).saveAll(lancamentos);
+
+		//o formato de uma listagem filtrada: usuário, anos, tipos, faixa de valor e ordem
+		filtro = FiltroLancamento.builder()
+					.usuario(usuario.getId())
+					.anos(Collections.singleton(2022))
+					.tipos(EnumSet.of(TipoLancamento.DESPESA))
+					.valorMinimo(BigDecimal.TEN)
+					.ordem(Arrays.asList("-valor"))
+					.limite(50)
+					.build();
+		repositorio.filtrar(filtro, LancamentoProjecao.class);
+	}
+
+	@TearDown
+	public void encerrar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public List<LancamentoProjecao> filtrarComPlanoEmCache() {
+		return leitura.execute(status -> repositorio.filtrar(filtro, LancamentoProjecao.class));
+	}
+
+	@Benchmark
+	public List<LancamentoProjecao> filtrarCompilandoACadaChamada() {
+		return leitura.execute(status -> repositorio.executar(repositorio.compilar(filtro, LancamentoProjecao.class), filtro, LancamentoProjecao.class));
+	}
+
+	@Benchmark
+	public String compilar() {
+		return leitura.execute(status -> repositorio.compilar(filtro, LancamentoProjecao.class));
+	}
+}
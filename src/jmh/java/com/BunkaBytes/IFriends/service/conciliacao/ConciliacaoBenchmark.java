@@ -0,0 +1,82 @@
+package com.BunkaBytes.IFriends.service.conciliacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+/*
+ * Conciliação em memória de N pendentes contra N linhas de extrato: indexação e busca de
+ * todas as linhas, como no ConciliacaoServiceImpl depois da leitura. 90% das linhas têm
+ * um pendente de mesmo valor e descrição parecida, o resto não tem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConciliacaoBenchmark {
+
+	private static final String[] DESCRICOES = { "Padaria", "Mercado", "Farmácia", "Posto", "Aluguel", "Restaurante", "Academia", "Salário" };
+
+	@Param({"10000", "100000"})
+	private int quantidade;
+
+	private List<LancamentoProjecao> pendentes;
+	private List<LinhaExtrato> linhas;
+
+	@Setup
+	public void preparar() {
+		Random random = new Random(42);
+		pendentes = new ArrayList<>(quantidade);
+		linhas = new ArrayList<>(quantidade);
+		for(int i = 0; i < quantidade; i++) {
+			BigDecimal valor = BigDecimal.valueOf(1 + random.nextInt(200_000), 2);
+			String descricao = DESCRICOES[random.nextInt(DESCRICOES.length)];
+			TipoLancamento tipo = descricao.equals("Salário") ? TipoLancamento.RECEITA : TipoLancamento.DESPESA;
+			LocalDate data = LocalDate.of(2021, 1, 1).plusDays(random.nextInt(365));
+			pendentes.add(new LancamentoProjecao((long) i, descricao, data.getMonthValue(), data.getYear(), valor, tipo,
+													StatusLancamento.PENDENTE, 1l, null, 0l));
+
+			if(random.nextInt(10) > 0) {
+				BigDecimal sinal = tipo == TipoLancamento.DESPESA ? valor.negate() : valor;
+				linhas.add(new LinhaExtrato(i, data.plusDays(random.nextInt(3)), "PAG*" + descricao.toUpperCase() + " " + i, sinal, null));
+			} else {
+				linhas.add(new LinhaExtrato(i, data, "PIX ENVIADO " + i, BigDecimal.valueOf(-1 - random.nextInt(200_000), 2), null));
+			}
+		}
+	}
+
+	@Benchmark
+	public int conciliar() {
+		Conciliador conciliador = new Conciliador(5, 0.2);
+		pendentes.forEach(conciliador::adicionar);
+		int conciliados = 0;
+		for(LinhaExtrato linha : linhas) {
+			if(conciliador.conciliar(linha).isPresent()) {
+				conciliados++;
+			}
+		}
+		return conciliados;
+	}
+}
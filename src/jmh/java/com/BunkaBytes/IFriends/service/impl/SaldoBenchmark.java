@@ -0,0 +1,85 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+/*
+ * Aritmética do saldo sobre uma lista de lançamentos: soma com BigDecimal como nos
+ * SUM + subtract de obterSaldoPorUsuario, com multiplicação pelo sinal como em
+ * SaldoUsuarioServiceImpl, e em centavos (long) como no cubo de ResumoLancamentoServiceImpl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaldoBenchmark {
+
+	@Param({"100", "10000"})
+	private int quantidade;
+
+	private BigDecimal[] valores;
+	private TipoLancamento[] tipos;
+
+	@Setup
+	public void preparar() {
+		Random aleatorio = new Random(42);
+		valores = new BigDecimal[quantidade];
+		tipos = new TipoLancamento[quantidade];
+		for(int i = 0; i < quantidade; i++) {
+			valores[i] = BigDecimal.valueOf(aleatorio.nextInt(1_000_000), 2);
+			tipos[i] = aleatorio.nextBoolean() ? TipoLancamento.RECEITA : TipoLancamento.DESPESA;
+		}
+	}
+
+	@Benchmark
+	public BigDecimal somarPorTipo() {
+		BigDecimal receita = BigDecimal.ZERO;
+		BigDecimal despesa = BigDecimal.ZERO;
+		for(int i = 0; i < quantidade; i++) {
+			if(tipos[i] == TipoLancamento.RECEITA) {
+				receita = receita.add(valores[i]);
+			} else {
+				despesa = despesa.add(valores[i]);
+			}
+		}
+		return receita.subtract(despesa);
+	}
+
+	@Benchmark
+	public BigDecimal somarComSinal() {
+		BigDecimal saldo = BigDecimal.ZERO;
+		for(int i = 0; i < quantidade; i++) {
+			BigDecimal sinal = tipos[i] == TipoLancamento.RECEITA ? BigDecimal.ONE : BigDecimal.ONE.negate();
+			saldo = saldo.add(valores[i].multiply(sinal));
+		}
+		return saldo;
+	}
+
+	@Benchmark
+	public BigDecimal somarEmCentavos() {
+		long centavos = 0;
+		for(int i = 0; i < quantidade; i++) {
+			long valor = valores[i].setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+			centavos += tipos[i] == TipoLancamento.RECEITA ? valor : -valor;
+		}
+		return BigDecimal.valueOf(centavos, 2);
+	}
+}
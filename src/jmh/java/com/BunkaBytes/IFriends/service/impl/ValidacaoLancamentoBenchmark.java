@@ -0,0 +1,77 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+/*
+ * Custo de LancamentoServiceImpl.validar no caminho feliz e quando a validação
+ * falha (a exceção carrega a pilha de chamadas).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoLancamentoBenchmark {
+
+	private LancamentoServiceImpl service;
+	private Lancamento valido;
+	private Lancamento semValor;
+
+	@Setup
+	public void preparar() {
+		service = new LancamentoServiceImpl(null, null, null, null, null, null, null, null);
+
+		valido = Lancamento.builder()
+				.descricao("Aluguel")
+				.mes(3)
+				.ano(2022)
+				.valor(BigDecimal.valueOf(1250.50))
+				.tipo(TipoLancamento.DESPESA)
+				.status(StatusLancamento.PENDENTE)
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+
+		semValor = Lancamento.builder()
+				.descricao("Aluguel")
+				.mes(3)
+				.ano(2022)
+				.tipo(TipoLancamento.DESPESA)
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+	}
+
+	@Benchmark
+	public Lancamento validarLancamentoValido() {
+		service.validar(valido);
+		return valido;
+	}
+
+	@Benchmark
+	public RegraNegocioException validarLancamentoInvalido() {
+		try {
+			service.validar(semValor);
+			return null;
+		} catch (RegraNegocioException e) {
+			return e;
+		}
+	}
+}
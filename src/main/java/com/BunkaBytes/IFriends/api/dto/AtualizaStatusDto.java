@@ -9,4 +9,5 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class AtualizaStatusDto {
 	private String status;
+	private Long usuario;
 }
@@ -0,0 +1,19 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//linha do extrato e o lançamento pendente que ela concilia
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CorrespondenciaDto {
+	private LinhaExtrato linha;
+	private LancamentoProjecao lancamento;
+	//semelhança das descrições, de 0 a 1 (trigramas em comum)
+	private double similaridade;
+}
@@ -0,0 +1,16 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstatisticasCacheDto {
+	private String cache;
+	private Long acertos;
+	private Long falhas;
+	private Long despejos;
+	private Long tamanho;
+}
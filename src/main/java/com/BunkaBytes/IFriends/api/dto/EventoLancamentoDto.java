@@ -0,0 +1,26 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.BunkaBytes.IFriends.model.enums.TipoEventoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Evento enviado aos inscritos do usuário. ids vem nulo quando a operação em lote foi por
+ * filtro; lancamentos só vem preenchido nas escritas de um único lançamento. Nos demais
+ * casos o cliente busca o que mudou em /api/lancamentos/sync.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventoLancamentoDto {
+	private TipoEventoLancamento tipo;
+	private List<Long> ids;
+	private List<LancamentoProjecao> lancamentos;
+	private BigDecimal saldo;
+}
@@ -3,11 +3,15 @@ package com.BunkaBytes.IFriends.api.dto;
 import java.math.BigDecimal;
 
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class LancamentoDto {
 	
 	private Long id;
@@ -0,0 +1,15 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaDto<T> {
+	private List<T> itens;
+	private String proximo;
+}
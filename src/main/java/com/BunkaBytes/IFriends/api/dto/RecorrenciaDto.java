@@ -0,0 +1,30 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecorrenciaDto {
+
+	private Long id;
+	private String descricao;
+	private BigDecimal valor;
+	private Long usuario;
+	private String tipo;
+	private String periodicidade;
+	private Integer mes;
+	private Integer ano;
+	private Integer quantidade;
+	private Integer mesFinal;
+	private Integer anoFinal;
+	private boolean parcelada;
+	private Integer geradas;
+	private Boolean encerrada;
+}
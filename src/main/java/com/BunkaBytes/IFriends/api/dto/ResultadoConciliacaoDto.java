@@ -0,0 +1,28 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoConciliacaoDto {
+	private int lidas;
+	private int rejeitadas;
+	//só as primeiras mensagens de erro; rejeitadas tem o total
+	private List<String> erros = new ArrayList<>();
+	private boolean simulacao;
+	private int efetivados;
+	private int cancelados;
+	private List<CorrespondenciaDto> conciliados = new ArrayList<>();
+	private List<LinhaExtrato> linhasSemCorrespondencia = new ArrayList<>();
+	//pendentes nos meses do extrato que nenhuma linha conciliou
+	private List<LancamentoProjecao> lancamentosSemCorrespondencia = new ArrayList<>();
+}
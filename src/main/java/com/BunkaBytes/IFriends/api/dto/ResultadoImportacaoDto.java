@@ -0,0 +1,20 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoImportacaoDto {
+	private int lidas;
+	private int importadas;
+	private int duplicadas;
+	private int rejeitadas;
+	//só as primeiras mensagens de erro; rejeitadas tem o total
+	private List<String> erros = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoLoteDto {
+	private Integer indice;
+	private Long id;
+	private String erro;
+}
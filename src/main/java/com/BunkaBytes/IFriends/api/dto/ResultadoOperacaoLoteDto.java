@@ -0,0 +1,12 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoOperacaoLoteDto {
+	private Integer afetados;
+}
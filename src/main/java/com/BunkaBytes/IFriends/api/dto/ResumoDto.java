@@ -0,0 +1,18 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumoDto {
+	private Integer ano;
+	private Integer mes;
+	private String tipo;
+	private String status;
+	private BigDecimal valor;
+}
@@ -0,0 +1,18 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.util.List;
+
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SincronizacaoDto {
+	private List<LancamentoProjecao> alterados;
+	private List<Long> excluidos;
+	private Long marca;
+}
@@ -0,0 +1,16 @@
+package com.BunkaBytes.IFriends.api.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VerificacaoSaldoDto {
+	private Long usuario;
+	private BigDecimal saldo;
+	private Boolean divergente;
+}
@@ -0,0 +1,33 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.BunkaBytes.IFriends.service.ArquivamentoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+
+import lombok.RequiredArgsConstructor;
+
+//lançamentos de anos fechados, que saíram da listagem de /api/lancamentos pelo arquivamento
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/lancamentos/arquivo")
+public class LancamentoArquivoResource {
+
+	private final ArquivamentoService service;
+	private final UsuarioService usuarioService;
+
+	@GetMapping
+	public ResponseEntity listar(
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam("ano") Integer ano
+			) {
+		if(!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possivel encontrar o usuário");
+		}
+		return ResponseEntity.ok(service.listarArquivados(idUsuario, ano));
+	}
+}
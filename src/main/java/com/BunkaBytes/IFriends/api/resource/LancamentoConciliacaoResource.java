@@ -0,0 +1,69 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.service.ConciliacaoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.BunkaBytes.IFriends.service.conciliacao.OpcoesConciliacao;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/lancamentos/conciliar")
+public class LancamentoConciliacaoResource {
+
+	private final ConciliacaoService service;
+	private final UsuarioService usuarioService;
+
+	/*
+	 * O extrato vem no corpo, como na importação. Com simular=true só devolve o relatório;
+	 * sem ele, os conciliados passam a EFETIVADO e, com cancelar=true, os pendentes dos meses
+	 * do extrato sem correspondência passam a CANCELADO.
+	 */
+	@PostMapping
+	public ResponseEntity conciliar(
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam(value = "formato", required = false) String formato,
+		@RequestParam(value = "charset", defaultValue = "UTF-8") String charset,
+		@RequestParam(value = "janela", defaultValue = "5") Integer janelaDias,
+		@RequestParam(value = "similaridade", defaultValue = "0.2") Double similaridadeMinima,
+		@RequestParam(value = "cancelar", defaultValue = "false") Boolean cancelar,
+		@RequestParam(value = "simular", defaultValue = "false") Boolean simular,
+		InputStream corpo
+			) throws IOException {
+
+		FormatoExtrato formatoExtrato;
+		Charset codificacao;
+		try {
+			formatoExtrato = formato == null ? null : FormatoExtrato.valueOf(formato.toUpperCase());
+			codificacao = Charset.forName(charset);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e instanceof IllegalCharsetNameException || e instanceof UnsupportedCharsetException
+													? "Charset inválido." : "Formato de extrato inválido. Use ofx ou csv.");
+		}
+
+		if(!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Usuário não encontrado para o Id informado.");
+		}
+
+		OpcoesConciliacao opcoes = new OpcoesConciliacao(janelaDias, similaridadeMinima, cancelar, simular);
+		try {
+			return ResponseEntity.ok(service.conciliar(idUsuario, corpo, formatoExtrato, codificacao, opcoes));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.BunkaBytes.IFriends.service.NotificacaoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Server-Sent Events com as alterações de lançamentos do usuário (criado, alterado,
+ * excluido e lote) e o saldo resultante, no lugar de consultar listagem e saldo
+ * periodicamente. Ao reconectar, o cliente recupera o intervalo perdido por /api/lancamentos/sync.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/lancamentos/eventos")
+public class LancamentoEventosResource {
+
+	private final NotificacaoService service;
+	private final UsuarioService usuarioService;
+
+	//o tipo do corpo precisa ser declarado para o Spring tratar a resposta como SSE
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> inscrever(@RequestParam("usuario") Long idUsuario) {
+
+		if(!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(service.inscrever(idUsuario));
+	}
+}
@@ -0,0 +1,152 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/lancamentos/exportar")
+public class LancamentoExportacaoResource {
+
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+	private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+	//a cada quantas linhas o buffer é enviado ao cliente
+	private static final int LINHAS_POR_FLUSH = 500;
+
+	private final LancamentoService service;
+	private final UsuarioService usuarioService;
+	private final ObjectMapper objectMapper;
+
+	@GetMapping
+	public ResponseEntity exportar(
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam(value = "formato", defaultValue = "ndjson") String formato
+			) {
+
+		//depois que o corpo começa a ser escrito o status já foi enviado
+		if(!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Usuário não encontrado para o Id informado.");
+		}
+
+		if("ndjson".equalsIgnoreCase(formato)) {
+			return ResponseEntity.ok()
+					.contentType(NDJSON)
+					.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos.ndjson\"")
+					.body((StreamingResponseBody) out -> exportarNdjson(idUsuario, out));
+		}
+
+		if("csv".equalsIgnoreCase(formato)) {
+			return ResponseEntity.ok()
+					.contentType(CSV)
+					.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos.csv\"")
+					.body((StreamingResponseBody) out -> exportarCsv(idUsuario, out));
+		}
+
+		return ResponseEntity.badRequest().body("Formato de exportação inválido. Use ndjson ou csv.");
+	}
+
+	private void exportarNdjson(Long idUsuario, OutputStream out) throws IOException {
+		JsonGenerator gerador = objectMapper.getFactory().createGenerator(out);
+		gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		int[] linhas = {0};
+
+		try {
+			service.exportar(idUsuario, lancamento -> {
+				try {
+					escritor.writeValue(gerador, lancamento);
+					gerador.writeRaw('\n');
+					if(++linhas[0] % LINHAS_POR_FLUSH == 1) {
+						gerador.flush();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		gerador.flush();
+	}
+
+	private void exportarCsv(Long idUsuario, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writer.write("id,descricao,mes,ano,valor,tipo,status,data_cadastro\n");
+		writer.flush();
+		int[] linhas = {0};
+
+		try {
+			service.exportar(idUsuario, lancamento -> {
+				try {
+					escreverLinhaCsv(writer, lancamento);
+					if(++linhas[0] % LINHAS_POR_FLUSH == 0) {
+						writer.flush();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+	}
+
+	private void escreverLinhaCsv(Writer writer, LancamentoProjecao lancamento) throws IOException {
+		writer.write(valorCsv(lancamento.getId()));
+		writer.write(',');
+		writer.write(textoCsv(lancamento.getDescricao()));
+		writer.write(',');
+		writer.write(valorCsv(lancamento.getMes()));
+		writer.write(',');
+		writer.write(valorCsv(lancamento.getAno()));
+		writer.write(',');
+		writer.write(lancamento.getValor() == null ? "" : lancamento.getValor().toPlainString());
+		writer.write(',');
+		writer.write(valorCsv(lancamento.getTipo()));
+		writer.write(',');
+		writer.write(valorCsv(lancamento.getStatus()));
+		writer.write(',');
+		writer.write(valorCsv(lancamento.getDataCadastro()));
+		writer.write('\n');
+	}
+
+	private String valorCsv(Object valor) {
+		return valor == null ? "" : valor.toString();
+	}
+
+	private String textoCsv(String texto) {
+		if(texto == null) {
+			return "";
+		}
+		if(texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+			return texto;
+		}
+		return "\"" + texto.replace("\"", "\"\"") + "\"";
+	}
+}
@@ -0,0 +1,62 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.service.ImportacaoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/lancamentos/importar")
+public class LancamentoImportacaoResource {
+
+	private final ImportacaoService service;
+	private final UsuarioService usuarioService;
+
+	/*
+	 * O extrato vem no corpo da requisição (OFX ou CSV) e é lido direto do stream; sem
+	 * formato, é detectado pelo início do arquivo.
+	 */
+	@PostMapping
+	public ResponseEntity importar(
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam(value = "formato", required = false) String formato,
+		@RequestParam(value = "charset", defaultValue = "UTF-8") String charset,
+		InputStream corpo
+			) throws IOException {
+
+		FormatoExtrato formatoExtrato;
+		Charset codificacao;
+		try {
+			formatoExtrato = formato == null ? null : FormatoExtrato.valueOf(formato.toUpperCase());
+			codificacao = Charset.forName(charset);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e instanceof IllegalCharsetNameException || e instanceof UnsupportedCharsetException
+													? "Charset inválido." : "Formato de extrato inválido. Use ofx ou csv.");
+		}
+
+		if(!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Usuário não encontrado para o Id informado.");
+		}
+
+		try {
+			return ResponseEntity.ok(service.importar(idUsuario, corpo, formatoExtrato, codificacao));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+}
@@ -1,8 +1,16 @@
 package com.BunkaBytes.IFriends.api.resource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,20 +19,35 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.BunkaBytes.IFriends.api.dto.AtualizaStatusDto;
 import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.api.dto.OperacaoLoteDto;
+import com.BunkaBytes.IFriends.api.dto.PaginaDto;
+import com.BunkaBytes.IFriends.api.dto.ResultadoLoteDto;
+import com.BunkaBytes.IFriends.api.dto.ResultadoOperacaoLoteDto;
+import com.BunkaBytes.IFriends.exception.ConflitoVersaoException;
 import com.BunkaBytes.IFriends.exception.ErroAutenticacao;
 import com.BunkaBytes.IFriends.exception.RegraNegocioException;
 import com.BunkaBytes.IFriends.model.entity.Lancamento;
 import com.BunkaBytes.IFriends.model.entity.Usuario;
 import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
 import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
 import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
 import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 
@@ -33,17 +56,32 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/lancamentos")
 public class LancamentoResource {
 	
+	private static final int LIMITE_MAXIMO = 500;
+	private static final int TAMANHO_LOTE = 500;
+	
 	private final LancamentoService service;
 	private final UsuarioService usuarioService;
+	private final ObjectMapper objectMapper;
+	private final AlteracaoUsuarioService alteracaoService;
+	private final SincronizacaoService sincronizacaoService;
 	
+	/*
+	 * As listagens respondem com o contador de alterações do usuário como ETag; com o mesmo
+	 * valor em If-None-Match a resposta é 304, sem executar a consulta.
+	 */
 	@GetMapping
 	public ResponseEntity buscar(
 		@RequestParam(value = "descricao", required = false) String descricao,
 		@RequestParam(value = "mes", required = false) Integer mes,
 		@RequestParam(value = "ano", required = false) Integer ano,
 		@RequestParam(value = "tipo", required = false) TipoLancamento tipo,
-		@RequestParam("usuario") Long idUsuario
+		@RequestParam("usuario") Long idUsuario,
+		WebRequest request
 			) {
+		if(request.checkNotModified(alteracaoService.etag(idUsuario))) {
+			return null;
+		}
+		
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
@@ -58,9 +96,98 @@ public class LancamentoResource {
 			lancamentoFiltro.setUsuario(usuario.get());
 		}
 		
-		List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
+		List<LancamentoProjecao> lancamentos = service.listar(lancamentoFiltro);
 		return ResponseEntity.ok(lancamentos);
 	}
+	
+	@GetMapping(params = "limite")
+	public ResponseEntity buscarPagina(
+		@RequestParam(value = "descricao", required = false) String descricao,
+		@RequestParam(value = "mes", required = false) Integer mes,
+		@RequestParam(value = "ano", required = false) Integer ano,
+		@RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam("limite") Integer limite,
+		@RequestParam(value = "proximo", required = false) String proximo,
+		WebRequest request
+			) {
+		if(limite < 1 || limite > LIMITE_MAXIMO) {
+			return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO + ".");
+		}
+		if(request.checkNotModified(alteracaoService.etag(idUsuario))) {
+			return null;
+		}
+		
+		Lancamento ultimo = null;
+		if(proximo != null) {
+			try {
+				ultimo = decodificarCursor(proximo);
+			} catch (IllegalArgumentException e) {
+				return ResponseEntity.badRequest().body("Cursor de paginação inválido.");
+			}
+		}
+		
+		Lancamento lancamentoFiltro = new Lancamento();
+		lancamentoFiltro.setDescricao(descricao);
+		lancamentoFiltro.setMes(mes);
+		lancamentoFiltro.setAno(ano);
+		lancamentoFiltro.setTipo(tipo);
+		lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+		
+		//busca um item a mais só para saber se existe próxima página
+		List<LancamentoProjecao> lancamentos = service.buscarPagina(lancamentoFiltro, ultimo, limite + 1);
+		
+		String cursor = null;
+		if(lancamentos.size() > limite) {
+			lancamentos = lancamentos.subList(0, limite);
+			cursor = codificarCursor(lancamentos.get(limite - 1));
+		}
+		return ResponseEntity.ok(new PaginaDto<>(lancamentos, cursor));
+	}
+
+	/*
+	 * Filtro tipado: faixas de valor e período, listas de tipos, status, anos e meses,
+	 * ordenação e limite, tudo resolvido no banco.
+	 */
+	@PostMapping("/filtro")
+	public ResponseEntity filtrar(@RequestBody FiltroLancamento filtro) {
+		
+		try {
+			return ResponseEntity.ok(service.filtrar(filtro));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	/*
+	 * Sincronização incremental: lançamentos criados ou alterados e ids excluídos depois da
+	 * marca informada em since, com a nova marca a ser usada na próxima chamada. Sem since
+	 * devolve todos os lançamentos do usuário.
+	 */
+	@GetMapping("/sync")
+	public ResponseEntity sincronizar(
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam(value = "since", required = false) Long desde
+			) {
+		if(!usuarioService.obterPorId(idUsuario).isPresent()) {
+			return ResponseEntity.badRequest().body("Não foi possivel encontrar o usuário");
+		}
+		return ResponseEntity.ok(sincronizacaoService.sincronizar(idUsuario, desde));
+	}
+	
+	//o ETag é a versão do lançamento, a ser devolvida em If-Match no PUT
+	@GetMapping("{id}")
+	public ResponseEntity obter(@PathVariable("id") Long id, WebRequest request) {
+		
+		Optional<LancamentoProjecao> lancamento = service.obterProjecaoPorId(id);
+		if(!lancamento.isPresent()) {
+			return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND);
+		}
+		if(request.checkNotModified(etag(lancamento.get().getVersao()))) {
+			return null;
+		}
+		return ResponseEntity.ok(lancamento.get());
+	}
 
 	@PostMapping
 	public ResponseEntity salvar(@RequestBody LancamentoDto dto) {
@@ -75,44 +202,153 @@ public class LancamentoResource {
 
 	}
 	
-	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDto dto) {
+	/*
+	 * Recebe um array JSON de lançamentos e o lê em streaming: a cada TAMANHO_LOTE
+	 * itens válidos o lote é persistido e descartado, então o corpo inteiro nunca
+	 * fica em memória. O resultado traz o id ou o erro de cada item, pela posição.
+	 */
+	@PostMapping("/lote")
+	public ResponseEntity salvarLote(InputStream corpo) throws IOException {
 		
-		return service.obterPorId(id).map(entity -> {
+		List<ResultadoLoteDto> resultados = new ArrayList<>();
+		Map<Long, Optional<Usuario>> usuarios = new HashMap<>();
+		List<Lancamento> lote = new ArrayList<>();
+		List<ResultadoLoteDto> pendentes = new ArrayList<>();
+		
+		try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+			if(parser.nextToken() != JsonToken.START_ARRAY) {
+				return ResponseEntity.badRequest().body("Informe uma lista de lançamentos.");
+			}
 			
-			try {
-				Lancamento lancamento = converter(dto);
-				lancamento.setId(id);
-				service.atualizar(lancamento);
-				return  ResponseEntity.ok(lancamento);
+			while(parser.nextToken() == JsonToken.START_OBJECT) {
+				ResultadoLoteDto resultado = new ResultadoLoteDto(resultados.size(), null, null);
+				resultados.add(resultado);
 				
-			} catch (RegraNegocioException e) {
-				return ResponseEntity.badRequest().body(e.getMessage());
+				LancamentoDto dto = objectMapper.readValue(parser, LancamentoDto.class);
+				try {
+					Usuario usuario = usuarios
+										.computeIfAbsent(dto.getUsuario(), id -> id == null ? Optional.empty() : usuarioService.obterPorId(id))
+										.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado."));
+					
+					Lancamento lancamento = converter(dto, usuario);
+					lancamento.setId(null);
+					service.validar(lancamento);
+					lote.add(lancamento);
+					pendentes.add(resultado);
+				} catch (RegraNegocioException | IllegalArgumentException e) {
+					resultado.setErro(e.getMessage());
+				}
+				
+				if(lote.size() == TAMANHO_LOTE) {
+					persistirLote(lote, pendentes);
+				}
 			}
+			persistirLote(lote, pendentes);
 			
-		}).orElseGet(() -> 
-			new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+		} catch (JsonProcessingException e) {
+			persistirLote(lote, pendentes);
+			return ResponseEntity.badRequest().body("JSON inválido após o item " + (resultados.size() - 1) + ": " + e.getOriginalMessage());
+		}
+		
+		return ResponseEntity.ok(resultados);
+	}
+	
+	/*
+	 * Atualização em um único UPDATE filtrado por id e usuário, sem carregar o lançamento
+	 * nem o usuário. Responde com o lançamento no formato da listagem (usuário pelo id) e a
+	 * nova versão como ETag. Com If-Match, uma versão diferente da gravada responde 412.
+	 */
+	@PutMapping("{id}")
+	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDto dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		
+		try {
+			Lancamento lancamento = converter(dto, dto.getUsuario() == null ? null : Usuario.builder().id(dto.getUsuario()).build());
+			lancamento.setId(id);
+			lancamento.setVersao(versaoEsperada(ifMatch));
+			Optional<LancamentoProjecao> atualizado = service.atualizarCampos(lancamento);
+			if(!atualizado.isPresent()) {
+				return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND);
+			}
+			return ResponseEntity.ok().eTag(etag(atualizado.get().getVersao())).body(atualizado.get());
+			
+		} catch (ConflitoVersaoException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.PRECONDITION_FAILED);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
 	}
 	
 	@PutMapping("{id}/atualizar-status")
-	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDto dto) {
+	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDto dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		
+		StatusLancamento statusSelecionado;
+		try {
+			statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			return ResponseEntity.badRequest().body("Não foi possivel atualizar o status do lançamento. ");
+		}
+		
+		Long versao;
+		try {
+			versao = versaoEsperada(ifMatch);
+		} catch (ConflitoVersaoException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.PRECONDITION_FAILED);
+		}
+		
+		//com o usuário informado a troca de status é um único UPDATE
+		if(dto.getUsuario() != null) {
+			try {
+				if(!service.atualizarStatus(id, dto.getUsuario(), statusSelecionado, versao)) {
+					return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND);
+				}
+			} catch (ConflitoVersaoException e) {
+				return new ResponseEntity(e.getMessage(), HttpStatus.PRECONDITION_FAILED);
+			}
+			return versao == null ? ResponseEntity.noContent().build() : ResponseEntity.noContent().eTag(etag(versao + 1)).build();
+		}
 		
 		return service.obterPorId(id).map(entity -> {
 			
+			if(versao != null && !versao.equals(entity.getVersao())) {
+				return new ResponseEntity("O lançamento foi alterado por outra requisição.", HttpStatus.PRECONDITION_FAILED);
+			}
 			try {
-				StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-				if(statusSelecionado == null) {
-					return ResponseEntity.badRequest().body("Não foi possivel atualizar o status do lançamento. ");
-				}
-				entity.setStatus(statusSelecionado);
-				service.atualizar(entity);
+				service.atualizarStatus(entity, statusSelecionado);
 				return 	ResponseEntity.ok(entity);
 				
 			} catch (RegraNegocioException e) {
 				return ResponseEntity.badRequest().body(e.getMessage());
 			}
 		}).orElseGet(() -> 
-			new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+			new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.NOT_FOUND));
+	}
+	
+	/*
+	 * Operações em lote sobre os lançamentos de um usuário, pelos ids informados ou pelo
+	 * filtro (ano, mes, tipo e status atual). Respondem com a quantidade de lançamentos afetados.
+	 */
+	@PutMapping("/lote/status")
+	public ResponseEntity atualizarStatusEmLote(@RequestBody OperacaoLoteDto dto) {
+		
+		try {
+			int afetados = service.atualizarStatusEmLote(filtroLote(dto), dto.getIds(), converterStatus(dto.getNovoStatus()));
+			return ResponseEntity.ok(new ResultadoOperacaoLoteDto(afetados));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@PostMapping("/lote/excluir")
+	public ResponseEntity deletarEmLote(@RequestBody OperacaoLoteDto dto) {
+		
+		try {
+			int afetados = service.deletarEmLote(filtroLote(dto), dto.getIds());
+			return ResponseEntity.ok(new ResultadoOperacaoLoteDto(afetados));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
 	}
 	
 	@DeleteMapping("{id}")
@@ -127,18 +363,38 @@ public class LancamentoResource {
 			new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
 	}
 	
+	private void persistirLote(List<Lancamento> lote, List<ResultadoLoteDto> pendentes) {
+		if(lote.isEmpty()) {
+			return;
+		}
+		
+		try {
+			service.salvarLote(lote);
+			for(int i = 0; i < lote.size(); i++) {
+				pendentes.get(i).setId(lote.get(i).getId());
+			}
+		} catch (RegraNegocioException e) {
+			pendentes.forEach(resultado -> resultado.setErro(e.getMessage()));
+		}
+		lote.clear();
+		pendentes.clear();
+	}
+	
 	private Lancamento converter(LancamentoDto dto) {
+		Usuario usuario = usuarioService
+							.obterPorId(dto.getUsuario())
+							.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado."));
+		
+		return converter(dto, usuario);
+	}
+	
+	Lancamento converter(LancamentoDto dto, Usuario usuario) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
 		lancamento.setAno(dto.getAno());
 		lancamento.setMes(dto.getMes());
 		lancamento.setValor(dto.getValor());
-		
-		Usuario usuario = usuarioService
-							.obterPorId(dto.getUsuario())
-							.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado."));
-		
 		lancamento.setUsuario(usuario);
 		
 		if(dto.getTipo() != null) {
@@ -153,6 +409,68 @@ public class LancamentoResource {
 		return lancamento;
 	}
 	
+	private String etag(Long versao) {
+		return "\"" + versao + "\"";
+	}
+	
+	//aceita "3", W/"3" ou *; qualquer outro valor nunca corresponde a uma versão gravada
+	private Long versaoEsperada(String ifMatch) {
+		if(ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		
+		String versao = ifMatch.trim();
+		if(versao.startsWith("W/")) {
+			versao = versao.substring(2);
+		}
+		try {
+			return Long.valueOf(versao.replace("\"", ""));
+		} catch (NumberFormatException e) {
+			throw new ConflitoVersaoException("If-Match não corresponde a nenhuma versão do lançamento.");
+		}
+	}
+	
+	private Lancamento filtroLote(OperacaoLoteDto dto) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(dto.getUsuario() == null ? null : Usuario.builder().id(dto.getUsuario()).build());
+		filtro.setAno(dto.getAno());
+		filtro.setMes(dto.getMes());
+		filtro.setStatus(converterStatus(dto.getStatus()));
+		
+		try {
+			filtro.setTipo(dto.getTipo() == null ? null : TipoLancamento.valueOf(dto.getTipo()));
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Tipo de lançamento inválido: " + dto.getTipo() + ".");
+		}
+		return filtro;
+	}
+	
+	private StatusLancamento converterStatus(String status) {
+		try {
+			return status == null ? null : StatusLancamento.valueOf(status);
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Status de lançamento inválido: " + status + ".");
+		}
+	}
+	
+	private String codificarCursor(LancamentoProjecao ultimo) {
+		String cursor = ultimo.getAno() + ":" + ultimo.getMes() + ":" + ultimo.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private Lancamento decodificarCursor(String cursor) {
+		String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+		if(partes.length != 3) {
+			throw new IllegalArgumentException(cursor);
+		}
+		
+		Lancamento ultimo = new Lancamento();
+		ultimo.setAno(Integer.valueOf(partes[0]));
+		ultimo.setMes(Integer.valueOf(partes[1]));
+		ultimo.setId(Long.valueOf(partes[2]));
+		return ultimo;
+	}
+	
 }
 
 
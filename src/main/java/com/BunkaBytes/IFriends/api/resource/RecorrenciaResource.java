@@ -0,0 +1,151 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.BunkaBytes.IFriends.api.dto.RecorrenciaDto;
+import com.BunkaBytes.IFriends.api.dto.ResultadoOperacaoLoteDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.Periodicidade;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.service.RecorrenciaService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/recorrencias")
+public class RecorrenciaResource {
+
+	private final RecorrenciaService service;
+	private final UsuarioService usuarioService;
+
+	//cria a série e já grava as ocorrências; a resposta traz quantas foram geradas
+	@PostMapping
+	public ResponseEntity criar(@RequestBody RecorrenciaDto dto) {
+
+		try {
+			Usuario usuario = usuarioService
+								.obterPorId(dto.getUsuario())
+								.orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o Id informado."));
+			Recorrencia recorrencia = service.criar(converter(dto, usuario));
+			return new ResponseEntity(converter(recorrencia), HttpStatus.CREATED);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@GetMapping
+	public ResponseEntity listar(@RequestParam("usuario") Long idUsuario) {
+		List<RecorrenciaDto> recorrencias = service.listar(idUsuario).stream()
+													.map(this::converter)
+													.collect(Collectors.toList());
+		return ResponseEntity.ok(recorrencias);
+	}
+
+	/*
+	 * Nova descrição, valor ou tipo para as ocorrências pendentes a partir de mes/ano (sem
+	 * eles, todas as pendentes), num único UPDATE.
+	 */
+	@PutMapping("{id}")
+	public ResponseEntity atualizar(
+		@PathVariable("id") Long id,
+		@RequestParam(value = "mes", required = false) Integer mes,
+		@RequestParam(value = "ano", required = false) Integer ano,
+		@RequestBody RecorrenciaDto dto
+			) {
+
+		try {
+			Recorrencia recorrencia = converter(dto, dto.getUsuario() == null ? null : Usuario.builder().id(dto.getUsuario()).build());
+			recorrencia.setId(id);
+			return ResponseEntity.ok(new ResultadoOperacaoLoteDto(service.atualizar(recorrencia, competencia(mes, ano))));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	//encerra a série e cancela as ocorrências pendentes a partir de mes/ano
+	@PutMapping("{id}/cancelar")
+	public ResponseEntity cancelar(
+		@PathVariable("id") Long id,
+		@RequestParam("usuario") Long idUsuario,
+		@RequestParam(value = "mes", required = false) Integer mes,
+		@RequestParam(value = "ano", required = false) Integer ano
+			) {
+
+		try {
+			return ResponseEntity.ok(new ResultadoOperacaoLoteDto(service.cancelar(idUsuario, id, competencia(mes, ano))));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	private int competencia(Integer mes, Integer ano) {
+		if(mes == null && ano == null) {
+			return 0;
+		}
+		if(mes == null || mes < 1 || mes > 12 || ano == null) {
+			throw new RegraNegocioException("Informe mês e ano válidos.");
+		}
+		return ano * 12 + mes - 1;
+	}
+
+	private Recorrencia converter(RecorrenciaDto dto, Usuario usuario) {
+		Recorrencia recorrencia = new Recorrencia();
+		recorrencia.setDescricao(dto.getDescricao());
+		recorrencia.setValor(dto.getValor());
+		recorrencia.setUsuario(usuario);
+		recorrencia.setMesInicial(dto.getMes());
+		recorrencia.setAnoInicial(dto.getAno());
+		recorrencia.setQuantidade(dto.getQuantidade());
+		recorrencia.setMesFinal(dto.getMesFinal());
+		recorrencia.setAnoFinal(dto.getAnoFinal());
+		recorrencia.setParcelada(dto.isParcelada());
+
+		try {
+			if(dto.getTipo() != null) {
+				recorrencia.setTipo(TipoLancamento.valueOf(dto.getTipo()));
+			}
+			if(dto.getPeriodicidade() != null) {
+				recorrencia.setPeriodicidade(Periodicidade.valueOf(dto.getPeriodicidade()));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new RegraNegocioException("Tipo ou periodicidade inválidos.");
+		}
+		return recorrencia;
+	}
+
+	//usuário pelo id, sem carregar o cadastro
+	private RecorrenciaDto converter(Recorrencia recorrencia) {
+		return RecorrenciaDto.builder()
+				.id(recorrencia.getId())
+				.descricao(recorrencia.getDescricao())
+				.valor(recorrencia.getValor())
+				.usuario(recorrencia.getUsuario().getId())
+				.tipo(recorrencia.getTipo().name())
+				.periodicidade(recorrencia.getPeriodicidade().name())
+				.mes(recorrencia.getMesInicial())
+				.ano(recorrencia.getAnoInicial())
+				.quantidade(recorrencia.getQuantidade())
+				.mesFinal(recorrencia.getMesFinal())
+				.anoFinal(recorrencia.getAnoFinal())
+				.parcelada(recorrencia.isParcelada())
+				.geradas(recorrencia.getGeradas())
+				.encerrada(recorrencia.isEncerrada())
+				.build();
+	}
+}
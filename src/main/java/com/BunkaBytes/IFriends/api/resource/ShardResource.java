@@ -0,0 +1,48 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.BunkaBytes.IFriends.config.RebalanceamentoShards;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+
+import lombok.RequiredArgsConstructor;
+
+//administração dos shards: distribuição, usuários fora do shard do anel e rebalanceamento
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/shards")
+public class ShardResource {
+
+	private final RebalanceamentoShards rebalanceamento;
+
+	@GetMapping
+	public ResponseEntity distribuicao() {
+		return ResponseEntity.ok(rebalanceamento.distribuicao());
+	}
+
+	@GetMapping("/pendentes")
+	public ResponseEntity pendentes() {
+		return ResponseEntity.ok(rebalanceamento.listarPendentes());
+	}
+
+	@PostMapping("/rebalancear")
+	public ResponseEntity rebalancear(@RequestParam(value = "limite", defaultValue = "100") int limite) {
+		return ResponseEntity.ok(rebalanceamento.rebalancear(limite));
+	}
+
+	@PostMapping("/usuarios/{id}")
+	public ResponseEntity mover(@PathVariable("id") Long idUsuario, @RequestParam("destino") String destino) {
+		try {
+			rebalanceamento.mover(idUsuario, destino);
+			return ResponseEntity.noContent().build();
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+}
@@ -1,8 +1,16 @@
 package com.BunkaBytes.IFriends.api.resource;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,14 +18,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.BunkaBytes.IFriends.api.dto.EstatisticasCacheDto;
+import com.BunkaBytes.IFriends.api.dto.ResumoDto;
 import com.BunkaBytes.IFriends.api.dto.UsuarioDto;
+import com.BunkaBytes.IFriends.api.dto.VerificacaoSaldoDto;
 import com.BunkaBytes.IFriends.exception.ErroAutenticacao;
 import com.BunkaBytes.IFriends.exception.RegraNegocioException;
 import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
 import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.ResumoLancamentoService;
+import com.BunkaBytes.IFriends.service.SaldoUsuarioService;
 import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 import lombok.RequiredArgsConstructor;
 
@@ -28,6 +47,10 @@ public class UsuarioResource {
 	
 	private final UsuarioService service;
 	private final LancamentoService lancamentoService;
+	private final SaldoUsuarioService saldoService;
+	private final ResumoLancamentoService resumoService;
+	private final AlteracaoUsuarioService alteracaoService;
+	private final CacheManager cacheManager;
 	
 	@PostMapping("/autenticar")
 	public ResponseEntity autenticar(@RequestBody UsuarioDto dto) {
@@ -58,8 +81,13 @@ public class UsuarioResource {
 		}
 	}
 	
+	//ETag pelo contador de alterações do usuário: If-None-Match igual responde 304 sem ler o saldo
 	@GetMapping("{id}/saldo")
-	public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
+	public ResponseEntity obterSaldo(@PathVariable("id") Long id, WebRequest request) {
+		
+		if(request.checkNotModified(alteracaoService.etag(id))) {
+			return null;
+		}
 		
 		Optional<Usuario> usuario = service.obterPorId(id);
 		
@@ -70,5 +98,63 @@ public class UsuarioResource {
 		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
 		return ResponseEntity.ok(saldo);
 	}
+	
+	//reconstrói o saldo materializado a partir dos lançamentos quando houver suspeita de divergência
+	@PostMapping("{id}/saldo/recalcular")
+	public ResponseEntity recalcularSaldo(@PathVariable("id") Long id) {
+		
+		if(!service.obterPorId(id).isPresent()) {
+			return new ResponseEntity(HttpStatus.NOT_FOUND);
+		}
+		
+		boolean divergente = saldoService.recalcular(id);
+		if(divergente) {
+			alteracaoService.registrar(id);
+		}
+		BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+		return ResponseEntity.ok(new VerificacaoSaldoDto(id, saldo, divergente));
+	}
+	
+	//totais agregados por qualquer combinação de ano, mes, tipo e status, ex: ?agrupar=mes,tipo&ano=2022
+	@GetMapping("{id}/resumo")
+	public ResponseEntity obterResumo(
+		@PathVariable("id") Long id,
+		@RequestParam(value = "agrupar", defaultValue = "") String agrupar,
+		@RequestParam(value = "ano", required = false) Integer ano,
+		@RequestParam(value = "mes", required = false) Integer mes,
+		@RequestParam(value = "tipo", required = false) TipoLancamento tipo,
+		@RequestParam(value = "status", required = false) StatusLancamento status,
+		WebRequest request
+			) {
+		
+		if(request.checkNotModified(alteracaoService.etag(id))) {
+			return null;
+		}
+		try {
+			Set<String> dimensoes = Arrays.stream(agrupar.split(","))
+										.map(String::trim)
+										.filter(dimensao -> !dimensao.isEmpty())
+										.collect(Collectors.toSet());
+			List<ResumoDto> resumo = resumoService.resumir(id, dimensoes, ano, mes, tipo, status);
+			return ResponseEntity.ok(resumo);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+	
+	@GetMapping("/cache")
+	public ResponseEntity obterEstatisticasCache() {
+		
+		List<EstatisticasCacheDto> estatisticas = new ArrayList<>();
+		for(String nome : cacheManager.getCacheNames()) {
+			Cache cache = cacheManager.getCache(nome);
+			if(cache instanceof CaffeineCache) {
+				com.github.benmanes.caffeine.cache.Cache<Object, Object> nativo = ((CaffeineCache) cache).getNativeCache();
+				CacheStats stats = nativo.stats();
+				estatisticas.add(new EstatisticasCacheDto(nome, stats.hitCount(), stats.missCount(), stats.evictionCount(), nativo.estimatedSize()));
+			}
+		}
+		return ResponseEntity.ok(estatisticas);
+	}
 		
 }
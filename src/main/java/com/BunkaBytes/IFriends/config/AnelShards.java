@@ -0,0 +1,52 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/*
+ * Hash consistente dos ids de usuário sobre os shards: cada shard ocupa VIRTUAIS pontos do
+ * anel e o usuário fica no primeiro ponto a partir do hash do seu id. Ao incluir um shard só
+ * os usuários que caem nos pontos dele mudam de lugar (cerca de 1/N), os demais ficam onde estão.
+ */
+public class AnelShards {
+
+	static final int VIRTUAIS = 160;
+
+	private final NavigableMap<Long, String> anel = new TreeMap<>();
+
+	public AnelShards(List<String> shards) {
+		if(shards.isEmpty()) {
+			throw new IllegalArgumentException("Informe ao menos um shard.");
+		}
+		for(String shard : shards) {
+			for(int i = 0; i < VIRTUAIS; i++) {
+				anel.put(hash(shard + "#" + i), shard);
+			}
+		}
+	}
+
+	public String shardDe(Long idUsuario) {
+		Map.Entry<Long, String> ponto = anel.ceilingEntry(misturar(idUsuario));
+		return (ponto == null ? anel.firstEntry() : ponto).getValue();
+	}
+
+	//FNV-1a sobre os bytes do nome, estável entre execuções (ao contrário de hashCode de objetos)
+	static long hash(String texto) {
+		long hash = 0xcbf29ce484222325L;
+		for(byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return misturar(hash);
+	}
+
+	//finalizador do SplitMix64: ids sequenciais se espalham pelo anel inteiro
+	static long misturar(long valor) {
+		valor = (valor ^ (valor >>> 30)) * 0xbf58476d1ce4e5b9L;
+		valor = (valor ^ (valor >>> 27)) * 0x94d049bb133111ebL;
+		return valor ^ (valor >>> 31);
+	}
+}
@@ -0,0 +1,46 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.BunkaBytes.IFriends.service.ArquivamentoService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//arquivamento periódico dos anos fechados; cada usuário e ano é uma transação separada, no shard do usuário
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArquivamentoAgendado {
+
+	private final ArquivamentoService service;
+	private final RoteadorShards roteador;
+
+	@Scheduled(cron = "${ifriends.arquivo.cron:0 30 3 1 * *}")
+	public void arquivarAnosFechados() {
+		Map<Integer, List<Long>> pendentes = new TreeMap<>();
+		for(Map<Integer, List<Long>> doShard : roteador.emTodos(service::listarPendentes).values()) {
+			doShard.forEach((ano, usuarios) -> pendentes.computeIfAbsent(ano, chave -> new ArrayList<>()).addAll(usuarios));
+		}
+
+		int arquivados = 0;
+		for(Map.Entry<Integer, List<Long>> pendente : pendentes.entrySet()) {
+			for(Long idUsuario : pendente.getValue()) {
+				try {
+					arquivados += service.arquivar(idUsuario, pendente.getKey());
+				} catch (RuntimeException e) {
+					log.warn("Falha ao arquivar o ano {} do usuário {}.", pendente.getKey(), idUsuario, e);
+				}
+			}
+		}
+		if(arquivados > 0) {
+			log.info("{} lançamentos de anos anteriores a {} movidos para o arquivo.", arquivados, service.anoLimite());
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.BunkaBytes.IFriends.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Registra no Hibernate um StatementInspector que só repassa cada comando SQL para a
+ * ContagemConsultas da thread atual, e o filtro que abre uma contagem por requisição.
+ */
+@Configuration
+public class ConsultasConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer contadorConsultas() {
+		StatementInspector inspector = sql -> {
+			ContagemConsultas.registrar(sql);
+			return sql;
+		};
+		return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+	}
+	
+	@Bean
+	public OrcamentoConsultasFilter orcamentoConsultasFilter(MeterRegistry registry,
+			@Value("${ifriends.sql.orcamento-por-requisicao:10}") int orcamento,
+			@Value("${ifriends.sql.repeticoes-n-mais-1:3}") int repeticoes) {
+		return new OrcamentoConsultasFilter(registry, orcamento, repeticoes);
+	}
+}
@@ -0,0 +1,84 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Conta os comandos SQL executados pela thread atual entre iniciar() e encerrar(). As
+ * contagens podem ser aninhadas: ao encerrar, o que foi contado soma na contagem de fora,
+ * então um teste pode envolver uma requisição que já é contada pelo filtro.
+ *
+ * O mesmo SELECT (com os parâmetros como ?) repetido várias vezes na mesma contagem é o
+ * sinal de um N+1.
+ */
+public class ContagemConsultas {
+
+	private static final ThreadLocal<ContagemConsultas> ATUAL = new ThreadLocal<>();
+
+	private final ContagemConsultas anterior;
+	private final Map<String, Integer> porComando = new LinkedHashMap<>();
+	private final long inicio = System.nanoTime();
+	private long fim;
+	private int total;
+
+	private ContagemConsultas(ContagemConsultas anterior) {
+		this.anterior = anterior;
+	}
+
+	public static ContagemConsultas iniciar() {
+		ContagemConsultas contagem = new ContagemConsultas(ATUAL.get());
+		ATUAL.set(contagem);
+		return contagem;
+	}
+
+	static void registrar(String sql) {
+		ContagemConsultas contagem = ATUAL.get();
+		if(contagem != null) {
+			contagem.somar(sql, 1);
+		}
+	}
+
+	public ContagemConsultas encerrar() {
+		if(fim != 0) {
+			return this;
+		}
+		fim = System.nanoTime();
+		if(ATUAL.get() == this) {
+			if(anterior == null) {
+				ATUAL.remove();
+			} else {
+				ATUAL.set(anterior);
+			}
+		}
+		if(anterior != null) {
+			porComando.forEach(anterior::somar);
+		}
+		return this;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public long getDuracaoMillis() {
+		return ((fim == 0 ? System.nanoTime() : fim) - inicio) / 1_000_000;
+	}
+
+	/*
+	 * SELECTs executados pelo menos minimo vezes, com a quantidade de cada um.
+	 */
+	public Map<String, Integer> getRepetidas(int minimo) {
+		Map<String, Integer> repetidas = new LinkedHashMap<>();
+		porComando.forEach((sql, vezes) -> {
+			if(vezes >= minimo && sql.trim().regionMatches(true, 0, "select", 0, 6)) {
+				repetidas.put(sql, vezes);
+			}
+		});
+		return repetidas;
+	}
+
+	private void somar(String sql, int vezes) {
+		porComando.merge(sql, vezes, Integer::sum);
+		total += vezes;
+	}
+}
@@ -0,0 +1,25 @@
+package com.BunkaBytes.IFriends.config;
+
+/*
+ * Usuário da requisição atual, usado pelo roteamento de leituras para decidir entre réplica
+ * e primário. Preenchido por UsuarioRequisicaoFilter e limpo ao fim da requisição.
+ */
+public final class ContextoLeitura {
+
+	private static final ThreadLocal<Long> USUARIO = new ThreadLocal<>();
+
+	private ContextoLeitura() {
+	}
+
+	public static void definir(Long idUsuario) {
+		USUARIO.set(idUsuario);
+	}
+
+	public static Long usuario() {
+		return USUARIO.get();
+	}
+
+	public static void limpar() {
+		USUARIO.remove();
+	}
+}
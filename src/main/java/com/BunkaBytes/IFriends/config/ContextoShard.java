@@ -0,0 +1,43 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.function.Supplier;
+
+/*
+ * Shard em que a thread atual está trabalhando, lido por ShardDataSource ao abrir a conexão.
+ * Sem shard definido a conexão vai para o principal.
+ */
+public final class ContextoShard {
+
+	public static final String PRINCIPAL = "principal";
+
+	private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+	private ContextoShard() {
+	}
+
+	public static String atual() {
+		return SHARD.get();
+	}
+
+	public static void definir(String shard) {
+		SHARD.set(shard);
+	}
+
+	public static void limpar() {
+		SHARD.remove();
+	}
+
+	public static <T> T executar(String shard, Supplier<T> tarefa) {
+		String anterior = SHARD.get();
+		SHARD.set(shard);
+		try {
+			return tarefa.get();
+		} finally {
+			if(anterior == null) {
+				SHARD.remove();
+			} else {
+				SHARD.set(anterior);
+			}
+		}
+	}
+}
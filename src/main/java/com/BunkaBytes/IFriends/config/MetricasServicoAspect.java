@@ -0,0 +1,43 @@
+package com.BunkaBytes.IFriends.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Timer para cada método público das classes anotadas com @Timed, com as tags class, method
+ * e exception. O TimedAspect do Micrometer 1.8 só considera @Timed em métodos.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasServicoAspect {
+
+	private final MeterRegistry registry;
+
+	@Around("@within(timed) && execution(public * *(..))")
+	public Object medir(ProceedingJoinPoint ponto, Timed timed) throws Throwable {
+		Timer.Sample amostra = Timer.start(registry);
+		String excecao = "none";
+		try {
+			return ponto.proceed();
+		} catch (Throwable e) {
+			excecao = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			amostra.stop(Timer.builder(timed.value())
+							.tag("class", ponto.getSignature().getDeclaringTypeName())
+							.tag("method", ponto.getSignature().getName())
+							.tag("exception", excecao)
+							.publishPercentileHistogram(timed.histogram())
+							.register(registry));
+		}
+	}
+}
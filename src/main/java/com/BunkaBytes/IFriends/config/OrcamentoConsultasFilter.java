@@ -0,0 +1,67 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Conta os comandos SQL de cada requisição HTTP. A quantidade vai para a métrica
+ * ifriends.sql.consultas (por uri e método). Requisições acima do orçamento geram um
+ * aviso no log, e SELECTs idênticos repetidos incrementam ifriends.sql.n_mais_1.
+ */
+@Slf4j
+public class OrcamentoConsultasFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry registry;
+	private final int orcamento;
+	private final int repeticoes;
+
+	public OrcamentoConsultasFilter(MeterRegistry registry, int orcamento, int repeticoes) {
+		this.registry = registry;
+		this.orcamento = orcamento;
+		this.repeticoes = repeticoes;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			contagem.encerrar();
+			registrar(request, contagem);
+		}
+	}
+
+	private void registrar(HttpServletRequest request, ContagemConsultas contagem) {
+		Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String uri = padrao == null ? "UNKNOWN" : padrao.toString();
+
+		registry.summary("ifriends.sql.consultas", "uri", uri, "method", request.getMethod()).record(contagem.getTotal());
+
+		if(contagem.getTotal() > orcamento) {
+			log.warn("{} {} executou {} comandos SQL em {} ms (orçamento: {})",
+						request.getMethod(), uri, contagem.getTotal(), contagem.getDuracaoMillis(), orcamento);
+		}
+
+		Map<String, Integer> repetidas = contagem.getRepetidas(repeticoes);
+		if(!repetidas.isEmpty()) {
+			registry.counter("ifriends.sql.n_mais_1", "uri", uri, "method", request.getMethod()).increment();
+			repetidas.forEach((sql, vezes) ->
+				log.warn("Possível N+1 em {} {}: {} vezes {}", request.getMethod(), uri, vezes, sql));
+		}
+	}
+}
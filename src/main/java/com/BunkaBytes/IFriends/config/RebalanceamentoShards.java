@@ -0,0 +1,239 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.api.dto.DistribuicaoShardDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Ferramenta administrativa dos shards: distribuição de usuários e lançamentos e a mudança
+ * de usuários para o shard que o anel indica (depois de incluir um shard, por exemplo).
+ *
+ * A mudança marca o usuário no diretório (novas chamadas dele são recusadas), copia as
+ * linhas dele para o destino numa transação, aponta o diretório para o destino e só então
+ * apaga a origem.
+ *
+ * Os outros nós só veem a marca quando o cache do diretório expira, então a cópia espera a
+ * validade do cache mais ifriends.shards.espera-mudanca (chamadas que já estavam em andamento
+ * na origem). Mesmo assim a origem é conferida: se contagens ou sequencia_alteracao do usuário
+ * mudarem depois da leitura da cópia, a mudança é desfeita ou a origem não é apagada.
+ */
+@Slf4j
+@Component
+public class RebalanceamentoShards {
+
+	//tabelas com dados do usuário (coluna id_usuario); o cadastro em usuario é copiado antes delas
+	private static final List<String> TABELAS = List.of("lancamento", "saldo_usuario", "indice_descricao",
+			"lancamento_trigrama", "sequencia_alteracao", "lancamento_excluido", "lancamento_arquivo", "resumo_arquivo", "recorrencia");
+	private static final int LOTE = 500;
+
+	private final RoteadorShards roteador;
+	private final LancamentoRepository lancamentoRepository;
+	private final UsuarioRepository usuarioRepository;
+	private final Duration esperaMudanca;
+
+	public RebalanceamentoShards(RoteadorShards roteador, LancamentoRepository lancamentoRepository, UsuarioRepository usuarioRepository,
+			@Value("${ifriends.shards.espera-mudanca:5s}") Duration esperaMudanca) {
+		this.roteador = roteador;
+		this.lancamentoRepository = lancamentoRepository;
+		this.usuarioRepository = usuarioRepository;
+		this.esperaMudanca = esperaMudanca;
+	}
+
+	//consulta entre usuários: passa por todos os shards
+	public List<DistribuicaoShardDto> distribuicao() {
+		Map<String, Long> usuarios = contarUsuarios();
+		return roteador.emTodos(lancamentoRepository::count)
+						.entrySet()
+						.stream()
+						.map(shard -> new DistribuicaoShardDto(shard.getKey(), usuarios.getOrDefault(shard.getKey(), 0l), shard.getValue()))
+						.collect(Collectors.toList());
+	}
+
+	//usuário -> shard do anel, para quem está em outro shard
+	public Map<Long, String> listarPendentes() {
+		Map<Long, String> pendentes = new LinkedHashMap<>();
+		if(!roteador.particionado()) {
+			return pendentes;
+		}
+		roteador.jdbc(ContextoShard.PRINCIPAL).query(
+				"SELECT u.id, s.shard FROM financas.usuario u LEFT JOIN financas.shard_usuario s ON s.id_usuario = u.id ORDER BY u.id",
+				rs -> {
+					Long idUsuario = rs.getLong(1);
+					String atual = rs.getString(2) == null ? ContextoShard.PRINCIPAL : rs.getString(2);
+					String noAnel = roteador.shardNoAnel(idUsuario);
+					if(!noAnel.equals(atual)) {
+						pendentes.put(idUsuario, noAnel);
+					}
+				});
+		return pendentes;
+	}
+
+	public Map<Long, String> rebalancear(int limite) {
+		Map<Long, String> movidos = new LinkedHashMap<>();
+		for(Map.Entry<Long, String> pendente : listarPendentes().entrySet()) {
+			if(movidos.size() >= limite) {
+				break;
+			}
+			try {
+				mover(pendente.getKey(), pendente.getValue());
+				movidos.put(pendente.getKey(), pendente.getValue());
+			} catch (RuntimeException e) {
+				log.warn("Falha ao mover o usuário {} para o shard {}.", pendente.getKey(), pendente.getValue(), e);
+			}
+		}
+		return movidos;
+	}
+
+	public void mover(Long idUsuario, String destino) {
+		if(!roteador.particionado()) {
+			throw new RegraNegocioException("Não há shards configurados.");
+		}
+		if(!roteador.shards().contains(destino)) {
+			throw new RegraNegocioException("Shard desconhecido: " + destino);
+		}
+		if(!usuarioRepository.existsById(idUsuario)) {
+			throw new RegraNegocioException("Usuário não encontrado para o Id informado.");
+		}
+		String origem = roteador.shardRegistrado(idUsuario);
+		if(origem.equals(destino)) {
+			return;
+		}
+
+		roteador.definir(idUsuario, origem, true);
+		List<Long> copiada;
+		try {
+			esperar(roteador.validadeDiretorio().plus(esperaMudanca));
+			copiada = transacao(destino).execute(status -> {
+				List<Long> lida = assinatura(origem, idUsuario);
+				apagar(destino, idUsuario);
+				if(!destino.equals(ContextoShard.PRINCIPAL)) {
+					roteador.copiarCadastro(idUsuario, destino);
+				}
+				for(String tabela : TABELAS) {
+					copiar(tabela, idUsuario, roteador.jdbc(origem), roteador.jdbc(destino));
+				}
+				//uma escrita na origem durante a cópia desfaz a mudança (rollback do destino)
+				conferir(origem, idUsuario, lida);
+				return lida;
+			});
+			roteador.definir(idUsuario, destino, false);
+		} catch (RuntimeException e) {
+			roteador.definir(idUsuario, origem, false);
+			throw e;
+		}
+
+		//o diretório já aponta para o destino: com escrita nova a origem fica para conciliação manual
+		try {
+			conferir(origem, idUsuario, copiada);
+		} catch (RegraNegocioException e) {
+			log.error("Usuário {} movido para o shard {}, mas a origem {} recebeu escritas depois da cópia e não foi apagada.", idUsuario, destino, origem);
+			throw e;
+		}
+		transacao(origem).executeWithoutResult(status -> apagar(origem, idUsuario));
+		log.info("Usuário {} movido do shard {} para o shard {}.", idUsuario, origem, destino);
+	}
+
+	private void esperar(Duration espera) {
+		try {
+			Thread.sleep(espera.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RegraNegocioException("Mudança de shard interrompida.");
+		}
+	}
+
+	//linhas do usuário em cada tabela e a última alteração numerada; toda escrita muda algum deles
+	private List<Long> assinatura(String shard, Long idUsuario) {
+		JdbcTemplate jdbc = roteador.jdbc(shard);
+		List<Long> assinatura = new ArrayList<>();
+		for(String tabela : TABELAS) {
+			assinatura.add(jdbc.queryForObject("SELECT COUNT(*) FROM financas." + tabela + " WHERE id_usuario = ?", Long.class, idUsuario));
+		}
+		assinatura.add(jdbc.queryForObject("SELECT COALESCE(MAX(ultima), 0) FROM financas.sequencia_alteracao WHERE id_usuario = ?", Long.class, idUsuario));
+		return assinatura;
+	}
+
+	private void conferir(String origem, Long idUsuario, List<Long> copiada) {
+		if(!assinatura(origem, idUsuario).equals(copiada)) {
+			throw new RegraNegocioException("O usuário recebeu escritas no shard " + origem + " durante a mudança.");
+		}
+	}
+
+	private Map<String, Long> contarUsuarios() {
+		Map<String, Long> usuarios = new LinkedHashMap<>();
+		if(!roteador.particionado()) {
+			usuarios.put(ContextoShard.PRINCIPAL, usuarioRepository.count());
+			return usuarios;
+		}
+		roteador.jdbc(ContextoShard.PRINCIPAL).query(
+				"SELECT COALESCE(s.shard, '" + ContextoShard.PRINCIPAL + "'), COUNT(*) FROM financas.usuario u "
+				+ "LEFT JOIN financas.shard_usuario s ON s.id_usuario = u.id GROUP BY COALESCE(s.shard, '" + ContextoShard.PRINCIPAL + "')",
+				rs -> {
+					usuarios.put(rs.getString(1), rs.getLong(2));
+				});
+		return usuarios;
+	}
+
+	//as colunas vêm dos metadados, então a cópia acompanha as migrações sem mudar aqui
+	private void copiar(String tabela, Long idUsuario, JdbcTemplate origem, JdbcTemplate destino) {
+		origem.query("SELECT * FROM financas." + tabela + " WHERE id_usuario = ?", (ResultSetExtractor<Void>) rs -> {
+			ResultSetMetaData metadados = rs.getMetaData();
+			List<String> colunas = new ArrayList<>();
+			for(int i = 1; i <= metadados.getColumnCount(); i++) {
+				colunas.add(metadados.getColumnName(i));
+			}
+			String insert = "INSERT INTO financas." + tabela + " (" + String.join(", ", colunas) + ") VALUES ("
+							+ colunas.stream().map(coluna -> "?").collect(Collectors.joining(", ")) + ")";
+
+			List<Object[]> lote = new ArrayList<>(LOTE);
+			while(rs.next()) {
+				Object[] linha = new Object[colunas.size()];
+				for(int i = 0; i < linha.length; i++) {
+					linha[i] = rs.getObject(i + 1);
+				}
+				lote.add(linha);
+				if(lote.size() == LOTE) {
+					destino.batchUpdate(insert, lote);
+					lote.clear();
+				}
+			}
+			if(!lote.isEmpty()) {
+				destino.batchUpdate(insert, lote);
+			}
+			return null;
+		}, idUsuario);
+	}
+
+	//o cadastro no principal é o oficial e nunca sai de lá
+	private void apagar(String shard, Long idUsuario) {
+		JdbcTemplate jdbc = roteador.jdbc(shard);
+		for(String tabela : TABELAS) {
+			jdbc.update("DELETE FROM financas." + tabela + " WHERE id_usuario = ?", idUsuario);
+		}
+		if(!shard.equals(ContextoShard.PRINCIPAL)) {
+			jdbc.update("DELETE FROM financas.usuario WHERE id = ?", idUsuario);
+		}
+	}
+
+	private TransactionTemplate transacao(String shard) {
+		return new TransactionTemplate(new DataSourceTransactionManager(roteador.jdbc(shard).getDataSource()));
+	}
+}
@@ -0,0 +1,41 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.BunkaBytes.IFriends.service.RecorrenciaService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+//estende as séries sem fim até o horizonte; cada série é uma transação separada, no shard do usuário
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecorrenciaAgendada {
+
+	private final RecorrenciaService service;
+	private final RoteadorShards roteador;
+
+	@Scheduled(cron = "${ifriends.recorrencia.cron:0 0 4 * * *}")
+	public void materializarSeriesSemFim() {
+		int geradas = 0;
+		for(Map<Long, List<Long>> doShard : roteador.emTodos(service::listarSemFim).values()) {
+			for(Map.Entry<Long, List<Long>> series : doShard.entrySet()) {
+				for(Long id : series.getValue()) {
+					try {
+						geradas += service.materializar(series.getKey(), id);
+					} catch (RuntimeException e) {
+						log.warn("Falha ao gerar as ocorrências da recorrência {} do usuário {}.", id, series.getKey(), e);
+					}
+				}
+			}
+		}
+		if(geradas > 0) {
+			log.info("{} ocorrências de recorrências geradas.", geradas);
+		}
+	}
+}
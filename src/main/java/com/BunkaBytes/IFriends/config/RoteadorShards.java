@@ -0,0 +1,172 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Diz em que shard estão os dados de um usuário. O anel (hash consistente) decide o shard de
+ * quem é cadastrado, e o diretório no principal (shard_usuario) guarda onde cada um está de
+ * fato, para que o rebalanceamento mova um usuário de cada vez sem mudar o anel de ninguém.
+ *
+ * Sem ifriends.shards.urls existe só o principal e nada aqui consulta o banco.
+ */
+@Component
+public class RoteadorShards {
+
+	private final ShardDataSource shardDataSource;
+	private final AnelShards anel;
+	private final Map<String, JdbcTemplate> jdbc = new ConcurrentHashMap<>();
+	private final Duration validade;
+	private final Cache<Long, Localizacao> diretorio;
+
+	public RoteadorShards(ObjectProvider<ShardDataSource> shardDataSource,
+			@Value("${ifriends.shards.cache-diretorio:10s}") Duration validade) {
+		this.shardDataSource = shardDataSource.getIfAvailable();
+		this.anel = new AnelShards(shards());
+		this.validade = validade;
+		this.diretorio = Caffeine.newBuilder().maximumSize(100_000).expireAfterWrite(validade).build();
+	}
+
+	public boolean particionado() {
+		return shardDataSource != null;
+	}
+
+	//quanto um nó pode continuar usando o shard que leu do diretório antes de consultar de novo
+	public Duration validadeDiretorio() {
+		return validade;
+	}
+
+	public List<String> shards() {
+		return particionado() ? shardDataSource.nomes() : List.of(ContextoShard.PRINCIPAL);
+	}
+
+	public String shardNoAnel(Long idUsuario) {
+		return anel.shardDe(idUsuario);
+	}
+
+	public String shardDo(Long idUsuario) {
+		if(!particionado()) {
+			return ContextoShard.PRINCIPAL;
+		}
+		Localizacao localizacao = diretorio.get(idUsuario, this::consultar);
+		if(localizacao.isMovendo()) {
+			throw new RegraNegocioException("Os dados do usuário estão sendo movidos de shard. Tente novamente em instantes.");
+		}
+		return localizacao.getShard();
+	}
+
+	//shard gravado no diretório, mesmo durante uma mudança e sem o cache
+	public String shardRegistrado(Long idUsuario) {
+		return particionado() ? consultar(idUsuario).getShard() : ContextoShard.PRINCIPAL;
+	}
+
+	//acesso direto ao banco do shard, fora das transações JPA (cópias do rebalanceamento e o diretório)
+	public JdbcTemplate jdbc(String shard) {
+		return jdbc.computeIfAbsent(shard, nome -> new JdbcTemplate(dataSource(nome)));
+	}
+
+	public <T> T executar(String shard, Supplier<T> tarefa) {
+		return ContextoShard.executar(shard, tarefa);
+	}
+
+	//fan-out: a mesma tarefa em cada shard, em sequência; só para consultas administrativas
+	public <T> Map<String, T> emTodos(Supplier<T> tarefa) {
+		Map<String, T> resultados = new LinkedHashMap<>();
+		for(String shard : shards()) {
+			resultados.put(shard, executar(shard, tarefa));
+		}
+		return resultados;
+	}
+
+	/*
+	 * Usuário recém-cadastrado (no principal): vai para o shard do anel, que recebe uma cópia
+	 * do cadastro para as chaves estrangeiras. Com transação aberta, só depois do commit.
+	 */
+	public void registrar(Usuario usuario) {
+		if(!particionado()) {
+			return;
+		}
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					alocar(usuario.getId());
+				}
+			});
+		} else {
+			alocar(usuario.getId());
+		}
+	}
+
+	public void definir(Long idUsuario, String shard, boolean movendo) {
+		JdbcTemplate catalogo = jdbc(ContextoShard.PRINCIPAL);
+		int alterados = catalogo.update("UPDATE financas.shard_usuario SET shard = ?, movendo = ? WHERE id_usuario = ?", shard, movendo, idUsuario);
+		if(alterados == 0) {
+			catalogo.update("INSERT INTO financas.shard_usuario (id_usuario, shard, movendo) VALUES (?, ?, ?)", idUsuario, shard, movendo);
+		}
+		diretorio.invalidate(idUsuario);
+	}
+
+	public void copiarCadastro(Long idUsuario, String shard) {
+		JdbcTemplate destino = jdbc(shard);
+		if(destino.queryForObject("SELECT COUNT(*) FROM financas.usuario WHERE id = ?", Long.class, idUsuario) > 0) {
+			return;
+		}
+		Map<String, Object> cadastro = jdbc(ContextoShard.PRINCIPAL)
+										.queryForMap("SELECT id, nome, email, senha FROM financas.usuario WHERE id = ?", idUsuario);
+		destino.update("INSERT INTO financas.usuario (id, nome, email, senha) VALUES (?, ?, ?, ?)",
+				cadastro.get("id"), cadastro.get("nome"), cadastro.get("email"), cadastro.get("senha"));
+	}
+
+	private void alocar(Long idUsuario) {
+		String shard = shardNoAnel(idUsuario);
+		if(!shard.equals(ContextoShard.PRINCIPAL)) {
+			copiarCadastro(idUsuario, shard);
+		}
+		definir(idUsuario, shard, false);
+	}
+
+	private Localizacao consultar(Long idUsuario) {
+		return jdbc(ContextoShard.PRINCIPAL)
+				.query("SELECT shard, movendo FROM financas.shard_usuario WHERE id_usuario = ?",
+						(rs, linha) -> new Localizacao(rs.getString(1), rs.getBoolean(2)), idUsuario)
+				.stream()
+				.findFirst()
+				.orElse(new Localizacao(ContextoShard.PRINCIPAL, false));
+	}
+
+	private DataSource dataSource(String shard) {
+		if(!particionado()) {
+			throw new IllegalStateException("Sem shards configurados.");
+		}
+		return shardDataSource.shard(shard);
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	private static class Localizacao {
+		private final String shard;
+		private final boolean movendo;
+	}
+}
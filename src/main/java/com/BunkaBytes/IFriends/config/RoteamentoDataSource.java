@@ -0,0 +1,77 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
+
+/*
+ * Transações readOnly vão para as réplicas e o resto para o primário. Leituras de um usuário
+ * que escreveu há menos de janelaMillis continuam no primário, para que ele veja a própria
+ * escrita mesmo com a réplica atrasada (read-your-writes).
+ *
+ * As leituras de um usuário vão sempre para a mesma réplica: o ETag (sequencia_alteracao) e
+ * a consulta que ele protege saem de transações separadas e precisam ver o mesmo atraso.
+ * Sem usuário na requisição as réplicas são usadas em rodízio.
+ *
+ * Precisa estar atrás de um LazyConnectionDataSourceProxy: a conexão só pode ser escolhida
+ * depois que a transação marcou se é somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+	private static final String PRIMARIO = "primario";
+
+	private final List<DataSource> replicas;
+	private final long janelaMillis;
+	private final AlteracaoUsuarioService alteracaoService;
+	private final AtomicInteger proxima = new AtomicInteger();
+
+	public RoteamentoDataSource(DataSource primario, List<DataSource> replicas, long janelaMillis, AlteracaoUsuarioService alteracaoService) {
+		this.replicas = replicas;
+		this.janelaMillis = janelaMillis;
+		this.alteracaoService = alteracaoService;
+
+		Map<Object, Object> destinos = new HashMap<>();
+		destinos.put(PRIMARIO, primario);
+		for(int i = 0; i < replicas.size(); i++) {
+			destinos.put(i, replicas.get(i));
+		}
+		setTargetDataSources(destinos);
+		setDefaultTargetDataSource(primario);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if(replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return PRIMARIO;
+		}
+
+		Long idUsuario = ContextoLeitura.usuario();
+		if(idUsuario == null) {
+			return Math.floorMod(proxima.getAndIncrement(), replicas.size());
+		}
+		if(alteracaoService.alteradoRecentemente(idUsuario, janelaMillis)) {
+			return PRIMARIO;
+		}
+		return (int) Math.floorMod(idUsuario, (long) replicas.size());
+	}
+
+	//as réplicas não são beans, então os pools são fechados aqui
+	@Override
+	public void destroy() throws Exception {
+		for(DataSource replica : replicas) {
+			if(replica instanceof AutoCloseable) {
+				((AutoCloseable) replica).close();
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Só entra quando há réplicas em ifriends.replicas.urls; sem elas o datasource continua
+ * o do Spring Boot (spring.datasource.*). As réplicas usam o mesmo driver e, se não
+ * informados, o mesmo usuário e senha do primário.
+ */
+@Configuration
+@ConditionalOnProperty("ifriends.replicas.urls")
+public class RoteamentoDataSourceConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public RoteamentoDataSource roteamentoDataSource(HikariDataSource primarioDataSource, DataSourceProperties properties,
+			AlteracaoUsuarioService alteracaoService,
+			@Value("${ifriends.replicas.urls}") List<String> urls,
+			@Value("${ifriends.replicas.username:${spring.datasource.username:}}") String usuario,
+			@Value("${ifriends.replicas.password:${spring.datasource.password:}}") String senha,
+			@Value("${ifriends.replicas.janela-leitura:5000}") long janelaMillis) {
+
+		List<DataSource> replicas = new ArrayList<>();
+		for(int i = 0; i < urls.size(); i++) {
+			HikariDataSource replica = DataSourceBuilder.create()
+											.type(HikariDataSource.class)
+											.driverClassName(properties.determineDriverClassName())
+											.url(urls.get(i))
+											.username(usuario)
+											.password(senha)
+											.build();
+			replica.setPoolName("replica-" + i);
+			replica.setReadOnly(true);
+			replicas.add(replica);
+		}
+		return new RoteamentoDataSource(primarioDataSource, replicas, janelaMillis, alteracaoService);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+		return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+	}
+
+	/*
+	 * Por padrão a sessão do Hibernate segura a primeira conexão até fechar, e com o
+	 * open-in-view uma leitura no início da requisição prenderia a réplica para a escrita
+	 * seguinte. Soltando a conexão ao fim de cada transação, cada uma é roteada de novo.
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer conexaoPorTransacao() {
+		return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+}
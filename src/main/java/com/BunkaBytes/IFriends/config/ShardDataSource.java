@@ -0,0 +1,60 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/*
+ * Um datasource por shard, escolhido pelo shard em ContextoShard. O principal é o primeiro
+ * e também guarda o cadastro de todos os usuários e o diretório de shards.
+ *
+ * Precisa estar atrás de um LazyConnectionDataSourceProxy: a transação começa antes de o
+ * shard do usuário ser conhecido em chamadas aninhadas.
+ */
+public class ShardDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+	private final Map<String, DataSource> shards;
+
+	public ShardDataSource(LinkedHashMap<String, DataSource> shards) {
+		this.shards = shards;
+		setTargetDataSources(new HashMap<>(shards));
+		setDefaultTargetDataSource(shards.get(ContextoShard.PRINCIPAL));
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String shard = ContextoShard.atual();
+		return shard == null ? ContextoShard.PRINCIPAL : shard;
+	}
+
+	public List<String> nomes() {
+		return new ArrayList<>(shards.keySet());
+	}
+
+	public DataSource shard(String nome) {
+		DataSource dataSource = shards.get(nome);
+		if(dataSource == null) {
+			throw new IllegalArgumentException("Shard desconhecido: " + nome);
+		}
+		return dataSource;
+	}
+
+	//o principal é bean e o Spring o fecha; os demais pools são fechados aqui
+	@Override
+	public void destroy() throws Exception {
+		for(Map.Entry<String, DataSource> shard : shards.entrySet()) {
+			if(!shard.getKey().equals(ContextoShard.PRINCIPAL) && shard.getValue() instanceof AutoCloseable) {
+				((AutoCloseable) shard.getValue()).close();
+			}
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Só entra quando há shards em ifriends.shards.urls; o banco de spring.datasource.* continua
+ * sendo o principal (e um dos shards do anel). Não combina com ifriends.replicas.urls.
+ *
+ * Cada shard recebe as migrações do Flyway ao subir. Como o sequence de lançamentos é de
+ * cada banco, um shard novo começa o seu na faixa FAIXA_LANCAMENTOS * posição, e os ids
+ * continuam únicos entre shards (o rebalanceamento move os lançamentos com o mesmo id).
+ */
+@Configuration
+@ConditionalOnProperty("ifriends.shards.urls")
+public class ShardDataSourceConfig {
+
+	static final long FAIXA_LANCAMENTOS = 1_000_000_000_000l;
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource principalDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	public ShardDataSource shardDataSource(HikariDataSource principalDataSource, DataSourceProperties properties,
+			FlywayProperties flywayProperties,
+			@Value("${ifriends.shards.urls}") List<String> urls,
+			@Value("${ifriends.shards.username:${spring.datasource.username:}}") String usuario,
+			@Value("${ifriends.shards.password:${spring.datasource.password:}}") String senha) {
+
+		LinkedHashMap<String, DataSource> shards = new LinkedHashMap<>();
+		shards.put(ContextoShard.PRINCIPAL, principalDataSource);
+		for(int i = 0; i < urls.size(); i++) {
+			HikariDataSource shard = DataSourceBuilder.create()
+										.type(HikariDataSource.class)
+										.driverClassName(properties.determineDriverClassName())
+										.url(urls.get(i))
+										.username(usuario)
+										.password(senha)
+										.build();
+			shard.setPoolName("shard-" + (i + 1));
+			migrar(shard, urls.get(i), flywayProperties, i + 1);
+			shards.put(shard.getPoolName(), shard);
+		}
+		return new ShardDataSource(shards);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(ShardDataSource shardDataSource) {
+		return new LazyConnectionDataSourceProxy(shardDataSource);
+	}
+
+	//cada transação precisa de uma conexão do seu shard, não da primeira aberta na sessão
+	@Bean
+	public HibernatePropertiesCustomizer conexaoPorTransacao() {
+		return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	private void migrar(DataSource shard, String url, FlywayProperties flywayProperties, int posicao) {
+		String fornecedor = DatabaseDriver.fromJdbcUrl(url).getId();
+		MigrateResult resultado = Flyway.configure()
+										.dataSource(shard)
+										.locations(flywayProperties.getLocations().stream()
+														.map(local -> local.replace("{vendor}", fornecedor))
+														.toArray(String[]::new))
+										.schemas(flywayProperties.getSchemas().toArray(new String[0]))
+										.baselineOnMigrate(flywayProperties.isBaselineOnMigrate())
+										.baselineVersion(flywayProperties.getBaselineVersion())
+										.load()
+										.migrate();
+
+		//o Hibernate trata o valor lido do sequence como o fim de um bloco de 50 (allocationSize)
+		if(resultado.initialSchemaVersion == null) {
+			JdbcTemplate jdbc = new JdbcTemplate(shard);
+			jdbc.execute("ALTER SEQUENCE financas.lancamento_seq RESTART WITH " + (FAIXA_LANCAMENTOS * posicao + 50));
+			//recorrências (allocationSize 1) na mesma faixa, para que também não se repitam entre shards
+			jdbc.execute("ALTER SEQUENCE financas.recorrencia_seq RESTART WITH " + (FAIXA_LANCAMENTOS * posicao + 1));
+		}
+	}
+}
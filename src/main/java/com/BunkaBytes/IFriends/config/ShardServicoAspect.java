@@ -0,0 +1,132 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Executa cada chamada aos serviços no shard do usuário a que ela se refere: o usuário do
+ * Lancamento, FiltroLancamento, Usuario ou Recorrencia recebido, o parâmetro idUsuario ou,
+ * sem nada disso, o usuário da requisição (ContextoLeitura). Chamadas aninhadas ficam no
+ * shard da mais externa, e as sem usuário (login, cadastro) vão para o principal.
+ *
+ * A busca de um lançamento só pelo id, sem usuário, procura shard a shard até achá-lo.
+ *
+ * Roda antes de @Transactional, para que a conexão já seja aberta no shard certo.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ShardServicoAspect {
+
+	private final RoteadorShards roteador;
+
+	@Around("within(com.BunkaBytes.IFriends.service.impl..*) && execution(public * *(..))")
+	public Object rotear(ProceedingJoinPoint ponto) throws Throwable {
+		if(!roteador.particionado() || ContextoShard.atual() != null) {
+			return ponto.proceed();
+		}
+
+		String shard = shardDosArgumentos(ponto);
+		if(shard == null && ContextoLeitura.usuario() != null) {
+			shard = roteador.shardDo(ContextoLeitura.usuario());
+		}
+		if(shard == null && buscaPorId(ponto)) {
+			return localizar(ponto);
+		}
+		return executar(shard == null ? ContextoShard.PRINCIPAL : shard, ponto);
+	}
+
+	private String shardDosArgumentos(ProceedingJoinPoint ponto) {
+		String[] nomes = ((MethodSignature) ponto.getSignature()).getParameterNames();
+		Object[] argumentos = ponto.getArgs();
+		String shard = null;
+
+		for(int i = 0; i < argumentos.length; i++) {
+			List<Long> usuarios = new ArrayList<>();
+			if(argumentos[i] instanceof Collection) {
+				((Collection<?>) argumentos[i]).forEach(item -> usuarios.add(usuarioDe(item)));
+			} else if(argumentos[i] instanceof Long && nomes != null && "idUsuario".equals(nomes[i])) {
+				usuarios.add((Long) argumentos[i]);
+			} else {
+				usuarios.add(usuarioDe(argumentos[i]));
+			}
+
+			for(Long idUsuario : usuarios) {
+				if(idUsuario == null) {
+					continue;
+				}
+				String doUsuario = roteador.shardDo(idUsuario);
+				if(shard != null && !shard.equals(doUsuario)) {
+					throw new RegraNegocioException("A operação envolve usuários de shards diferentes.");
+				}
+				shard = doUsuario;
+			}
+		}
+		return shard;
+	}
+
+	private Long usuarioDe(Object argumento) {
+		if(argumento instanceof Lancamento) {
+			Usuario usuario = ((Lancamento) argumento).getUsuario();
+			return usuario == null ? null : usuario.getId();
+		}
+		if(argumento instanceof FiltroLancamento) {
+			return ((FiltroLancamento) argumento).getUsuario();
+		}
+		if(argumento instanceof Usuario) {
+			return ((Usuario) argumento).getId();
+		}
+		if(argumento instanceof Recorrencia) {
+			Usuario usuario = ((Recorrencia) argumento).getUsuario();
+			return usuario == null ? null : usuario.getId();
+		}
+		return null;
+	}
+
+	//obterPorId(Long id) e afins: devolvem Optional e recebem só o id do lançamento
+	private boolean buscaPorId(ProceedingJoinPoint ponto) {
+		MethodSignature assinatura = (MethodSignature) ponto.getSignature();
+		return Optional.class.equals(assinatura.getReturnType())
+				&& ponto.getArgs().length == 1
+				&& ponto.getArgs()[0] instanceof Long;
+	}
+
+	private Object localizar(ProceedingJoinPoint ponto) throws Throwable {
+		Object resultado = Optional.empty();
+		for(String shard : roteador.shards()) {
+			resultado = executar(shard, ponto);
+			if(resultado != null && ((Optional<?>) resultado).isPresent()) {
+				return resultado;
+			}
+		}
+		return resultado;
+	}
+
+	private Object executar(String shard, ProceedingJoinPoint ponto) throws Throwable {
+		ContextoShard.definir(shard);
+		try {
+			return ponto.proceed();
+		} finally {
+			ContextoShard.limpar();
+		}
+	}
+}
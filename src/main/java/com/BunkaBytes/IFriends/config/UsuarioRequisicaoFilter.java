@@ -0,0 +1,57 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/*
+ * Identifica o usuário da requisição pelo parâmetro usuario (/api/lancamentos?usuario=) ou
+ * pelo caminho /api/usuarios/{id} e o deixa em ContextoLeitura durante a requisição, para
+ * o roteamento entre réplicas e entre shards.
+ *
+ * O parâmetro vem só da query string: getParameter leria (e consumiria) um corpo
+ * application/x-www-form-urlencoded, e /importar e /conciliar leem o corpo cru.
+ */
+@Component
+public class UsuarioRequisicaoFilter extends OncePerRequestFilter {
+
+	private static final Pattern CAMINHO_USUARIO = Pattern.compile("^/api/usuarios/(\\d+)(/.*)?$");
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		ContextoLeitura.definir(usuarioDa(request));
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ContextoLeitura.limpar();
+		}
+	}
+
+	static Long usuarioDa(HttpServletRequest request) {
+		try {
+			String parametro = UriComponentsBuilder.newInstance()
+									.query(request.getQueryString())
+									.build()
+									.getQueryParams()
+									.getFirst("usuario");
+			if(parametro != null) {
+				return Long.valueOf(parametro);
+			}
+			Matcher caminho = CAMINHO_USUARIO.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+			return caminho.matches() ? Long.valueOf(caminho.group(1)) : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.BunkaBytes.IFriends.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Confere na inicialização se os índices criados pelas migrações existem no banco e registra
+ * um aviso com os que faltam (banco antigo, migração pulada ou índice removido à mão).
+ * Sem eles o app funciona, mas buscas por email, listagens e saldo voltam a varrer a tabela.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VerificacaoIndices {
+
+	private static final String ESQUEMA = "financas";
+
+	//tabela -> índices esperados
+	private static final Map<String, List<String>> ESPERADOS = new LinkedHashMap<>();
+	static {
+		ESPERADOS.put("usuario", Arrays.asList("ux_usuario_email"));
+		ESPERADOS.put("lancamento", Arrays.asList("ix_lancamento_filtro", "ix_lancamento_saldo", "ix_lancamento_alteracao"));
+		ESPERADOS.put("lancamento_trigrama", Arrays.asList("ix_lancamento_trigrama_busca"));
+		ESPERADOS.put("lancamento_excluido", Arrays.asList("ix_lancamento_excluido_alteracao"));
+	}
+
+	private final DataSource dataSource;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void verificarNaInicializacao() {
+		List<String> faltantes = verificar();
+		if(!faltantes.isEmpty()) {
+			log.warn("Índices ausentes no esquema {}: {}. Confira as migrações em db/migration.", ESQUEMA, faltantes);
+		}
+	}
+
+	//índices esperados que não existem, no formato tabela.indice
+	public List<String> verificar() {
+		try (Connection conexao = dataSource.getConnection()) {
+			DatabaseMetaData metadados = conexao.getMetaData();
+			List<String> faltantes = new ArrayList<>();
+			for(Map.Entry<String, List<String>> tabela : ESPERADOS.entrySet()) {
+				Set<String> existentes = indices(metadados, tabela.getKey());
+				for(String indice : tabela.getValue()) {
+					if(!existentes.contains(indice)) {
+						faltantes.add(tabela.getKey() + "." + indice);
+					}
+				}
+			}
+			return faltantes;
+		} catch (SQLException e) {
+			log.warn("Não foi possível verificar os índices do esquema {}.", ESQUEMA, e);
+			return Collections.emptyList();
+		}
+	}
+
+	private Set<String> indices(DatabaseMetaData metadados, String tabela) throws SQLException {
+		Set<String> indices = new HashSet<>();
+		try (ResultSet resultado = metadados.getIndexInfo(null, identificador(metadados, ESQUEMA), identificador(metadados, tabela), false, true)) {
+			while(resultado.next()) {
+				String nome = resultado.getString("INDEX_NAME");
+				if(nome != null) {
+					indices.add(nome.toLowerCase(Locale.ROOT));
+				}
+			}
+		}
+		return indices;
+	}
+
+	//H2 guarda identificadores sem aspas em maiúsculas, PostgreSQL em minúsculas
+	private String identificador(DatabaseMetaData metadados, String nome) throws SQLException {
+		return metadados.storesUpperCaseIdentifiers() ? nome.toUpperCase(Locale.ROOT) : nome;
+	}
+}
@@ -0,0 +1,8 @@
+package com.BunkaBytes.IFriends.exception;
+
+public class ConflitoVersaoException extends RuntimeException {
+
+	public ConflitoVersaoException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,35 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Marca os usuários cujo índice de trigramas já cobre todos os lançamentos.
+ */
+@Entity
+@Table( name="indice_descricao", schema ="financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndiceDescricao {
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "data_indexacao")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataIndexacao;
+}
@@ -8,12 +8,16 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 
@@ -26,7 +30,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table( name="lancamento", schema ="financas")
+@Table( name="lancamento", schema ="financas", indexes = {
+		@Index(name = "ix_lancamento_filtro", columnList = "id_usuario, ano, mes, tipo, status"),
+		@Index(name = "ix_lancamento_saldo", columnList = "id_usuario, tipo, valor"),
+		@Index(name = "ix_lancamento_alteracao", columnList = "id_usuario, alteracao"),
+		@Index(name = "ux_lancamento_importacao", columnList = "id_usuario, hash_importacao", unique = true),
+		@Index(name = "ix_lancamento_recorrencia", columnList = "id_recorrencia, parcela")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,7 +44,8 @@ import lombok.NoArgsConstructor;
 public class Lancamento {
 	@Id
 	@Column(name = "id")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_seq")
+	@SequenceGenerator(name = "lancamento_seq", sequenceName = "lancamento_seq", schema = "financas", allocationSize = 50)
 	private Long id;
 	
 	@Column(name = "descricao")
@@ -46,7 +57,7 @@ public class Lancamento {
 	@Column(name = "ano")
 	private Integer ano;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "id_usuario")
 	private Usuario usuario;
 	
@@ -65,4 +76,24 @@ public class Lancamento {
 	@Enumerated(value = EnumType.STRING)
 	private StatusLancamento status;
 	
+	//incrementada a cada escrita, inclusive pelos UPDATEs em lote; exposta como ETag
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+	
+	//número da última alteração do usuário que tocou a linha, para a sincronização incremental
+	@Column(name = "alteracao")
+	private Long alteracao;
+	
+	//só nos lançamentos importados de extrato: identifica a linha de origem (ImportacaoService)
+	@Column(name = "hash_importacao")
+	private String hashImportacao;
+	
+	//só nas ocorrências de uma série (RecorrenciaService): a recorrência e o número da ocorrência
+	@Column(name = "id_recorrencia")
+	private Long idRecorrencia;
+	
+	@Column(name = "parcela")
+	private Integer parcela;
+	
 }
@@ -0,0 +1,70 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//lançamento de ano fechado, movido da tabela lancamento pelo arquivamento (somente leitura)
+@Entity
+@Table( name="lancamento_arquivo", schema ="financas", indexes = {
+		@Index(name = "ix_lancamento_arquivo_usuario", columnList = "id_usuario, ano, mes"),
+		@Index(name = "ix_lancamento_arquivo_importacao", columnList = "id_usuario, hash_importacao")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoArquivado {
+	@Id
+	@Column(name = "id")
+	private Long id;
+	
+	@Column(name = "descricao")
+	private String descricao;
+	
+	@Column(name = "mes")
+	private Integer mes;
+	
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column (name = "valor")
+	private BigDecimal valor;
+	
+	@Column (name = "data_cadastro")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataCadastro;
+	
+	@Column (name = "tipo")
+	@Enumerated (value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Column
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+	
+	@Column(name = "versao")
+	private Long versao;
+	
+	@Column(name = "hash_importacao")
+	private String hashImportacao;
+}
@@ -0,0 +1,33 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//marca de exclusão para a sincronização incremental: o id do lançamento e a alteração que o excluiu
+@Entity
+@Table( name="lancamento_excluido", schema ="financas", indexes = {
+		@Index(name = "ix_lancamento_excluido_alteracao", columnList = "id_usuario, alteracao")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoExcluido {
+	@Id
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+	
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "alteracao")
+	private Long alteracao;
+}
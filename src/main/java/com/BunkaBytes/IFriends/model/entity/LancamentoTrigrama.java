@@ -0,0 +1,44 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table( name="lancamento_trigrama", schema ="financas", indexes = {
+		@Index(name = "ix_lancamento_trigrama_busca", columnList = "id_usuario, trigrama, id_lancamento")
+})
+@IdClass(LancamentoTrigrama.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoTrigrama {
+	
+	@Id
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+	
+	@Id
+	@Column(name = "trigrama", length = 3)
+	private String trigrama;
+	
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Chave implements Serializable {
+		private Long idLancamento;
+		private String trigrama;
+	}
+}
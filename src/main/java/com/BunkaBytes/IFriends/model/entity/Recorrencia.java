@@ -0,0 +1,104 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
+
+import com.BunkaBytes.IFriends.model.enums.Periodicidade;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Série de lançamentos (aluguel todo mês, 12 parcelas): o modelo de cada ocorrência e a
+ * regra de repetição. As ocorrências são lançamentos comuns com id_recorrencia e parcela,
+ * gerados por RecorrenciaService; termina pela quantidade, pela competência final ou, sem
+ * nenhuma das duas, é gerada até o horizonte configurado.
+ */
+@Entity
+@Table( name="recorrencia", schema ="financas", indexes = {
+		@Index(name = "ix_recorrencia_usuario", columnList = "id_usuario")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Recorrencia {
+	@Id
+	@Column(name = "id")
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recorrencia_seq")
+	@SequenceGenerator(name = "recorrencia_seq", sequenceName = "recorrencia_seq", schema = "financas", allocationSize = 1)
+	private Long id;
+	
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "id_usuario")
+	private Usuario usuario;
+	
+	@Column(name = "descricao")
+	private String descricao;
+	
+	@Column(name = "valor")
+	private BigDecimal valor;
+	
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Column(name = "periodicidade")
+	@Enumerated(value = EnumType.STRING)
+	private Periodicidade periodicidade;
+	
+	@Column(name = "mes_inicial")
+	private Integer mesInicial;
+	
+	@Column(name = "ano_inicial")
+	private Integer anoInicial;
+	
+	@Column(name = "quantidade")
+	private Integer quantidade;
+	
+	@Column(name = "mes_final")
+	private Integer mesFinal;
+	
+	@Column(name = "ano_final")
+	private Integer anoFinal;
+	
+	//parcelas numeradas na descrição ("Financiamento 3/60"); exige quantidade
+	@Column(name = "parcelada")
+	private boolean parcelada;
+	
+	//ocorrências já geradas; a próxima é a parcela geradas + 1
+	@Column(name = "geradas")
+	private int geradas;
+	
+	//cancelada: não gera mais ocorrências
+	@Column(name = "encerrada")
+	private boolean encerrada;
+	
+	@Column(name = "data_cadastro")
+	@Convert(converter = Jsr310JpaConverters.LocalDateConverter.class)
+	private LocalDate dataCadastro;
+	
+	public String descricaoDaParcela(int parcela) {
+		return parcelada ? descricao + " " + parcela + "/" + quantidade : descricao;
+	}
+}
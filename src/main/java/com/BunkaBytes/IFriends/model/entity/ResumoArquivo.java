@@ -0,0 +1,72 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Totais dos lançamentos arquivados por usuário, ano, mes, tipo e status, gravados pelo
+ * arquivamento. Saldo e resumo somam estas linhas às da tabela lancamento.
+ */
+@Entity
+@Table( name="resumo_arquivo", schema ="financas")
+@IdClass(ResumoArquivo.Chave.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoArquivo {
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Id
+	@Column(name = "ano")
+	private Integer ano;
+	
+	@Id
+	@Column(name = "mes")
+	private Integer mes;
+	
+	@Id
+	@Column(name = "tipo")
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Id
+	@Column(name = "status")
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+	
+	@Column(name = "total")
+	private BigDecimal total;
+	
+	@Column(name = "quantidade")
+	private Long quantidade;
+	
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Chave implements Serializable {
+		private Long idUsuario;
+		private Integer ano;
+		private Integer mes;
+		private TipoLancamento tipo;
+		private StatusLancamento status;
+	}
+}
@@ -0,0 +1,40 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table( name="saldo_usuario", schema ="financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "receita")
+	private BigDecimal receita;
+	
+	@Column(name = "despesa")
+	private BigDecimal despesa;
+	
+	@Version
+	@Column(name = "versao")
+	private Long versao;
+	
+	public BigDecimal getSaldo() {
+		return receita.subtract(despesa);
+	}
+}
@@ -0,0 +1,30 @@
+package com.BunkaBytes.IFriends.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Última alteração de lançamentos do usuário. Toda escrita incrementa a linha, que fica
+ * bloqueada até o commit: as escritas de um mesmo usuário recebem números na ordem do commit.
+ */
+@Entity
+@Table( name="sequencia_alteracao", schema ="financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SequenciaAlteracao {
+	@Id
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+	
+	@Column(name = "ultima")
+	private Long ultima;
+}
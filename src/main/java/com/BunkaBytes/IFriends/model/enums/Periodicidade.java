@@ -0,0 +1,21 @@
+package com.BunkaBytes.IFriends.model.enums;
+
+//intervalo entre as ocorrências de uma recorrência, em meses (a competência do lançamento é mensal)
+public enum Periodicidade {
+	
+	MENSAL(1),
+	BIMESTRAL(2),
+	TRIMESTRAL(3),
+	SEMESTRAL(6),
+	ANUAL(12);
+	
+	private final int meses;
+	
+	Periodicidade(int meses) {
+		this.meses = meses;
+	}
+	
+	public int getMeses() {
+		return meses;
+	}
+}
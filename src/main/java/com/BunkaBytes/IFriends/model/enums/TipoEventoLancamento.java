@@ -0,0 +1,9 @@
+package com.BunkaBytes.IFriends.model.enums;
+
+public enum TipoEventoLancamento {
+	
+	CRIADO,
+	ALTERADO,
+	EXCLUIDO,
+	LOTE
+}
@@ -0,0 +1,89 @@
+package com.BunkaBytes.IFriends.model.filtro;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Filtro tipado de lançamentos: cada campo preenchido vira um predicado na consulta.
+ * Listas são IN, mínimo/máximo são faixas inclusivas e o período compara (ano, mes).
+ * Em ordem, cada item é um campo do lançamento, com "-" na frente para decrescente.
+ * Períodos vêm no formato AAAA-MM.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroLancamento {
+	private Long usuario;
+	private String descricao;
+	private Set<TipoLancamento> tipos;
+	private Set<StatusLancamento> status;
+	private Set<Integer> anos;
+	private Set<Integer> meses;
+	private YearMonth periodoInicial;
+	private YearMonth periodoFinal;
+	private BigDecimal valorMinimo;
+	private BigDecimal valorMaximo;
+	private List<String> ordem;
+	private Integer limite;
+	
+	//equivalente ao Lancamento usado como exemplo em LancamentoService.buscar
+	public static FiltroLancamento de(Lancamento exemplo) {
+		return FiltroLancamento.builder()
+				.usuario(exemplo.getUsuario() == null ? null : exemplo.getUsuario().getId())
+				.descricao(exemplo.getDescricao())
+				.tipos(exemplo.getTipo() == null ? null : Collections.singleton(exemplo.getTipo()))
+				.status(exemplo.getStatus() == null ? null : Collections.singleton(exemplo.getStatus()))
+				.anos(exemplo.getAno() == null ? null : Collections.singleton(exemplo.getAno()))
+				.meses(exemplo.getMes() == null ? null : Collections.singleton(exemplo.getMes()))
+				.valorMinimo(exemplo.getValor())
+				.valorMaximo(exemplo.getValor())
+				.build();
+	}
+	
+	/*
+	 * Identifica o formato da consulta: quais predicados existem e a ordenação, sem os
+	 * valores. Filtros com a mesma assinatura compartilham a consulta compilada.
+	 */
+	public String assinatura() {
+		StringBuilder assinatura = new StringBuilder();
+		marcar(assinatura, usuario != null, 'u');
+		marcar(assinatura, descricao != null, 'd');
+		marcar(assinatura, preenchido(tipos), 't');
+		marcar(assinatura, preenchido(status), 's');
+		marcar(assinatura, preenchido(anos), 'a');
+		marcar(assinatura, preenchido(meses), 'm');
+		marcar(assinatura, periodoInicial != null, 'i');
+		marcar(assinatura, periodoFinal != null, 'f');
+		marcar(assinatura, valorMinimo != null, 'v');
+		marcar(assinatura, valorMaximo != null, 'V');
+		assinatura.append('|');
+		if(ordem != null) {
+			assinatura.append(String.join(",", ordem));
+		}
+		return assinatura.toString();
+	}
+	
+	public static boolean preenchido(Collection<?> valores) {
+		return valores != null && !valores.isEmpty();
+	}
+	
+	private static void marcar(StringBuilder assinatura, boolean presente, char predicado) {
+		if(presente) {
+			assinatura.append(predicado);
+		}
+	}
+}
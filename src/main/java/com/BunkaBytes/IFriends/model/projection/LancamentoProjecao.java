@@ -0,0 +1,31 @@
+package com.BunkaBytes.IFriends.model.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Leitura somente dos campos do lançamento, com o usuário apenas pelo id. Montada direto
+ * na consulta (SELECT new ...), sem entidade gerenciada nem o Usuario completo no JSON.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LancamentoProjecao {
+	private Long id;
+	private String descricao;
+	private Integer mes;
+	private Integer ano;
+	private BigDecimal valor;
+	private TipoLancamento tipo;
+	private StatusLancamento status;
+	private Long usuario;
+	private LocalDate dataCadastro;
+	private Long versao;
+}
@@ -0,0 +1,8 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.BunkaBytes.IFriends.model.entity.IndiceDescricao;
+
+public interface IndiceDescricaoRepository extends JpaRepository<IndiceDescricao, Long> {
+}
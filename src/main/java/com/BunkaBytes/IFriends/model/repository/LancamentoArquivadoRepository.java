@@ -0,0 +1,52 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.LancamentoArquivado;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+
+public interface LancamentoArquivadoRepository extends JpaRepository<LancamentoArquivado, Long> {
+	
+	//copia os lançamentos do usuário no ano para o arquivo, antes de removê-los da tabela lancamento
+	@Modifying(flushAutomatically = true)
+	@Query(value = 
+				"INSERT INTO "
+			+ 		" LancamentoArquivado (id, descricao, mes, ano, idUsuario, valor, dataCadastro, tipo, status, versao, hashImportacao) "
+			+ 	" SELECT "
+			+ 		" l.id, l.descricao, l.mes, l.ano, l.usuario.id, l.valor, l.dataCadastro, l.tipo, l.status, l.versao, l.hashImportacao "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND l.ano = :ano ")
+	int copiar(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" new com.BunkaBytes.IFriends.model.projection.LancamentoProjecao( "
+			+ 		" a.id, a.descricao, a.mes, a.ano, a.valor, a.tipo, a.status, a.idUsuario, a.dataCadastro, a.versao ) "
+			+ 	" FROM "
+			+ 		" LancamentoArquivado a "
+			+ 	" WHERE "
+			+ 		" a.idUsuario = :idUsuario "
+			+ 		" AND a.ano = :ano "
+			+ 	" ORDER BY "
+			+ 		" a.mes, a.id ")
+	List<LancamentoProjecao> listar(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" a.hashImportacao "
+			+ 	" FROM "
+			+ 		" LancamentoArquivado a "
+			+ 	" WHERE "
+			+ 		" a.idUsuario = :idUsuario "
+			+ 		" AND a.hashImportacao IN :hashes ")
+	List<String> listarHashesImportados(@Param("idUsuario") Long idUsuario, @Param("hashes") Collection<String> hashes);
+}
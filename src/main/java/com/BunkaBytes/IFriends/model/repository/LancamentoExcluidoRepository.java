@@ -0,0 +1,68 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.LancamentoExcluido;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+public interface LancamentoExcluidoRepository extends JpaRepository<LancamentoExcluido, Long> {
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" e.idLancamento "
+			+ 	" FROM "
+			+ 		" LancamentoExcluido e "
+			+ 	" WHERE "
+			+ 		" e.idUsuario = :idUsuario "
+			+ 		" AND e.alteracao > :desde "
+			+ 	" ORDER BY "
+			+ 		" e.alteracao, e.idLancamento ")
+	List<Long> listarDesde(@Param("idUsuario") Long idUsuario, @Param("desde") Long desde);
+	
+	/*
+	 * Marcas das exclusões em lote, gravadas com o mesmo filtro logo antes do DELETE e com a
+	 * alteração corrente do usuário (já incrementada na transação).
+	 */
+	@Modifying
+	@Query(value = 
+				"INSERT INTO "
+			+ 		" LancamentoExcluido (idLancamento, idUsuario, alteracao) "
+			+ 	" SELECT "
+			+ 		" l.id, s.idUsuario, s.ultima "
+			+ 	" FROM "
+			+ 		" Lancamento l, SequenciaAlteracao s "
+			+ 	" WHERE "
+			+ 		" s.idUsuario = :idUsuario "
+			+ 		" AND l.usuario.id = :idUsuario "
+			+ 		" AND (:mes IS NULL OR l.mes = :mes) "
+			+ 		" AND (:ano IS NULL OR l.ano = :ano) "
+			+ 		" AND (:tipo IS NULL OR l.tipo = :tipo) "
+			+ 		" AND (:status IS NULL OR l.status = :status) ")
+	int registrarPorFiltro(
+			@Param("idUsuario") Long idUsuario,
+			@Param("mes") Integer mes,
+			@Param("ano") Integer ano,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("status") StatusLancamento status);
+	
+	@Modifying
+	@Query(value = 
+				"INSERT INTO "
+			+ 		" LancamentoExcluido (idLancamento, idUsuario, alteracao) "
+			+ 	" SELECT "
+			+ 		" l.id, s.idUsuario, s.ultima "
+			+ 	" FROM "
+			+ 		" Lancamento l, SequenciaAlteracao s "
+			+ 	" WHERE "
+			+ 		" s.idUsuario = :idUsuario "
+			+ 		" AND l.id IN :ids "
+			+ 		" AND l.usuario.id = :idUsuario ")
+	int registrarPorIds(@Param("idUsuario") Long idUsuario, @Param("ids") Collection<Long> ids);
+}
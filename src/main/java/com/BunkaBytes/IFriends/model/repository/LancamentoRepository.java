@@ -1,15 +1,33 @@
 package com.BunkaBytes.IFriends.model.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
 import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
+	
+	String PROJECAO = 
+			" new com.BunkaBytes.IFriends.model.projection.LancamentoProjecao( "
+			+ 	" l.id, l.descricao, l.mes, l.ano, l.valor, l.tipo, l.status, l.usuario.id, l.dataCadastro, l.versao ) ";
+	
+	//alteração corrente do usuário, já incrementada na transação por SincronizacaoService.avancar
+	String ALTERACAO = 
+			" l.alteracao = ( SELECT s.ultima FROM SequenciaAlteracao s WHERE s.idUsuario = :idUsuario ) ";
 	
 	@Query(value = 
 				"SELECT "
@@ -24,4 +42,421 @@ public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
 			+ 	" GROUP BY "
 			+ 		" u ")
 	BigDecimal obterSaldoPorTipoLancamentoEUsuario(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		PROJECAO
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND LOWER(l.descricao) LIKE LOWER(CONCAT('%', :descricao, '%')) "
+			+ 		" AND (:mes IS NULL OR l.mes = :mes) "
+			+ 		" AND (:ano IS NULL OR l.ano = :ano) "
+			+ 		" AND (:tipo IS NULL OR l.tipo = :tipo) "
+			+ 	" ORDER BY "
+			+ 		" l.ano, l.mes, l.id ")
+	List<LancamentoProjecao> listar(
+			@Param("idUsuario") Long idUsuario,
+			@Param("descricao") String descricao,
+			@Param("mes") Integer mes,
+			@Param("ano") Integer ano,
+			@Param("tipo") TipoLancamento tipo);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		PROJECAO
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.id IN :ids "
+			+ 	" ORDER BY "
+			+ 		" l.ano, l.mes, l.id ")
+	List<LancamentoProjecao> listarPorIds(@Param("ids") Collection<Long> ids);
+	
+	/*
+	 * Paginação por keyset (ano, mes, id): retorna os lançamentos posteriores ao
+	 * último item da página anterior, sem OFFSET, então o custo não cresce com a página.
+	 */
+	@Query(value = 
+				"SELECT "
+			+ 		PROJECAO
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND LOWER(l.descricao) LIKE LOWER(CONCAT('%', :descricao, '%')) "
+			+ 		" AND (:mes IS NULL OR l.mes = :mes) "
+			+ 		" AND (:ano IS NULL OR l.ano = :ano) "
+			+ 		" AND (:tipo IS NULL OR l.tipo = :tipo) "
+			+ 		" AND ( l.ano > :ultimoAno "
+			+ 			" OR (l.ano = :ultimoAno AND l.mes > :ultimoMes) "
+			+ 			" OR (l.ano = :ultimoAno AND l.mes = :ultimoMes AND l.id > :ultimoId) ) "
+			+ 	" ORDER BY "
+			+ 		" l.ano, l.mes, l.id ")
+	List<LancamentoProjecao> buscarPagina(
+			@Param("idUsuario") Long idUsuario,
+			@Param("descricao") String descricao,
+			@Param("mes") Integer mes,
+			@Param("ano") Integer ano,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("ultimoAno") Integer ultimoAno,
+			@Param("ultimoMes") Integer ultimoMes,
+			@Param("ultimoId") Long ultimoId,
+			Pageable pageable);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		PROJECAO
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND l.alteracao > :desde "
+			+ 	" ORDER BY "
+			+ 		" l.alteracao, l.id ")
+	List<LancamentoProjecao> listarAlteradosDesde(@Param("idUsuario") Long idUsuario, @Param("desde") Long desde);
+	
+	/*
+	 * Percorre todos os lançamentos do usuário sem materializar a lista: o driver
+	 * busca as linhas em lotes do tamanho do fetch size enquanto o stream é consumido.
+	 * Deve ser consumido dentro de uma transação e fechado ao final.
+	 */
+	@QueryHints(value = {
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500")
+	})
+	@Query(value = 
+				"SELECT "
+			+ 		PROJECAO
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 	" ORDER BY "
+			+ 		" l.ano, l.mes, l.id ")
+	Stream<LancamentoProjecao> streamPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	/*
+	 * Valores gravados no banco, ignorando alterações ainda não enviadas do contexto
+	 * de persistência (flush mode COMMIT). Cada linha: id, id_usuario, mes, ano, valor, tipo, status, descricao, data_cadastro, versao.
+	 */
+	@QueryHints(value = {
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE, value = "COMMIT")
+	})
+	@Query(value = 
+				"SELECT "
+			+ 		" l.id, l.usuario.id, l.mes, l.ano, l.valor, l.tipo, l.status, l.descricao, l.dataCadastro, l.versao "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.id = :id ")
+	List<Object[]> obterValoresPersistidos(@Param("id") Long id);
+	
+	/*
+	 * Escritas em um único comando, sem carregar o lançamento nem o usuário. O id_usuario
+	 * no WHERE garante que só o dono altera; nenhuma linha afetada = lançamento não encontrado
+	 * ou, com :versao informada, alterado por outra requisição desde a leitura.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.status = :status, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		" l.id = :id "
+			+ 		" AND l.usuario.id = :idUsuario "
+			+ 		" AND (:versao IS NULL OR l.versao = :versao) ")
+	int atualizarStatus(
+			@Param("id") Long id,
+			@Param("idUsuario") Long idUsuario,
+			@Param("status") StatusLancamento status,
+			@Param("versao") Long versao);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.descricao = :descricao, "
+			+ 		" l.mes = :mes, "
+			+ 		" l.ano = :ano, "
+			+ 		" l.valor = :valor, "
+			+ 		" l.tipo = :tipo, "
+			+ 		" l.status = :status, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		" l.id = :id "
+			+ 		" AND l.usuario.id = :idUsuario "
+			+ 		" AND l.versao = :versao ")
+	int atualizarCampos(
+			@Param("id") Long id,
+			@Param("idUsuario") Long idUsuario,
+			@Param("descricao") String descricao,
+			@Param("mes") Integer mes,
+			@Param("ano") Integer ano,
+			@Param("valor") BigDecimal valor,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("status") StatusLancamento status,
+			@Param("versao") Long versao);
+	
+	/*
+	 * Totais do usuário agrupados por ano, mes, tipo e status. Cada linha: ano, mes, tipo, status, soma.
+	 */
+	@Query(value = 
+				"SELECT "
+			+ 		" l.ano, l.mes, l.tipo, l.status, SUM(l.valor) "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 	" GROUP BY "
+			+ 		" l.ano, l.mes, l.tipo, l.status ")
+	List<Object[]> obterTotaisPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	/*
+	 * Totais de um ano do usuário para o resumo do arquivamento. Cada linha: mes, tipo, status, soma, quantidade.
+	 */
+	@Query(value = 
+				"SELECT "
+			+ 		" l.mes, l.tipo, l.status, SUM(l.valor), COUNT(l) "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND l.ano = :ano "
+			+ 	" GROUP BY "
+			+ 		" l.mes, l.tipo, l.status ")
+	List<Object[]> obterTotaisPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	//pares (ano, id do usuário) com lançamentos em anos anteriores ao limite, ainda na tabela lancamento
+	@Query(value = 
+				"SELECT DISTINCT "
+			+ 		" l.ano, l.usuario.id "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.ano < :anoLimite "
+			+ 	" ORDER BY "
+			+ 		" l.ano, l.usuario.id ")
+	List<Object[]> listarAnosParaArquivar(@Param("anoLimite") Integer anoLimite);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Lancamento l WHERE l.usuario.id = :idUsuario AND l.ano = :ano")
+	int deletarPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+	
+	@QueryHints(value = {
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500")
+	})
+	@Query(value = 
+				"SELECT "
+			+ 		" l.id, l.descricao "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario ")
+	Stream<Object[]> streamDescricoesPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	/*
+	 * Troca de status e exclusão em lote, sempre restritas a um usuário. Só lançamentos com
+	 * status em :origens mudam, então os que não admitem a transição ficam como estão.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.status = :novoStatus, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND l.status IN :origens "
+			+ 		" AND (:mes IS NULL OR l.mes = :mes) "
+			+ 		" AND (:ano IS NULL OR l.ano = :ano) "
+			+ 		" AND (:tipo IS NULL OR l.tipo = :tipo) ")
+	int atualizarStatusPorFiltro(
+			@Param("idUsuario") Long idUsuario,
+			@Param("mes") Integer mes,
+			@Param("ano") Integer ano,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("origens") Collection<StatusLancamento> origens,
+			@Param("novoStatus") StatusLancamento novoStatus);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.status = :novoStatus, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		" l.id IN :ids "
+			+ 		" AND l.usuario.id = :idUsuario "
+			+ 		" AND l.status IN :origens ")
+	int atualizarStatusPorIds(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ids") Collection<Long> ids,
+			@Param("origens") Collection<StatusLancamento> origens,
+			@Param("novoStatus") StatusLancamento novoStatus);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" COUNT(l) "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.id IN :ids "
+			+ 		" AND l.usuario.id = :idUsuario "
+			+ 		" AND l.status NOT IN :permitidos ")
+	long contarForaDosStatus(
+			@Param("idUsuario") Long idUsuario,
+			@Param("ids") Collection<Long> ids,
+			@Param("permitidos") Collection<StatusLancamento> permitidos);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"DELETE FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND (:mes IS NULL OR l.mes = :mes) "
+			+ 		" AND (:ano IS NULL OR l.ano = :ano) "
+			+ 		" AND (:tipo IS NULL OR l.tipo = :tipo) "
+			+ 		" AND (:status IS NULL OR l.status = :status) ")
+	int deletarPorFiltro(
+			@Param("idUsuario") Long idUsuario,
+			@Param("mes") Integer mes,
+			@Param("ano") Integer ano,
+			@Param("tipo") TipoLancamento tipo,
+			@Param("status") StatusLancamento status);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"DELETE FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.id IN :ids "
+			+ 		" AND l.usuario.id = :idUsuario ")
+	int deletarPorIds(@Param("idUsuario") Long idUsuario, @Param("ids") Collection<Long> ids);
+	
+	//hashes de importação já gravados entre os informados (índice ux_lancamento_importacao)
+	@Query(value = 
+				"SELECT "
+			+ 		" l.hashImportacao "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND l.hashImportacao IN :hashes ")
+	List<String> listarHashesImportados(@Param("idUsuario") Long idUsuario, @Param("hashes") Collection<String> hashes);
+	
+	/*
+	 * Lançamentos do usuário num status, entre duas competências contadas em meses
+	 * (ano * 12 + mes - 1), para a conciliação. Como streamPorUsuario, deve ser consumido
+	 * dentro de uma transação e fechado ao final.
+	 */
+	@QueryHints(value = {
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500")
+	})
+	@Query(value = 
+				"SELECT "
+			+ 		PROJECAO
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		" l.usuario.id = :idUsuario "
+			+ 		" AND l.status = :status "
+			+ 		" AND l.ano BETWEEN :competenciaInicial / 12 AND :competenciaFinal / 12 "
+			+ 		" AND (l.ano * 12 + l.mes - 1) BETWEEN :competenciaInicial AND :competenciaFinal "
+			+ 	" ORDER BY "
+			+ 		" l.id ")
+	Stream<LancamentoProjecao> streamPorStatusNasCompetencias(
+			@Param("idUsuario") Long idUsuario,
+			@Param("status") StatusLancamento status,
+			@Param("competenciaInicial") Integer competenciaInicial,
+			@Param("competenciaFinal") Integer competenciaFinal);
+	
+	/*
+	 * Ocorrências PENDENTE de uma série a partir de uma competência (ano * 12 + mes - 1):
+	 * editar ou cancelar a série é um único UPDATE pelo índice ix_lancamento_recorrencia.
+	 */
+	String SERIE = 
+				" l.usuario.id = :idUsuario "
+			+ 	" AND l.idRecorrencia = :idRecorrencia "
+			+ 	" AND l.status = com.BunkaBytes.IFriends.model.enums.StatusLancamento.PENDENTE "
+			+ 	" AND (l.ano * 12 + l.mes - 1) >= :competenciaInicial ";
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" l.id, l.descricao, l.parcela "
+			+ 	" FROM "
+			+ 		" Lancamento l "
+			+ 	" WHERE "
+			+ 		SERIE)
+	List<Object[]> listarDescricoesDaSerie(
+			@Param("idUsuario") Long idUsuario,
+			@Param("idRecorrencia") Long idRecorrencia,
+			@Param("competenciaInicial") Integer competenciaInicial);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.descricao = :descricao, "
+			+ 		" l.valor = :valor, "
+			+ 		" l.tipo = :tipo, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		SERIE)
+	int atualizarSerie(
+			@Param("idUsuario") Long idUsuario,
+			@Param("idRecorrencia") Long idRecorrencia,
+			@Param("competenciaInicial") Integer competenciaInicial,
+			@Param("descricao") String descricao,
+			@Param("valor") BigDecimal valor,
+			@Param("tipo") TipoLancamento tipo);
+	
+	//parcelada: a descrição de cada linha leva o número da parcela, como em Recorrencia.descricaoDaParcela
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.descricao = CONCAT(:descricao, ' ', CAST(l.parcela AS string), :sufixo), "
+			+ 		" l.valor = :valor, "
+			+ 		" l.tipo = :tipo, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		SERIE)
+	int atualizarSerieParcelada(
+			@Param("idUsuario") Long idUsuario,
+			@Param("idRecorrencia") Long idRecorrencia,
+			@Param("competenciaInicial") Integer competenciaInicial,
+			@Param("descricao") String descricao,
+			@Param("sufixo") String sufixo,
+			@Param("valor") BigDecimal valor,
+			@Param("tipo") TipoLancamento tipo);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" Lancamento l "
+			+ 	" SET "
+			+ 		" l.status = com.BunkaBytes.IFriends.model.enums.StatusLancamento.CANCELADO, "
+			+ 		" l.versao = l.versao + 1, "
+			+ 		ALTERACAO
+			+ 	" WHERE "
+			+ 		SERIE)
+	int cancelarSerie(
+			@Param("idUsuario") Long idUsuario,
+			@Param("idRecorrencia") Long idRecorrencia,
+			@Param("competenciaInicial") Integer competenciaInicial);
 }
@@ -0,0 +1,11 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.util.List;
+
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+
+public interface LancamentoRepositoryCustom {
+	
+	//tipo: Lancamento (entidades) ou LancamentoProjecao
+	<T> List<T> filtrar(FiltroLancamento filtro, Class<T> tipo);
+}
@@ -0,0 +1,167 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/*
+ * Compila FiltroLancamento em uma consulta Criteria em que todo valor é parâmetro nomeado,
+ * então o JPQL gerado depende só da assinatura do filtro. O JPQL fica em cache por assinatura:
+ * a partir da segunda vez a Criteria não é montada de novo e o Hibernate reaproveita o plano
+ * da consulta (query plan cache) pelo texto idêntico.
+ */
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+	public static final List<String> CAMPOS_ORDENACAO = Arrays.asList("id", "descricao", "mes", "ano", "valor", "tipo", "status", "dataCadastro");
+
+	private static final int MAXIMO_PLANOS = 512;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final Cache<String, String> planos = Caffeine.newBuilder().maximumSize(MAXIMO_PLANOS).build();
+
+	@Override
+	public <T> List<T> filtrar(FiltroLancamento filtro, Class<T> tipo) {
+		String jpql = planos.get(tipo.getSimpleName() + ":" + filtro.assinatura(), assinatura -> compilar(filtro, tipo));
+		return executar(jpql, filtro, tipo);
+	}
+
+	//compilar e executar ficam visíveis no pacote para o FiltroLancamentoBenchmark medir sem o cache
+	<T> List<T> executar(String jpql, FiltroLancamento filtro, Class<T> tipo) {
+		TypedQuery<T> query = entityManager.createQuery(jpql, tipo);
+		if(filtro.getUsuario() != null) {
+			query.setParameter("usuario", filtro.getUsuario());
+		}
+		if(filtro.getDescricao() != null) {
+			query.setParameter("descricao", "%" + filtro.getDescricao().toLowerCase() + "%");
+		}
+		if(FiltroLancamento.preenchido(filtro.getTipos())) {
+			query.setParameter("tipos", filtro.getTipos());
+		}
+		if(FiltroLancamento.preenchido(filtro.getStatus())) {
+			query.setParameter("status", filtro.getStatus());
+		}
+		if(FiltroLancamento.preenchido(filtro.getAnos())) {
+			query.setParameter("anos", filtro.getAnos());
+		}
+		if(FiltroLancamento.preenchido(filtro.getMeses())) {
+			query.setParameter("meses", filtro.getMeses());
+		}
+		if(filtro.getPeriodoInicial() != null) {
+			query.setParameter("anoInicial", filtro.getPeriodoInicial().getYear());
+			query.setParameter("mesInicial", filtro.getPeriodoInicial().getMonthValue());
+		}
+		if(filtro.getPeriodoFinal() != null) {
+			query.setParameter("anoFinal", filtro.getPeriodoFinal().getYear());
+			query.setParameter("mesFinal", filtro.getPeriodoFinal().getMonthValue());
+		}
+		if(filtro.getValorMinimo() != null) {
+			query.setParameter("valorMinimo", filtro.getValorMinimo());
+		}
+		if(filtro.getValorMaximo() != null) {
+			query.setParameter("valorMaximo", filtro.getValorMaximo());
+		}
+		if(filtro.getLimite() != null) {
+			query.setMaxResults(filtro.getLimite());
+		}
+		return query.getResultList();
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> String compilar(FiltroLancamento filtro, Class<T> tipo) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<T> criteria = cb.createQuery(tipo);
+		Root<Lancamento> l = criteria.from(Lancamento.class);
+
+		if(tipo == LancamentoProjecao.class) {
+			criteria.select(cb.construct(tipo,
+					l.get("id"), l.get("descricao"), l.get("mes"), l.get("ano"), l.get("valor"), l.get("tipo"),
+					l.get("status"), l.get("usuario").get("id"), l.get("dataCadastro"), l.get("versao")));
+		} else {
+			criteria.select((Selection<T>) l);
+		}
+
+		Path<Integer> ano = l.get("ano");
+		Path<Integer> mes = l.get("mes");
+		List<Predicate> predicados = new ArrayList<>();
+		if(filtro.getUsuario() != null) {
+			predicados.add(cb.equal(l.get("usuario").get("id"), cb.parameter(Long.class, "usuario")));
+		}
+		if(filtro.getDescricao() != null) {
+			predicados.add(cb.like(cb.lower(l.get("descricao")), cb.parameter(String.class, "descricao")));
+		}
+		if(FiltroLancamento.preenchido(filtro.getTipos())) {
+			predicados.add(l.get("tipo").in(cb.parameter(List.class, "tipos")));
+		}
+		if(FiltroLancamento.preenchido(filtro.getStatus())) {
+			predicados.add(l.get("status").in(cb.parameter(List.class, "status")));
+		}
+		if(FiltroLancamento.preenchido(filtro.getAnos())) {
+			predicados.add(ano.in(cb.parameter(List.class, "anos")));
+		}
+		if(FiltroLancamento.preenchido(filtro.getMeses())) {
+			predicados.add(mes.in(cb.parameter(List.class, "meses")));
+		}
+		if(filtro.getPeriodoInicial() != null) {
+			predicados.add(cb.or(
+					cb.greaterThan(ano, cb.parameter(Integer.class, "anoInicial")),
+					cb.and(cb.equal(ano, cb.parameter(Integer.class, "anoInicial")),
+							cb.greaterThanOrEqualTo(mes, cb.parameter(Integer.class, "mesInicial")))));
+		}
+		if(filtro.getPeriodoFinal() != null) {
+			predicados.add(cb.or(
+					cb.lessThan(ano, cb.parameter(Integer.class, "anoFinal")),
+					cb.and(cb.equal(ano, cb.parameter(Integer.class, "anoFinal")),
+							cb.lessThanOrEqualTo(mes, cb.parameter(Integer.class, "mesFinal")))));
+		}
+		if(filtro.getValorMinimo() != null) {
+			predicados.add(cb.greaterThanOrEqualTo(l.get("valor"), cb.parameter(BigDecimal.class, "valorMinimo")));
+		}
+		if(filtro.getValorMaximo() != null) {
+			predicados.add(cb.lessThanOrEqualTo(l.get("valor"), cb.parameter(BigDecimal.class, "valorMaximo")));
+		}
+		criteria.where(predicados.toArray(new Predicate[0]));
+		criteria.orderBy(ordenacao(filtro, cb, l));
+
+		return entityManager.createQuery(criteria).unwrap(org.hibernate.query.Query.class).getQueryString();
+	}
+
+	//sem ordem informada segue a listagem (ano, mes, id); o id sempre desempata
+	private List<Order> ordenacao(FiltroLancamento filtro, CriteriaBuilder cb, Root<Lancamento> l) {
+		List<String> campos = filtro.getOrdem() == null || filtro.getOrdem().isEmpty()
+								? Arrays.asList("ano", "mes", "id")
+								: filtro.getOrdem();
+
+		List<Order> ordem = new ArrayList<>();
+		boolean comId = false;
+		for(String campo : campos) {
+			boolean decrescente = campo.startsWith("-");
+			String nome = decrescente ? campo.substring(1) : campo;
+			ordem.add(decrescente ? cb.desc(l.get(nome)) : cb.asc(l.get(nome)));
+			comId |= nome.equals("id");
+		}
+		if(!comId) {
+			ordem.add(cb.asc(l.get("id")));
+		}
+		return ordem;
+	}
+}
@@ -0,0 +1,54 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.LancamentoTrigrama;
+
+public interface LancamentoTrigramaRepository extends JpaRepository<LancamentoTrigrama, LancamentoTrigrama.Chave> {
+	
+	/*
+	 * Lançamentos do usuário que contêm todos os trigramas informados. Pode trazer falsos
+	 * positivos (trigramas fora de ordem), então o texto ainda precisa ser conferido.
+	 */
+	@Query(value = 
+				"SELECT "
+			+ 		" t.idLancamento "
+			+ 	" FROM "
+			+ 		" LancamentoTrigrama t "
+			+ 	" WHERE "
+			+ 		" t.idUsuario = :idUsuario "
+			+ 		" AND t.trigrama IN :trigramas "
+			+ 	" GROUP BY "
+			+ 		" t.idLancamento "
+			+ 	" HAVING "
+			+ 		" COUNT(t.trigrama) = :quantidade ")
+	List<Long> buscarCandidatos(@Param("idUsuario") Long idUsuario, @Param("trigramas") Collection<String> trigramas, @Param("quantidade") long quantidade);
+	
+	@Modifying
+	@Query("DELETE FROM LancamentoTrigrama t WHERE t.idLancamento IN :idsLancamento")
+	int removerPorLancamentos(@Param("idsLancamento") Collection<Long> idsLancamento);
+	
+	@Modifying
+	@Query("DELETE FROM LancamentoTrigrama t WHERE t.idLancamento = :idLancamento AND t.trigrama IN :trigramas")
+	int removerTrigramas(@Param("idLancamento") Long idLancamento, @Param("trigramas") Collection<String> trigramas);
+	
+	@Modifying
+	@Query("DELETE FROM LancamentoTrigrama t WHERE t.idUsuario = :idUsuario")
+	int removerPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	//trigramas de lançamentos do usuário que já foram excluídos (exclusão em lote)
+	@Modifying
+	@Query(value = 
+				"DELETE FROM "
+			+ 		" LancamentoTrigrama t "
+			+ 	" WHERE "
+			+ 		" t.idUsuario = :idUsuario "
+			+ 		" AND NOT EXISTS ( SELECT l.id FROM Lancamento l WHERE l.id = t.idLancamento ) ")
+	int removerOrfaos(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,48 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+
+public interface RecorrenciaRepository extends JpaRepository<Recorrencia, Long> {
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" r "
+			+ 	" FROM "
+			+ 		" Recorrencia r "
+			+ 	" WHERE "
+			+ 		" r.id = :id "
+			+ 		" AND r.usuario.id = :idUsuario ")
+	Optional<Recorrencia> obterDoUsuario(@Param("idUsuario") Long idUsuario, @Param("id") Long id);
+	
+	@Query(value = 
+				"SELECT "
+			+ 		" r "
+			+ 	" FROM "
+			+ 		" Recorrencia r "
+			+ 	" WHERE "
+			+ 		" r.usuario.id = :idUsuario "
+			+ 	" ORDER BY "
+			+ 		" r.id ")
+	List<Recorrencia> listarPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	//pares (id do usuário, id) das séries sem fim, as únicas que o agendamento estende até o horizonte
+	@Query(value = 
+				"SELECT "
+			+ 		" r.usuario.id, r.id "
+			+ 	" FROM "
+			+ 		" Recorrencia r "
+			+ 	" WHERE "
+			+ 		" r.encerrada = false "
+			+ 		" AND r.quantidade IS NULL "
+			+ 		" AND r.anoFinal IS NULL "
+			+ 	" ORDER BY "
+			+ 		" r.usuario.id, r.id ")
+	List<Object[]> listarSemFim();
+}
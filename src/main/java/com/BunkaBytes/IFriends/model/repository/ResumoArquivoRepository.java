@@ -0,0 +1,24 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.ResumoArquivo;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+public interface ResumoArquivoRepository extends JpaRepository<ResumoArquivo, ResumoArquivo.Chave> {
+	
+	@Query("SELECT SUM(r.total) FROM ResumoArquivo r WHERE r.idUsuario = :idUsuario AND r.tipo = :tipo")
+	BigDecimal somarPorTipo(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo);
+	
+	//mesmo formato de LancamentoRepository.obterTotaisPorUsuario: ano, mes, tipo, status, soma
+	@Query("SELECT r.ano, r.mes, r.tipo, r.status, r.total FROM ResumoArquivo r WHERE r.idUsuario = :idUsuario")
+	List<Object[]> obterTotaisPorUsuario(@Param("idUsuario") Long idUsuario);
+	
+	@Query("SELECT DISTINCT r.ano FROM ResumoArquivo r WHERE r.idUsuario = :idUsuario ORDER BY r.ano")
+	List<Integer> listarAnos(@Param("idUsuario") Long idUsuario);
+}
@@ -0,0 +1,25 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import java.math.BigDecimal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+	
+	@Modifying(flushAutomatically = true)
+	@Query(value = 
+				"UPDATE "
+			+ 		" SaldoUsuario s "
+			+ 	" SET "
+			+ 		" s.receita = s.receita + :receita, "
+			+ 		" s.despesa = s.despesa + :despesa, "
+			+ 		" s.versao = s.versao + 1 "
+			+ 	" WHERE "
+			+ 		" s.idUsuario = :idUsuario ")
+	int somar(@Param("idUsuario") Long idUsuario, @Param("receita") BigDecimal receita, @Param("despesa") BigDecimal despesa);
+}
@@ -0,0 +1,24 @@
+package com.BunkaBytes.IFriends.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.BunkaBytes.IFriends.model.entity.SequenciaAlteracao;
+
+public interface SequenciaAlteracaoRepository extends JpaRepository<SequenciaAlteracao, Long> {
+	
+	@Modifying
+	@Query(value = 
+				"UPDATE "
+			+ 		" SequenciaAlteracao s "
+			+ 	" SET "
+			+ 		" s.ultima = s.ultima + 1 "
+			+ 	" WHERE "
+			+ 		" s.idUsuario = :idUsuario ")
+	int incrementar(@Param("idUsuario") Long idUsuario);
+	
+	@Query("SELECT s.ultima FROM SequenciaAlteracao s WHERE s.idUsuario = :idUsuario")
+	Long obterUltima(@Param("idUsuario") Long idUsuario);
+}
@@ -2,13 +2,28 @@ package com.BunkaBytes.IFriends.model.repository;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.BunkaBytes.IFriends.model.entity.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 	
+	String CACHE_POR_ID = "usuariosPorId";
+	String CACHE_POR_EMAIL = "usuariosPorEmail";
+	
 	boolean existsByEmail(String email);
 	
+	//usuários quase nunca mudam: consultas por id e email passam pelo cache (spring.cache.caffeine.spec)
+	@Cacheable(cacheNames = CACHE_POR_EMAIL, key = "#p0", unless = "#result == null")
 	Optional<Usuario> findByEmail(String email);
+	
+	@Override
+	@Cacheable(cacheNames = CACHE_POR_ID, key = "#p0", unless = "#result == null")
+	Optional<Usuario> findById(Long id);
+	
+	@Override
+	@CacheEvict(cacheNames = { CACHE_POR_ID, CACHE_POR_EMAIL }, allEntries = true)
+	<S extends Usuario> S save(S usuario);
 }
@@ -0,0 +1,13 @@
+package com.BunkaBytes.IFriends.service;
+
+public interface AlteracaoUsuarioService {
+	
+	//o número guardado em sequencia_alteracao para o usuário, igual em todos os nós
+	String etag(Long idUsuario);
+	
+	//marca a escrita para o roteamento de leituras deste nó
+	void registrar(Long idUsuario);
+	
+	//se o usuário escreveu nos últimos janelaMillis (leituras dele não devem ir para a réplica)
+	boolean alteradoRecentemente(Long idUsuario, long janelaMillis);
+}
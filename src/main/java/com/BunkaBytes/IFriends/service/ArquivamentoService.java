@@ -0,0 +1,19 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+
+public interface ArquivamentoService {
+	
+	//anos anteriores a este estão fechados e podem ir para o arquivo
+	int anoLimite();
+	
+	//ano fechado -> usuários com lançamentos desse ano ainda na tabela lancamento
+	Map<Integer, List<Long>> listarPendentes();
+	
+	int arquivar(Long idUsuario, Integer ano);
+	
+	List<LancamentoProjecao> listarArquivados(Long idUsuario, Integer ano);
+}
@@ -0,0 +1,18 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import com.BunkaBytes.IFriends.api.dto.ResultadoConciliacaoDto;
+import com.BunkaBytes.IFriends.service.conciliacao.OpcoesConciliacao;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+public interface ConciliacaoService {
+	
+	ResultadoConciliacaoDto conciliar(Long idUsuario, InputStream extrato, FormatoExtrato formato, Charset charset, OpcoesConciliacao opcoes) throws IOException;
+	
+	ResultadoConciliacaoDto conciliar(Long idUsuario, List<LinhaExtrato> linhas, OpcoesConciliacao opcoes);
+}
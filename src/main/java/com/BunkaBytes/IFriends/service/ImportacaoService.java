@@ -0,0 +1,14 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import com.BunkaBytes.IFriends.api.dto.ResultadoImportacaoDto;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+
+public interface ImportacaoService {
+	
+	//formato null detecta OFX ou CSV pelo início do arquivo
+	ResultadoImportacaoDto importar(Long idUsuario, InputStream extrato, FormatoExtrato formato, Charset charset) throws IOException;
+}
@@ -0,0 +1,19 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+
+public interface IndiceDescricaoService {
+	
+	void registrar(List<Lancamento> removidos, List<Lancamento> incluidos);
+	
+	Optional<List<Long>> buscarCandidatos(Long idUsuario, String texto);
+	
+	boolean indexado(Long idUsuario);
+	
+	void reconstruir(Long idUsuario);
+	
+	void removerExcluidos(Long idUsuario);
+}
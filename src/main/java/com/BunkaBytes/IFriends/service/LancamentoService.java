@@ -3,18 +3,34 @@ package com.BunkaBytes.IFriends.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
 import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
 
 public interface LancamentoService {
 	
 	Lancamento salvar(Lancamento lancamento);
+	List<Lancamento> salvarLote(List<Lancamento> lancamentos);
 	Lancamento atualizar(Lancamento lancamento);
 	void deletar(Lancamento lancamento);
 	List<Lancamento> buscar(Lancamento lancamentoFiltro);
+	List<LancamentoProjecao> listar(Lancamento lancamentoFiltro);
+	List<LancamentoProjecao> filtrar(FiltroLancamento filtro);
+	List<LancamentoProjecao> buscarPagina(Lancamento lancamentoFiltro, Lancamento ultimo, int limite);
+	void exportar(Long idUsuario, Consumer<LancamentoProjecao> consumidor);
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
+	boolean atualizarStatus(Long id, Long idUsuario, StatusLancamento status, Long versao);
+	Optional<LancamentoProjecao> atualizarCampos(Lancamento lancamento);
+	int atualizarStatusEmLote(Lancamento filtro, List<Long> ids, StatusLancamento novoStatus);
+	int deletarEmLote(Lancamento filtro, List<Long> ids);
+	int atualizarSerie(Recorrencia recorrencia, int competenciaInicial);
+	int cancelarSerie(Recorrencia recorrencia, int competenciaInicial);
 	void validar(Lancamento lancamento);
 	Optional<Lancamento> obterPorId(Long id);
-	BigDecimal obterSaldoPorUsuario(Long id);
+	Optional<LancamentoProjecao> obterProjecaoPorId(Long id);
+	BigDecimal obterSaldoPorUsuario(Long idUsuario);
 	}	
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.function.Supplier;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.BunkaBytes.IFriends.api.dto.EventoLancamentoDto;
+
+public interface NotificacaoService {
+	
+	SseEmitter inscrever(Long idUsuario);
+	
+	boolean possuiInscritos(Long idUsuario);
+	
+	void publicar(Long idUsuario, Supplier<EventoLancamentoDto> evento);
+}
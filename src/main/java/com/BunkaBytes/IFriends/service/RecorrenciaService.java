@@ -0,0 +1,24 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+
+public interface RecorrenciaService {
+
+	Recorrencia criar(Recorrencia recorrencia);
+
+	//aplica descrição, valor e tipo às ocorrências pendentes a partir da competência (ano * 12 + mes - 1)
+	int atualizar(Recorrencia recorrencia, int competenciaInicial);
+
+	int cancelar(Long idUsuario, Long id, int competenciaInicial);
+
+	List<Recorrencia> listar(Long idUsuario);
+
+	//gera as ocorrências que faltam até o fim da série ou até o horizonte
+	int materializar(Long idUsuario, Long id);
+
+	//id do usuário -> séries sem fim ainda ativas
+	Map<Long, List<Long>> listarSemFim();
+}
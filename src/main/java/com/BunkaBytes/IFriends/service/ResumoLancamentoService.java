@@ -0,0 +1,18 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.List;
+import java.util.Set;
+
+import com.BunkaBytes.IFriends.api.dto.ResumoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+
+public interface ResumoLancamentoService {
+	
+	void registrar(List<Lancamento> removidos, List<Lancamento> incluidos);
+	
+	List<ResumoDto> resumir(Long idUsuario, Set<String> agrupar, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status);
+	
+	void invalidar(Long idUsuario);
+}
@@ -0,0 +1,16 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+
+public interface SaldoUsuarioService {
+	
+	void registrar(List<Lancamento> removidos, List<Lancamento> incluidos);
+	
+	Optional<BigDecimal> obterSaldo(Long idUsuario);
+	
+	boolean recalcular(Long idUsuario);
+}
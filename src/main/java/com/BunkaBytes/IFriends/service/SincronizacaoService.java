@@ -0,0 +1,27 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.Collection;
+
+import com.BunkaBytes.IFriends.api.dto.SincronizacaoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+
+public interface SincronizacaoService {
+	
+	void avancar(Long idUsuario);
+	
+	Long proximaAlteracao(Long idUsuario);
+	
+	//valor atual de sequencia_alteracao (zero sem escritas), o mesmo do ETag
+	long ultimaAlteracao(Long idUsuario);
+	
+	//quantas vezes a transação atual avançou a sequência do usuário
+	int avancosNaTransacao(Long idUsuario);
+	
+	void registrarExclusao(Lancamento lancamento);
+	
+	int registrarExclusoesPorIds(Long idUsuario, Collection<Long> ids);
+	
+	int registrarExclusoesPorFiltro(Lancamento filtro);
+	
+	SincronizacaoDto sincronizar(Long idUsuario, Long desde);
+}
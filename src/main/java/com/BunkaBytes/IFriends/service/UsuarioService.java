@@ -12,6 +12,6 @@ public interface UsuarioService {
 	
 	void validarEmail(String email);
 	
-	Optional<Usuario> obterPorId(Long id);
+	Optional<Usuario> obterPorId(Long idUsuario);
 	
 }
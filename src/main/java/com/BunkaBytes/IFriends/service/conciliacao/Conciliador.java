@@ -0,0 +1,228 @@
+package com.BunkaBytes.IFriends.service.conciliacao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.BunkaBytes.IFriends.api.dto.CorrespondenciaDto;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+import com.BunkaBytes.IFriends.service.impl.IndiceDescricaoServiceImpl;
+
+/*
+ * Casa linhas de extrato com lançamentos pendentes sem comparar todos com todos: os
+ * pendentes ficam num hash pelo valor em centavos (com sinal, despesa negativa) e pela
+ * competência. Cada linha só olha as chaves do seu valor nas competências que a janela de
+ * dias alcança e fica com a descrição mais parecida, por trigramas; o pendente escolhido
+ * sai do índice, então cada um concilia no máximo uma linha.
+ */
+public class Conciliador {
+
+	//candidatos comparados por chave, para que muitos pendentes iguais não virem O(n²)
+	static final int LIMITE_CANDIDATOS = 256;
+
+	private static final long[] SEM_TRIGRAMAS = new long[0];
+
+	private final int janelaDias;
+	private final double similaridadeMinima;
+	//candidatos de mesma chave encadeados, sem lista nem mapa por grupo
+	private final Map<Long, Candidato> indice = new HashMap<>();
+
+	public Conciliador(int janelaDias, double similaridadeMinima) {
+		this.janelaDias = janelaDias;
+		this.similaridadeMinima = similaridadeMinima;
+	}
+
+	public void adicionar(LancamentoProjecao lancamento) {
+		BigDecimal valor = lancamento.getTipo() == TipoLancamento.DESPESA ? lancamento.getValor().negate() : lancamento.getValor();
+		Candidato candidato = new Candidato(lancamento, trigramas(lancamento.getDescricao()), centavos(valor),
+											competencia(lancamento.getAno(), lancamento.getMes()));
+		candidato.proximo = indice.put(chave(candidato.centavos, candidato.competencia), candidato);
+	}
+
+	public Optional<CorrespondenciaDto> conciliar(LinhaExtrato linha) {
+		long centavos = centavos(linha.getValor());
+		long[] trigramas = null;
+		int propria = competencia(linha.getData());
+		int fim = competencia(linha.getData().plusDays(janelaDias));
+
+		Escolha escolha = new Escolha();
+		for(int competencia = competencia(linha.getData().minusDays(janelaDias)); competencia <= fim; competencia++) {
+			Candidato anterior = null;
+			Candidato candidato = indice.get(chave(centavos, competencia));
+			for(int i = 0; candidato != null && i < LIMITE_CANDIDATOS; i++) {
+				//a chave mistura valor e competência, então pode reunir grupos diferentes
+				if(candidato.centavos == centavos && candidato.competencia == competencia) {
+					if(trigramas == null) {
+						trigramas = trigramas(linha.getDescricao());
+					}
+					escolha.avaliar(candidato, anterior, similaridade(trigramas, candidato.trigramas), competencia == propria);
+				}
+				anterior = candidato;
+				candidato = candidato.proximo;
+			}
+		}
+		if(escolha.candidato == null || escolha.similaridade < similaridadeMinima) {
+			return Optional.empty();
+		}
+
+		Candidato escolhido = escolha.candidato;
+		if(escolha.anterior != null) {
+			escolha.anterior.proximo = escolhido.proximo;
+		} else if(escolhido.proximo != null) {
+			indice.put(chave(escolhido.centavos, escolhido.competencia), escolhido.proximo);
+		} else {
+			indice.remove(chave(escolhido.centavos, escolhido.competencia));
+		}
+		return Optional.of(new CorrespondenciaDto(linha, escolhido.lancamento, escolha.similaridade));
+	}
+
+	//pendentes que nenhuma linha conciliou
+	public List<LancamentoProjecao> restantes() {
+		List<LancamentoProjecao> restantes = new ArrayList<>();
+		for(Candidato candidato : indice.values()) {
+			for(; candidato != null; candidato = candidato.proximo) {
+				restantes.add(candidato.lancamento);
+			}
+		}
+		return restantes;
+	}
+
+	//meses desde o ano zero, para que a janela atravesse a virada do ano
+	public static int competencia(LocalDate data) {
+		return competencia(data.getYear(), data.getMonthValue());
+	}
+
+	public static int competencia(int ano, int mes) {
+		return ano * 12 + mes - 1;
+	}
+
+	private static long centavos(BigDecimal valor) {
+		return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+	}
+
+	/*
+	 * Trigramas da descrição sem acentos e em minúsculas, com pontuação virando espaço
+	 * ("PAG*PADARIA" e "Padaria" têm trigramas em comum), cada um empacotado num long e
+	 * ordenados para a interseção por merge. O Normalizer só roda em texto com acento.
+	 */
+	static long[] trigramas(String descricao) {
+		if(descricao == null) {
+			return SEM_TRIGRAMAS;
+		}
+		String texto = descricao;
+		for(int i = 0; i < descricao.length(); i++) {
+			if(descricao.charAt(i) >= 128) {
+				texto = IndiceDescricaoServiceImpl.normalizar(descricao);
+				break;
+			}
+		}
+
+		char[] normalizado = new char[texto.length() + 2];
+		int tamanho = 0;
+		normalizado[tamanho++] = ' ';
+		for(int i = 0; i < texto.length(); i++) {
+			char c = Character.toLowerCase(texto.charAt(i));
+			if((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+				normalizado[tamanho++] = c;
+			} else if(normalizado[tamanho - 1] != ' ') {
+				normalizado[tamanho++] = ' ';
+			}
+		}
+		if(normalizado[tamanho - 1] != ' ') {
+			normalizado[tamanho++] = ' ';
+		}
+		if(tamanho < 3) {
+			return SEM_TRIGRAMAS;
+		}
+
+		long[] trigramas = new long[tamanho - 2];
+		for(int i = 0; i < trigramas.length; i++) {
+			trigramas[i] = ((long) normalizado[i] << 32) | ((long) normalizado[i + 1] << 16) | normalizado[i + 2];
+		}
+		Arrays.sort(trigramas);
+		int distintos = 0;
+		for(int i = 0; i < trigramas.length; i++) {
+			if(i == 0 || trigramas[i] != trigramas[distintos - 1]) {
+				trigramas[distintos++] = trigramas[i];
+			}
+		}
+		return distintos == trigramas.length ? trigramas : Arrays.copyOf(trigramas, distintos);
+	}
+
+	//índice de Jaccard: trigramas em comum sobre o total de trigramas distintos
+	static double similaridade(long[] a, long[] b) {
+		if(a.length == 0 || b.length == 0) {
+			return 0;
+		}
+		int comuns = 0;
+		for(int i = 0, j = 0; i < a.length && j < b.length; ) {
+			if(a[i] == b[j]) {
+				comuns++;
+				i++;
+				j++;
+			} else if(a[i] < b[j]) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return (double) comuns / (a.length + b.length - comuns);
+	}
+
+	private static long chave(long centavos, int competencia) {
+		return centavos * 1_000_003L + competencia;
+	}
+
+	private static class Candidato {
+		private final LancamentoProjecao lancamento;
+		private final long[] trigramas;
+		private final long centavos;
+		private final int competencia;
+		private Candidato proximo;
+
+		private Candidato(LancamentoProjecao lancamento, long[] trigramas, long centavos, int competencia) {
+			this.lancamento = lancamento;
+			this.trigramas = trigramas;
+			this.centavos = centavos;
+			this.competencia = competencia;
+		}
+	}
+
+	/*
+	 * Melhor candidato até agora: maior similaridade; no empate, o da competência da própria
+	 * data e depois o de menor id, para que o resultado não dependa da ordem do índice.
+	 */
+	private static class Escolha {
+		private Candidato candidato;
+		private Candidato anterior;
+		private double similaridade = -1;
+		private boolean mesmaCompetencia;
+
+		private void avaliar(Candidato candidato, Candidato anterior, double similaridade, boolean mesmaCompetencia) {
+			if(this.candidato != null) {
+				int comparacao = Double.compare(similaridade, this.similaridade);
+				if(comparacao == 0) {
+					comparacao = Boolean.compare(mesmaCompetencia, this.mesmaCompetencia);
+				}
+				if(comparacao == 0) {
+					comparacao = this.candidato.lancamento.getId().compareTo(candidato.lancamento.getId());
+				}
+				if(comparacao <= 0) {
+					return;
+				}
+			}
+			this.candidato = candidato;
+			this.anterior = anterior;
+			this.similaridade = similaridade;
+			this.mesmaCompetencia = mesmaCompetencia;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.BunkaBytes.IFriends.service.conciliacao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OpcoesConciliacao {
+	//distância máxima, em dias, entre a data da linha e a competência do lançamento
+	private int janelaDias = 5;
+	//semelhança mínima das descrições (0 aceita qualquer descrição com o mesmo valor)
+	private double similaridadeMinima = 0.2;
+	//cancela os pendentes dos meses do extrato que nenhuma linha conciliou
+	private boolean cancelarSemCorrespondencia;
+	//só monta o relatório, sem alterar status
+	private boolean simular;
+}
@@ -0,0 +1,77 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BunkaBytes.IFriends.model.repository.SequenciaAlteracaoRepository;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
+
+/*
+ * ETag das leituras agregadas (listagem, saldo e resumo): o número gravado em
+ * sequencia_alteracao, que toda escrita do usuário já avança para a sincronização. Sai de
+ * uma leitura pela chave primária, então vale igual em qualquer nó e sobrevive a reinícios.
+ *
+ * A leitura é readOnly e vai para a mesma réplica da consulta que o ETag protege, e é feita
+ * antes dela: na pior das hipóteses o ETag é mais antigo que o corpo e o cliente só volta a
+ * buscar na próxima requisição, nunca guarda um corpo velho com o ETag novo.
+ *
+ * Em memória fica só o instante da última escrita por faixa de usuários, que o roteamento
+ * de leituras usa para manter no primário quem acabou de escrever neste nó.
+ */
+@Service
+public class AlteracaoUsuarioServiceImpl implements AlteracaoUsuarioService {
+
+	private static final int FAIXAS = 4096;
+
+	private final AtomicLongArray ultimasEscritas = new AtomicLongArray(FAIXAS);
+	//o repositório depende do datasource, que com réplicas depende deste serviço
+	private final ObjectProvider<SequenciaAlteracaoRepository> repository;
+
+	public AlteracaoUsuarioServiceImpl(ObjectProvider<SequenciaAlteracaoRepository> repository) {
+		this.repository = repository;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public String etag(Long idUsuario) {
+		Long ultima = repository.getObject().obterUltima(idUsuario);
+		return "\"" + (ultima == null ? 0 : ultima) + "\"";
+	}
+
+	@Override
+	public void registrar(Long idUsuario) {
+		int faixa = faixa(idUsuario);
+
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			ultimasEscritas.set(faixa, System.currentTimeMillis());
+			return;
+		}
+
+		//de novo depois do commit: a janela conta a partir de quando a réplica pode ver a escrita
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				ultimasEscritas.set(faixa, System.currentTimeMillis());
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				ultimasEscritas.set(faixa, System.currentTimeMillis());
+			}
+		});
+	}
+
+	@Override
+	public boolean alteradoRecentemente(Long idUsuario, long janelaMillis) {
+		return System.currentTimeMillis() - ultimasEscritas.get(faixa(idUsuario)) < janelaMillis;
+	}
+
+	private int faixa(Long idUsuario) {
+		return (int) Math.floorMod(idUsuario, (long) FAIXAS);
+	}
+}
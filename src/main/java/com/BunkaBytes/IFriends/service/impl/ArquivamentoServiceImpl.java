@@ -0,0 +1,128 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.ResumoArquivo;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoArquivadoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoTrigramaRepository;
+import com.BunkaBytes.IFriends.model.repository.ResumoArquivoRepository;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
+import com.BunkaBytes.IFriends.service.ArquivamentoService;
+import com.BunkaBytes.IFriends.service.ResumoLancamentoService;
+import com.BunkaBytes.IFriends.service.SaldoUsuarioService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
+
+/*
+ * Move os lançamentos de anos fechados da tabela lancamento para lancamento_arquivo, um
+ * usuário e um ano por transação, e acumula os totais movidos em resumo_arquivo. Assim a
+ * tabela lancamento e seus índices ficam com os anos abertos, enquanto saldo e resumo
+ * continuam somando o arquivo pelos totais guardados.
+ */
+@Service
+public class ArquivamentoServiceImpl implements ArquivamentoService {
+
+	private LancamentoRepository lancamentoRepository;
+	private LancamentoArquivadoRepository arquivadoRepository;
+	private ResumoArquivoRepository resumoArquivoRepository;
+	private LancamentoTrigramaRepository trigramaRepository;
+	private SaldoUsuarioService saldoService;
+	private ResumoLancamentoService resumoService;
+	private AlteracaoUsuarioService alteracaoService;
+	private SincronizacaoService sincronizacaoService;
+	private int anosAbertos;
+
+	public ArquivamentoServiceImpl(LancamentoRepository lancamentoRepository, LancamentoArquivadoRepository arquivadoRepository,
+			ResumoArquivoRepository resumoArquivoRepository, LancamentoTrigramaRepository trigramaRepository,
+			SaldoUsuarioService saldoService, ResumoLancamentoService resumoService, AlteracaoUsuarioService alteracaoService,
+			SincronizacaoService sincronizacaoService, @Value("${ifriends.arquivo.anos-abertos:2}") int anosAbertos) {
+		this.lancamentoRepository = lancamentoRepository;
+		this.arquivadoRepository = arquivadoRepository;
+		this.resumoArquivoRepository = resumoArquivoRepository;
+		this.trigramaRepository = trigramaRepository;
+		this.saldoService = saldoService;
+		this.resumoService = resumoService;
+		this.alteracaoService = alteracaoService;
+		this.sincronizacaoService = sincronizacaoService;
+		this.anosAbertos = anosAbertos;
+	}
+
+	@Override
+	public int anoLimite() {
+		return LocalDate.now().getYear() - anosAbertos + 1;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Integer, List<Long>> listarPendentes() {
+		Map<Integer, List<Long>> pendentes = new TreeMap<>();
+		for(Object[] linha : lancamentoRepository.listarAnosParaArquivar(anoLimite())) {
+			pendentes.computeIfAbsent((Integer) linha[0], ano -> new ArrayList<>()).add((Long) linha[1]);
+		}
+		return pendentes;
+	}
+
+	@Override
+	@Transactional
+	public int arquivar(Long idUsuario, Integer ano) {
+		if(ano == null || ano >= anoLimite()) {
+			throw new RegraNegocioException("Só os anos anteriores a " + anoLimite() + " podem ser arquivados.");
+		}
+
+		/*
+		 * Toda escrita do usuário avança sequencia_alteracao antes de tocar em lancamento, e o
+		 * UPDATE segura a linha até o commit: avançando primeiro, totais e cópia enxergam o mesmo
+		 * conjunto de lançamentos, e a listagem, que perde o ano, recebe um ETag novo.
+		 */
+		sincronizacaoService.avancar(idUsuario);
+
+		//garante a linha de saldo_usuario enquanto os lançamentos ainda estão na tabela lancamento
+		saldoService.recalcular(idUsuario);
+
+		//lançamentos incluídos num ano já arquivado somam às linhas existentes
+		for(Object[] linha : lancamentoRepository.obterTotaisPorUsuarioEAno(idUsuario, ano)) {
+			ResumoArquivo.Chave chave = new ResumoArquivo.Chave(idUsuario, ano, (Integer) linha[0], (TipoLancamento) linha[1], (StatusLancamento) linha[2]);
+			ResumoArquivo resumo = resumoArquivoRepository.findById(chave)
+										.orElseGet(() -> ResumoArquivo.builder()
+															.idUsuario(idUsuario)
+															.ano(ano)
+															.mes(chave.getMes())
+															.tipo(chave.getTipo())
+															.status(chave.getStatus())
+															.total(BigDecimal.ZERO)
+															.quantidade(0l)
+															.build());
+			resumo.setTotal(resumo.getTotal().add((BigDecimal) linha[3]));
+			resumo.setQuantidade(resumo.getQuantidade() + (Long) linha[4]);
+			resumoArquivoRepository.save(resumo);
+		}
+
+		int arquivados = arquivadoRepository.copiar(idUsuario, ano);
+		lancamentoRepository.deletarPorUsuarioEAno(idUsuario, ano);
+		trigramaRepository.removerOrfaos(idUsuario);
+
+		//os totais não mudam, mas o cubo pode ter sido carregado entre as duas tabelas
+		resumoService.invalidar(idUsuario);
+		alteracaoService.registrar(idUsuario);
+		return arquivados;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoProjecao> listarArquivados(Long idUsuario, Integer ano) {
+		return arquivadoRepository.listar(idUsuario, ano);
+	}
+}
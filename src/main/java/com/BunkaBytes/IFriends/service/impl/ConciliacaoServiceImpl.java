@@ -0,0 +1,166 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.BunkaBytes.IFriends.api.dto.ResultadoConciliacaoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.service.ConciliacaoService;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.conciliacao.Conciliador;
+import com.BunkaBytes.IFriends.service.conciliacao.OpcoesConciliacao;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+import com.BunkaBytes.IFriends.service.importacao.LeitorExtrato;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+/*
+ * Concilia um extrato com os lançamentos PENDENTE do usuário. Os pendentes das competências
+ * que o extrato alcança (com a janela) são lidos uma vez e indexados pelo Conciliador; cada
+ * linha procura só no seu grupo de valor. Os conciliados passam a EFETIVADO e, se pedido,
+ * os que sobraram nos meses do extrato a CANCELADO, com atualizarStatusEmLote na mesma
+ * transação da leitura.
+ */
+@Service
+@Timed(value = "ifriends.servico", histogram = true)
+public class ConciliacaoServiceImpl implements ConciliacaoService {
+
+	static final int MAXIMO_ERROS = 100;
+	private static final int JANELA_MAXIMA = 62;
+
+	private LancamentoService lancamentoService;
+	private LancamentoRepository repository;
+	private TransactionTemplate transacao;
+
+	public ConciliacaoServiceImpl(LancamentoService lancamentoService, LancamentoRepository repository,
+			PlatformTransactionManager transactionManager) {
+		this.lancamentoService = lancamentoService;
+		this.repository = repository;
+		this.transacao = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public ResultadoConciliacaoDto conciliar(Long idUsuario, InputStream extrato, FormatoExtrato formato, Charset charset, OpcoesConciliacao opcoes) throws IOException {
+		validar(opcoes);
+
+		//o extrato é lido antes da transação: o intervalo de competências só se conhece no fim
+		List<LinhaExtrato> linhas = new ArrayList<>();
+		List<String> erros = new ArrayList<>();
+		int rejeitadas = 0;
+		try (LeitorExtrato leitor = LeitorExtrato.abrir(extrato, formato, charset)) {
+			while(true) {
+				try {
+					LinhaExtrato linha = leitor.proxima();
+					if(linha == null) {
+						break;
+					}
+					linhas.add(linha);
+				} catch (RegraNegocioException e) {
+					rejeitadas++;
+					if(erros.size() < MAXIMO_ERROS) {
+						erros.add(e.getMessage());
+					}
+				}
+			}
+		}
+
+		ResultadoConciliacaoDto resultado = conciliar(idUsuario, linhas, opcoes);
+		resultado.setLidas(resultado.getLidas() + rejeitadas);
+		resultado.setRejeitadas(rejeitadas);
+		resultado.setErros(erros);
+		return resultado;
+	}
+
+	@Override
+	public ResultadoConciliacaoDto conciliar(Long idUsuario, List<LinhaExtrato> linhas, OpcoesConciliacao opcoes) {
+		validar(opcoes);
+		if(idUsuario == null) {
+			throw new RegraNegocioException("Informe um usuário.");
+		}
+
+		ResultadoConciliacaoDto resultado = new ResultadoConciliacaoDto();
+		resultado.setLidas(linhas.size());
+		resultado.setSimulacao(opcoes.isSimular());
+		if(linhas.isEmpty()) {
+			return resultado;
+		}
+		return transacao.execute(status -> conciliar(idUsuario, linhas, opcoes, resultado));
+	}
+
+	private ResultadoConciliacaoDto conciliar(Long idUsuario, List<LinhaExtrato> linhas, OpcoesConciliacao opcoes, ResultadoConciliacaoDto resultado) {
+		LocalDate primeira = linhas.stream().map(LinhaExtrato::getData).min(LocalDate::compareTo).get();
+		LocalDate ultima = linhas.stream().map(LinhaExtrato::getData).max(LocalDate::compareTo).get();
+
+		Conciliador conciliador = new Conciliador(opcoes.getJanelaDias(), opcoes.getSimilaridadeMinima());
+		try (Stream<LancamentoProjecao> pendentes = repository.streamPorStatusNasCompetencias(idUsuario, StatusLancamento.PENDENTE,
+																	Conciliador.competencia(primeira.minusDays(opcoes.getJanelaDias())),
+																	Conciliador.competencia(ultima.plusDays(opcoes.getJanelaDias())))) {
+			pendentes.forEach(conciliador::adicionar);
+		}
+
+		for(LinhaExtrato linha : linhas) {
+			conciliador.conciliar(linha).ifPresentOrElse(
+					resultado.getConciliados()::add,
+					() -> resultado.getLinhasSemCorrespondencia().add(linha));
+		}
+		//só os meses do próprio extrato: os pendentes trazidos pela janela não ficam "sem correspondência"
+		int inicioExtrato = Conciliador.competencia(primeira);
+		int fimExtrato = Conciliador.competencia(ultima);
+		for(LancamentoProjecao restante : conciliador.restantes()) {
+			int competencia = Conciliador.competencia(restante.getAno(), restante.getMes());
+			if(competencia >= inicioExtrato && competencia <= fimExtrato) {
+				resultado.getLancamentosSemCorrespondencia().add(restante);
+			}
+		}
+
+		if(!opcoes.isSimular()) {
+			List<Long> conciliados = resultado.getConciliados().stream()
+											.map(correspondencia -> correspondencia.getLancamento().getId())
+											.collect(Collectors.toList());
+			if(!conciliados.isEmpty()) {
+				resultado.setEfetivados(lancamentoService.atualizarStatusEmLote(filtroPendentes(idUsuario), conciliados, StatusLancamento.EFETIVADO));
+			}
+
+			List<Long> semCorrespondencia = resultado.getLancamentosSemCorrespondencia().stream()
+													.map(LancamentoProjecao::getId)
+													.collect(Collectors.toList());
+			if(opcoes.isCancelarSemCorrespondencia() && !semCorrespondencia.isEmpty()) {
+				resultado.setCancelados(lancamentoService.atualizarStatusEmLote(filtroPendentes(idUsuario), semCorrespondencia, StatusLancamento.CANCELADO));
+			}
+		}
+		return resultado;
+	}
+
+	//só PENDENTE como origem: um lançamento alterado durante a conciliação desfaz a operação inteira
+	private Lancamento filtroPendentes(Long idUsuario) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(idUsuario).build());
+		filtro.setStatus(StatusLancamento.PENDENTE);
+		return filtro;
+	}
+
+	private void validar(OpcoesConciliacao opcoes) {
+		if(opcoes.getJanelaDias() < 0 || opcoes.getJanelaDias() > JANELA_MAXIMA) {
+			throw new RegraNegocioException("A janela deve ter de 0 a " + JANELA_MAXIMA + " dias.");
+		}
+		if(opcoes.getSimilaridadeMinima() < 0 || opcoes.getSimilaridadeMinima() > 1) {
+			throw new RegraNegocioException("A similaridade mínima deve estar entre 0 e 1.");
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.PersistenceException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.BunkaBytes.IFriends.api.dto.ResultadoImportacaoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoArquivadoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.service.ImportacaoService;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+import com.BunkaBytes.IFriends.service.importacao.LeitorExtrato;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+/*
+ * Importa um extrato lendo uma transação por vez: a cada TAMANHO_LOTE linhas válidas
+ * consulta quais hashes o usuário já tem (tabela lancamento e arquivo) e grava só as novas
+ * com salvarLote, numa transação por lote. Importar o mesmo arquivo de novo só lê e consulta.
+ *
+ * O hash identifica a linha de origem: pelo FITID do OFX quando existe, senão pela data,
+ * valor, descrição e a ocorrência dessa combinação no arquivo (duas compras iguais no mesmo
+ * dia são duas linhas, e continuam duas na reimportação).
+ */
+@Service
+@Timed(value = "ifriends.servico", histogram = true)
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+	static final int TAMANHO_LOTE = 1000;
+	static final int MAXIMO_ERROS = 100;
+	private static final int TAMANHO_DESCRICAO = 255;
+
+	private LancamentoService lancamentoService;
+	private LancamentoRepository lancamentoRepository;
+	private LancamentoArquivadoRepository arquivadoRepository;
+
+	public ImportacaoServiceImpl(LancamentoService lancamentoService, LancamentoRepository lancamentoRepository,
+			LancamentoArquivadoRepository arquivadoRepository) {
+		this.lancamentoService = lancamentoService;
+		this.lancamentoRepository = lancamentoRepository;
+		this.arquivadoRepository = arquivadoRepository;
+	}
+
+	@Override
+	public ResultadoImportacaoDto importar(Long idUsuario, InputStream extrato, FormatoExtrato formato, Charset charset) throws IOException {
+		ResultadoImportacaoDto resultado = new ResultadoImportacaoDto();
+		Usuario usuario = Usuario.builder().id(idUsuario).build();
+		MessageDigest digest = sha256();
+		//ocorrências de cada conteúdo já visto no arquivo, pelos 8 primeiros bytes do hash
+		Map<Long, Integer> ocorrencias = new HashMap<>();
+		List<Lancamento> lote = new ArrayList<>(TAMANHO_LOTE);
+
+		try (LeitorExtrato leitor = LeitorExtrato.abrir(extrato, formato, charset)) {
+			while(true) {
+				LinhaExtrato linha;
+				try {
+					linha = leitor.proxima();
+				} catch (RegraNegocioException e) {
+					resultado.setLidas(resultado.getLidas() + 1);
+					rejeitar(resultado, e.getMessage());
+					continue;
+				}
+				if(linha == null) {
+					break;
+				}
+				resultado.setLidas(resultado.getLidas() + 1);
+
+				Lancamento lancamento = converter(linha, usuario);
+				try {
+					lancamentoService.validar(lancamento);
+				} catch (RegraNegocioException e) {
+					rejeitar(resultado, "Linha " + linha.getNumero() + ": " + e.getMessage());
+					continue;
+				}
+				lancamento.setHashImportacao(hash(linha, digest, ocorrencias));
+				lote.add(lancamento);
+
+				if(lote.size() == TAMANHO_LOTE) {
+					persistir(idUsuario, lote, resultado);
+				}
+			}
+		}
+		persistir(idUsuario, lote, resultado);
+		return resultado;
+	}
+
+	private void persistir(Long idUsuario, List<Lancamento> lote, ResultadoImportacaoDto resultado) {
+		if(lote.isEmpty()) {
+			return;
+		}
+
+		//o mesmo hash duas vezes no lote (FITID repetido no extrato) grava só a primeira linha
+		Map<String, Lancamento> unicos = new LinkedHashMap<>();
+		lote.forEach(lancamento -> unicos.putIfAbsent(lancamento.getHashImportacao(), lancamento));
+
+		Set<String> existentes = new HashSet<>(lancamentoRepository.listarHashesImportados(idUsuario, unicos.keySet()));
+		existentes.addAll(arquivadoRepository.listarHashesImportados(idUsuario, unicos.keySet()));
+
+		List<Lancamento> novos = unicos.values().stream()
+									.filter(lancamento -> !existentes.contains(lancamento.getHashImportacao()))
+									.collect(Collectors.toList());
+		int importadas = gravar(novos);
+		resultado.setImportadas(resultado.getImportadas() + importadas);
+		resultado.setDuplicadas(resultado.getDuplicadas() + lote.size() - importadas);
+		lote.clear();
+	}
+
+	/*
+	 * Uma importação simultânea do mesmo extrato pode gravar um hash entre a consulta e o
+	 * INSERT: o índice único recusa e o lote inteiro volta. Aí as linhas vão uma a uma, e a
+	 * que bater no índice conta como duplicada.
+	 */
+	private int gravar(List<Lancamento> novos) {
+		if(novos.isEmpty()) {
+			return 0;
+		}
+		try {
+			lancamentoService.salvarLote(novos);
+			return novos.size();
+		} catch (DataIntegrityViolationException | PersistenceException e) {
+			int gravadas = 0;
+			for(Lancamento lancamento : novos) {
+				lancamento.setId(null);
+				lancamento.setVersao(null);
+				try {
+					lancamentoService.salvar(lancamento);
+					gravadas++;
+				} catch (DataIntegrityViolationException | PersistenceException duplicada) {
+					//gravada pela outra importação
+				}
+			}
+			return gravadas;
+		}
+	}
+
+	//saída do extrato (valor negativo) é despesa; o lançamento guarda o valor sem sinal
+	private Lancamento converter(LinhaExtrato linha, Usuario usuario) {
+		String descricao = linha.getDescricao();
+		if(descricao != null && descricao.length() > TAMANHO_DESCRICAO) {
+			descricao = descricao.substring(0, TAMANHO_DESCRICAO);
+		}
+		BigDecimal valor = linha.getValor();
+
+		return Lancamento.builder()
+				.descricao(descricao)
+				.mes(linha.getData().getMonthValue())
+				.ano(linha.getData().getYear())
+				.valor(valor.abs())
+				.tipo(valor.signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+				.usuario(usuario)
+				.build();
+	}
+
+	private String hash(LinhaExtrato linha, MessageDigest digest, Map<Long, Integer> ocorrencias) {
+		if(linha.getIdentificador() != null) {
+			return hex(digest, "ofx|" + linha.getIdentificador() + "|" + linha.getData() + "|" + linha.getValor().toPlainString());
+		}
+
+		String conteudo = linha.getData() + "|" + linha.getValor().stripTrailingZeros().toPlainString() + "|"
+							+ (linha.getDescricao() == null ? "" : linha.getDescricao().trim().replaceAll("\\s+", " ").toLowerCase());
+		byte[] base = digest.digest(conteudo.getBytes(StandardCharsets.UTF_8));
+		int ocorrencia = ocorrencias.merge(ByteBuffer.wrap(base).getLong(), 1, Integer::sum);
+		return hex(digest, conteudo + "|" + ocorrencia);
+	}
+
+	private String hex(MessageDigest digest, String texto) {
+		return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private void rejeitar(ResultadoImportacaoDto resultado, String erro) {
+		resultado.setRejeitadas(resultado.getRejeitadas() + 1);
+		if(resultado.getErros().size() < MAXIMO_ERROS) {
+			resultado.getErros().add(erro);
+		}
+	}
+
+	private MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.BunkaBytes.IFriends.model.entity.IndiceDescricao;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.LancamentoTrigrama;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.repository.IndiceDescricaoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoTrigramaRepository;
+import com.BunkaBytes.IFriends.service.IndiceDescricaoService;
+
+/*
+ * Índice invertido de trigramas da descrição, por usuário, na tabela lancamento_trigrama.
+ * A descrição é normalizada (minúsculas, sem acentos) antes de ser quebrada em trigramas,
+ * então "Água" e "AGUA" encontram os mesmos lançamentos.
+ */
+@Service
+public class IndiceDescricaoServiceImpl implements IndiceDescricaoService {
+
+	private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+	private static final int LOTE = 500;
+
+	private LancamentoTrigramaRepository repository;
+	private IndiceDescricaoRepository indiceRepository;
+	private LancamentoRepository lancamentoRepository;
+	private EntityManager entityManager;
+
+	public IndiceDescricaoServiceImpl(LancamentoTrigramaRepository repository, IndiceDescricaoRepository indiceRepository,
+			LancamentoRepository lancamentoRepository, EntityManager entityManager) {
+		this.repository = repository;
+		this.indiceRepository = indiceRepository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	@Transactional
+	public void registrar(List<Lancamento> removidos, List<Lancamento> incluidos) {
+
+		Map<Long, Lancamento> anteriores = new HashMap<>();
+		removidos.stream().filter(lancamento -> lancamento.getId() != null).forEach(lancamento -> anteriores.put(lancamento.getId(), lancamento));
+
+		Set<Long> excluidos = new LinkedHashSet<>(anteriores.keySet());
+		incluidos.forEach(lancamento -> excluidos.remove(lancamento.getId()));
+		if(!excluidos.isEmpty()) {
+			repository.removerPorLancamentos(excluidos);
+		}
+
+		//roda na transação de quem grava: só os trigramas criados aqui saem do contexto, nunca as entidades do chamador
+		List<LancamentoTrigrama> lote = new ArrayList<>(LOTE);
+		Map<Long, Boolean> indexados = new HashMap<>();
+		for(Lancamento lancamento : incluidos) {
+			if(lancamento.getId() == null || lancamento.getUsuario() == null) {
+				continue;
+			}
+			
+			/*
+			 * Usuário ainda sem índice: espera uma reconstrução em andamento terminar. Se continuar
+			 * sem índice nada é gravado; a reconstrução, bloqueada até este commit, lê a escrita da
+			 * tabela lancamento.
+			 */
+			Long idUsuario = lancamento.getUsuario().getId();
+			boolean indexado = indexados.computeIfAbsent(idUsuario, id -> {
+				if(indexado(id)) {
+					return true;
+				}
+				bloquearUsuario(id);
+				return indexado(id);
+			});
+			if(!indexado) {
+				continue;
+			}
+
+			Set<String> novos = trigramas(normalizar(lancamento.getDescricao()));
+			Lancamento anterior = anteriores.get(lancamento.getId());
+			if(anterior != null && anterior.getUsuario() != null
+					&& Objects.equals(anterior.getUsuario().getId(), lancamento.getUsuario().getId())) {
+				//mesma descrição não gera escrita; senão só a diferença é aplicada
+				Set<String> antigos = trigramas(normalizar(anterior.getDescricao()));
+				Set<String> sobrando = new LinkedHashSet<>(antigos);
+				sobrando.removeAll(novos);
+				if(!sobrando.isEmpty()) {
+					repository.removerTrigramas(lancamento.getId(), sobrando);
+				}
+				novos.removeAll(antigos);
+			} else if(anterior != null) {
+				repository.removerPorLancamentos(Collections.singleton(lancamento.getId()));
+			}
+
+			for(String trigrama : novos) {
+				LancamentoTrigrama novo = new LancamentoTrigrama(lancamento.getId(), trigrama, lancamento.getUsuario().getId());
+				entityManager.persist(novo);
+				lote.add(novo);
+				if(lote.size() == LOTE) {
+					descarregar(lote);
+				}
+			}
+		}
+		descarregar(lote);
+	}
+
+	private void descarregar(List<LancamentoTrigrama> lote) {
+		entityManager.flush();
+		lote.forEach(entityManager::detach);
+		lote.clear();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<List<Long>> buscarCandidatos(Long idUsuario, String texto) {
+
+		Set<String> trigramas = trigramas(normalizar(texto));
+		if(trigramas.isEmpty() || !indexado(idUsuario)) {
+			return Optional.empty();
+		}
+		return Optional.of(repository.buscarCandidatos(idUsuario, trigramas, trigramas.size()));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public boolean indexado(Long idUsuario) {
+		return indiceRepository.existsById(idUsuario);
+	}
+
+	/*
+	 * Refaz o índice do usuário a partir da tabela lancamento. Roda em transação própria para
+	 * poder ser disparado a partir de uma consulta somente leitura. A linha do usuário fica
+	 * bloqueada até o commit, então buscas simultâneas não reconstroem o mesmo índice duas vezes.
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void reconstruir(Long idUsuario) {
+
+		bloquearUsuario(idUsuario);
+		if(indexado(idUsuario)) {
+			return;
+		}
+		repository.removerPorUsuario(idUsuario);
+
+		int inseridos = 0;
+		try (Stream<Object[]> descricoes = lancamentoRepository.streamDescricoesPorUsuario(idUsuario)) {
+			for(Object[] linha : (Iterable<Object[]>) descricoes::iterator) {
+				for(String trigrama : trigramas(normalizar((String) linha[1]))) {
+					entityManager.persist(new LancamentoTrigrama((Long) linha[0], trigrama, idUsuario));
+					if(++inseridos % LOTE == 0) {
+						entityManager.flush();
+						entityManager.clear();
+					}
+				}
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		indiceRepository.save(IndiceDescricao.builder().idUsuario(idUsuario).dataIndexacao(LocalDate.now()).build());
+	}
+
+	@Override
+	@Transactional
+	public void removerExcluidos(Long idUsuario) {
+		repository.removerOrfaos(idUsuario);
+	}
+
+	private void bloquearUsuario(Long idUsuario) {
+		entityManager.find(Usuario.class, idUsuario, LockModeType.PESSIMISTIC_WRITE);
+	}
+
+	public static String normalizar(String texto) {
+		if(texto == null) {
+			return "";
+		}
+		return ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	private static Set<String> trigramas(String normalizado) {
+		Set<String> trigramas = new LinkedHashSet<>();
+		for(int i = 0; i + 3 <= normalizado.length(); i++) {
+			trigramas.add(normalizado.substring(i, i + 3));
+		}
+		return trigramas;
+	}
+}
@@ -1,31 +1,93 @@
 package com.BunkaBytes.IFriends.service.impl;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.ExampleMatcher.StringMatcher;
+import javax.persistence.EntityManager;
+
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.BunkaBytes.IFriends.api.dto.EventoLancamentoDto;
+import com.BunkaBytes.IFriends.exception.ConflitoVersaoException;
 import com.BunkaBytes.IFriends.exception.RegraNegocioException;
 import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
 import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoEventoLancamento;
 import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
 import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryImpl;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
+import com.BunkaBytes.IFriends.service.IndiceDescricaoService;
 import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.NotificacaoService;
+import com.BunkaBytes.IFriends.service.ResumoLancamentoService;
+import com.BunkaBytes.IFriends.service.SaldoUsuarioService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
 
 @Service
+@Timed(value = "ifriends.servico", histogram = true)
 public class LancamentoServiceImpl implements LancamentoService{
 	
 
+	//ids por consulta ao listar candidatos do índice de descrição e nas operações em lote
+	private static final int LOTE_IDS = 1000;
+	
+	//máximo de lançamentos devolvidos por filtrar, também usado quando o limite não é informado
+	private static final int LIMITE_FILTRO = 500;
+	
+	//transições de status aceitas nas operações em lote
+	private static final Map<StatusLancamento, Set<StatusLancamento>> TRANSICOES = new EnumMap<>(StatusLancamento.class);
+	static {
+		TRANSICOES.put(StatusLancamento.PENDENTE, EnumSet.of(StatusLancamento.EFETIVADO, StatusLancamento.CANCELADO));
+		TRANSICOES.put(StatusLancamento.EFETIVADO, EnumSet.of(StatusLancamento.PENDENTE));
+		TRANSICOES.put(StatusLancamento.CANCELADO, EnumSet.of(StatusLancamento.PENDENTE));
+	}
+	
+	//deve acompanhar hibernate.jdbc.batch_size
+	private static final int LOTE_INSERCAO = 50;
+
 	private LancamentoRepository repository;
+	private EntityManager entityManager;
+	private SaldoUsuarioService saldoService;
+	private ResumoLancamentoService resumoService;
+	private IndiceDescricaoService indiceService;
+	private AlteracaoUsuarioService alteracaoService;
+	private SincronizacaoService sincronizacaoService;
+	private NotificacaoService notificacaoService;
 
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	public LancamentoServiceImpl(LancamentoRepository repository, EntityManager entityManager,
+			SaldoUsuarioService saldoService, ResumoLancamentoService resumoService, IndiceDescricaoService indiceService,
+			AlteracaoUsuarioService alteracaoService, SincronizacaoService sincronizacaoService, NotificacaoService notificacaoService) {
 		this.repository = repository;
+		this.entityManager = entityManager;
+		this.saldoService = saldoService;
+		this.resumoService = resumoService;
+		this.indiceService = indiceService;
+		this.alteracaoService = alteracaoService;
+		this.sincronizacaoService = sincronizacaoService;
+		this.notificacaoService = notificacaoService;
 	}
 	
 	@Override
@@ -33,41 +95,389 @@ public class LancamentoServiceImpl implements LancamentoService{
 	public Lancamento salvar(Lancamento lancamento) {
 		validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);
-		return repository.save(lancamento);
+		marcarAlteracao(Collections.singletonList(lancamento));
+		Lancamento salvo = repository.save(lancamento);
+		registrarAlteracao(Collections.emptyList(), Collections.singletonList(salvo));
+		if(salvo.getUsuario() != null) {
+			notificar(salvo.getUsuario().getId(), TipoEventoLancamento.CRIADO, Collections.singletonList(salvo.getId()),
+					Collections.singletonList(projetar(salvo, salvo.getUsuario().getId())));
+		}
+		return salvo;
+	}
+
+	@Override
+	@Transactional
+	public List<Lancamento> salvarLote(List<Lancamento> lancamentos) {
+		lancamentos.forEach(this::validar);
+		marcarAlteracao(lancamentos);
+		
+		//a cada lote só os lançamentos gravados saem do contexto: o chamador pode ter entidades gerenciadas na mesma transação
+		int inicio = 0;
+		for(int i = 0; i < lancamentos.size(); i++) {
+			Lancamento lancamento = lancamentos.get(i);
+			lancamento.setStatus(StatusLancamento.PENDENTE);
+			entityManager.persist(lancamento);
+			
+			if((i + 1) % LOTE_INSERCAO == 0) {
+				entityManager.flush();
+				lancamentos.subList(inicio, i + 1).forEach(entityManager::detach);
+				inicio = i + 1;
+			}
+		}
+		entityManager.flush();
+		lancamentos.subList(inicio, lancamentos.size()).forEach(entityManager::detach);
+		registrarAlteracao(Collections.emptyList(), lancamentos);
+		notificar(lancamentos, TipoEventoLancamento.CRIADO);
+		return lancamentos;
 	}
 
 	@Override
 	@Transactional
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
-		return repository.save(lancamento);
+		
+		//lê os valores gravados antes do merge, mesmo que a entidade gerenciada já tenha sido alterada
+		List<Lancamento> anterior = obterValoresPersistidos(lancamento.getId());
+		marcarAlteracao(Collections.singletonList(lancamento));
+		Lancamento atualizado = repository.save(lancamento);
+		registrarAlteracao(anterior, Collections.singletonList(atualizado));
+		notificar(Collections.singletonList(atualizado), TipoEventoLancamento.ALTERADO);
+		return atualizado;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		if(lancamento.getUsuario() != null && lancamento.getUsuario().getId() != null) {
+			sincronizacaoService.registrarExclusao(lancamento);
+		}
 		repository.delete(lancamento);
+		registrarAlteracao(Collections.singletonList(lancamento), Collections.emptyList());
+		notificar(Collections.singletonList(lancamento), TipoEventoLancamento.EXCLUIDO);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
 	public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
 		
-		Example example = Example.of(lancamentoFiltro, 
-									ExampleMatcher.matching()
-									.withIgnoreCase()
-									.withStringMatcher(StringMatcher.CONTAINING));
-		return repository.findAll(example);
+		Optional<List<Long>> candidatos = candidatosPorDescricao(lancamentoFiltro);
+		if(candidatos.isPresent()) {
+			String termo = IndiceDescricaoServiceImpl.normalizar(lancamentoFiltro.getDescricao());
+			List<Lancamento> lancamentos = new ArrayList<>();
+			for(List<Long> lote : particionar(candidatos.get())) {
+				repository.findAllById(lote)
+					.stream()
+					.filter(lancamento -> IndiceDescricaoServiceImpl.normalizar(lancamento.getDescricao()).contains(termo))
+					.filter(lancamento -> atendeFiltro(lancamentoFiltro, lancamento.getMes(), lancamento.getAno(), lancamento.getTipo(), lancamento.getStatus()))
+					.forEach(lancamentos::add);
+			}
+			return lancamentos;
+		}
+		
+		return repository.filtrar(FiltroLancamento.de(lancamentoFiltro), Lancamento.class);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoProjecao> filtrar(FiltroLancamento filtro) {
+		validarFiltro(filtro);
+		return repository.filtrar(filtro, LancamentoProjecao.class);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoProjecao> listar(Lancamento lancamentoFiltro) {
+		Objects.requireNonNull(lancamentoFiltro.getUsuario());
+		
+		Optional<List<Long>> candidatos = candidatosPorDescricao(lancamentoFiltro);
+		if(candidatos.isPresent()) {
+			return listarCandidatos(lancamentoFiltro, candidatos.get());
+		}
+		
+		return repository.listar(
+				lancamentoFiltro.getUsuario().getId(),
+				lancamentoFiltro.getDescricao() == null ? "" : lancamentoFiltro.getDescricao(),
+				lancamentoFiltro.getMes(),
+				lancamentoFiltro.getAno(),
+				lancamentoFiltro.getTipo());
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<LancamentoProjecao> buscarPagina(Lancamento lancamentoFiltro, Lancamento ultimo, int limite) {
+		Objects.requireNonNull(lancamentoFiltro.getUsuario());
+		
+		String descricao = lancamentoFiltro.getDescricao() == null ? "" : lancamentoFiltro.getDescricao();
+		
+		//primeira página: o cursor começa antes de qualquer lançamento válido
+		Integer ultimoAno = 0;
+		Integer ultimoMes = 0;
+		Long ultimoId = 0l;
+		if(ultimo != null) {
+			ultimoAno = ultimo.getAno();
+			ultimoMes = ultimo.getMes();
+			ultimoId = ultimo.getId();
+		}
+		
+		//mesma normalização da listagem: a página vem dos candidatos já em ordem de keyset
+		Optional<List<Long>> candidatos = candidatosPorDescricao(lancamentoFiltro);
+		if(candidatos.isPresent()) {
+			int ano = ultimoAno;
+			int mes = ultimoMes;
+			long id = ultimoId;
+			return listarCandidatos(lancamentoFiltro, candidatos.get())
+					.stream()
+					.filter(lancamento -> lancamento.getAno() > ano
+							|| (lancamento.getAno() == ano && lancamento.getMes() > mes)
+							|| (lancamento.getAno() == ano && lancamento.getMes() == mes && lancamento.getId() > id))
+					.limit(limite)
+					.collect(Collectors.toList());
+		}
+		
+		return repository.buscarPagina(
+				lancamentoFiltro.getUsuario().getId(),
+				descricao,
+				lancamentoFiltro.getMes(),
+				lancamentoFiltro.getAno(),
+				lancamentoFiltro.getTipo(),
+				ultimoAno,
+				ultimoMes,
+				ultimoId,
+				PageRequest.of(0, limite));
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Long idUsuario, Consumer<LancamentoProjecao> consumidor) {
+		
+		//projeções não entram no contexto de persistência, então a memória não cresce com o ledger
+		try (Stream<LancamentoProjecao> lancamentos = repository.streamPorUsuario(idUsuario)) {
+			lancamentos.forEach(consumidor);
+		}
+	}
+
+	//a chamada a atualizar não passa pelo proxy: a transação precisa ser aberta aqui
+	@Override
+	@Transactional
 	public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
 		
 		lancamento.setStatus(status);
 		atualizar(lancamento);
 	}
 
+	@Override
+	@Transactional
+	public boolean atualizarStatus(Long id, Long idUsuario, StatusLancamento status, Long versao) {
+		Objects.requireNonNull(status);
+		
+		sincronizacaoService.avancar(idUsuario);
+		if(repository.atualizarStatus(id, idUsuario, status, versao) == 0) {
+			//só no caminho de falha: distingue lançamento inexistente de versão desatualizada
+			if(versao != null && pertenceAoUsuario(obterValoresPersistidos(id), idUsuario)) {
+				throw new ConflitoVersaoException("O lançamento foi alterado por outra requisição.");
+			}
+			return false;
+		}
+		//status não entra no saldo nem no índice de descrição; só o cubo de resumo é refeito na próxima leitura
+		resumoService.invalidar(idUsuario);
+		alteracaoService.registrar(idUsuario);
+		notificar(idUsuario, TipoEventoLancamento.ALTERADO, Collections.singletonList(id), null);
+		return true;
+	}
+
+	/*
+	 * A versão informada em lancamento.versao (If-Match) precisa ser a gravada; sem ela vale a
+	 * lida aqui. O UPDATE confere a versão de novo, então uma escrita concorrente entre a
+	 * leitura e o UPDATE também resulta em conflito em vez de ser sobrescrita.
+	 */
+	@Override
+	@Transactional
+	public Optional<LancamentoProjecao> atualizarCampos(Lancamento lancamento) {
+		Objects.requireNonNull(lancamento.getId());
+		validar(lancamento);
+		
+		Long idUsuario = lancamento.getUsuario().getId();
+		List<Lancamento> anterior = obterValoresPersistidos(lancamento.getId());
+		if(!pertenceAoUsuario(anterior, idUsuario)) {
+			return Optional.empty();
+		}
+		Long versao = anterior.get(0).getVersao();
+		if(lancamento.getVersao() != null && !lancamento.getVersao().equals(versao)) {
+			throw new ConflitoVersaoException("O lançamento foi alterado por outra requisição.");
+		}
+		if(lancamento.getStatus() == null) {
+			lancamento.setStatus(anterior.get(0).getStatus());
+		}
+		
+		sincronizacaoService.avancar(idUsuario);
+		int atualizados = repository.atualizarCampos(
+								lancamento.getId(),
+								idUsuario,
+								lancamento.getDescricao(),
+								lancamento.getMes(),
+								lancamento.getAno(),
+								lancamento.getValor(),
+								lancamento.getTipo(),
+								lancamento.getStatus(),
+								versao);
+		if(atualizados == 0) {
+			throw new ConflitoVersaoException("O lançamento foi alterado por outra requisição.");
+		}
+		
+		lancamento.setDataCadastro(anterior.get(0).getDataCadastro());
+		lancamento.setVersao(versao + 1);
+		registrarAlteracao(anterior, Collections.singletonList(lancamento));
+		LancamentoProjecao projecao = projetar(lancamento, idUsuario);
+		notificar(idUsuario, TipoEventoLancamento.ALTERADO, Collections.singletonList(lancamento.getId()), Collections.singletonList(projecao));
+		return Optional.of(projecao);
+	}
+
+	/*
+	 * Troca o status de todos os lançamentos do usuário que atendem ao filtro (ou dos ids
+	 * informados) com UPDATEs em conjunto, na mesma transação. Pelo filtro, só mudam os que
+	 * admitem a transição; pelos ids, qualquer lançamento que não admita rejeita o lote todo.
+	 */
+	@Override
+	@Transactional
+	public int atualizarStatusEmLote(Lancamento filtro, List<Long> ids, StatusLancamento novoStatus) {
+		Long idUsuario = usuarioDoLote(filtro);
+		if(novoStatus == null) {
+			throw new RegraNegocioException("Informe o novo status.");
+		}
+		
+		Set<StatusLancamento> origens = EnumSet.noneOf(StatusLancamento.class);
+		TRANSICOES.forEach((origem, destinos) -> {
+			if(destinos.contains(novoStatus)) {
+				origens.add(origem);
+			}
+		});
+		if(filtro.getStatus() != null) {
+			if(!origens.contains(filtro.getStatus())) {
+				throw new RegraNegocioException("Transição de status inválida: " + filtro.getStatus() + " para " + novoStatus + ".");
+			}
+			origens.retainAll(EnumSet.of(filtro.getStatus()));
+		}
+		
+		sincronizacaoService.avancar(idUsuario);
+		int afetados = 0;
+		if(ids != null && !ids.isEmpty()) {
+			Set<StatusLancamento> permitidos = EnumSet.copyOf(origens);
+			permitidos.add(novoStatus);
+			List<List<Long>> lotes = particionar(ids);
+			for(List<Long> lote : lotes) {
+				if(repository.contarForaDosStatus(idUsuario, lote, permitidos) > 0) {
+					throw new RegraNegocioException("Há lançamentos que não podem passar para " + novoStatus + ".");
+				}
+			}
+			for(List<Long> lote : lotes) {
+				afetados += repository.atualizarStatusPorIds(idUsuario, lote, origens, novoStatus);
+			}
+		} else {
+			afetados = repository.atualizarStatusPorFiltro(idUsuario, filtro.getMes(), filtro.getAno(), filtro.getTipo(), origens, novoStatus);
+		}
+		
+		//status não entra no saldo nem no índice de descrição
+		if(afetados > 0) {
+			resumoService.invalidar(idUsuario);
+			alteracaoService.registrar(idUsuario);
+			notificarLote(idUsuario, TipoEventoLancamento.ALTERADO, idsAfetados(ids, afetados));
+		}
+		return afetados;
+	}
+
+	@Override
+	@Transactional
+	public int deletarEmLote(Lancamento filtro, List<Long> ids) {
+		Long idUsuario = usuarioDoLote(filtro);
+		
+		//as marcas de exclusão são gravadas com o mesmo filtro, logo antes de cada DELETE
+		int afetados = 0;
+		if(ids != null && !ids.isEmpty()) {
+			sincronizacaoService.avancar(idUsuario);
+			for(List<Long> lote : particionar(ids)) {
+				sincronizacaoService.registrarExclusoesPorIds(idUsuario, lote);
+				afetados += repository.deletarPorIds(idUsuario, lote);
+			}
+		} else {
+			if(filtro.getMes() == null && filtro.getAno() == null && filtro.getTipo() == null && filtro.getStatus() == null) {
+				throw new RegraNegocioException("Informe os ids ou ao menos um filtro além do usuário.");
+			}
+			sincronizacaoService.avancar(idUsuario);
+			sincronizacaoService.registrarExclusoesPorFiltro(filtro);
+			afetados = repository.deletarPorFiltro(idUsuario, filtro.getMes(), filtro.getAno(), filtro.getTipo(), filtro.getStatus());
+		}
+		
+		//os valores excluídos não são lidos, então o saldo é recalculado com as duas somas do usuário
+		if(afetados > 0) {
+			indiceService.removerExcluidos(idUsuario);
+			saldoService.recalcular(idUsuario);
+			resumoService.invalidar(idUsuario);
+			alteracaoService.registrar(idUsuario);
+			notificarLote(idUsuario, TipoEventoLancamento.EXCLUIDO, idsAfetados(ids, afetados));
+		}
+		return afetados;
+	}
+
+	/*
+	 * Aplica o modelo da recorrência (descrição, valor e tipo) às ocorrências PENDENTE a
+	 * partir da competência, num único UPDATE. Saldo e resumo são recalculados como no
+	 * lote; o índice de descrição recebe só a diferença, pelas descrições lidas antes.
+	 */
+	@Override
+	@Transactional
+	public int atualizarSerie(Recorrencia recorrencia, int competenciaInicial) {
+		Long idUsuario = recorrencia.getUsuario().getId();
+		
+		sincronizacaoService.avancar(idUsuario);
+		List<Object[]> anteriores = repository.listarDescricoesDaSerie(idUsuario, recorrencia.getId(), competenciaInicial);
+		int afetados = recorrencia.isParcelada()
+				? repository.atualizarSerieParcelada(idUsuario, recorrencia.getId(), competenciaInicial, recorrencia.getDescricao(),
+						"/" + recorrencia.getQuantidade(), recorrencia.getValor(), recorrencia.getTipo())
+				: repository.atualizarSerie(idUsuario, recorrencia.getId(), competenciaInicial, recorrencia.getDescricao(),
+						recorrencia.getValor(), recorrencia.getTipo());
+		
+		if(afetados > 0) {
+			Usuario usuario = Usuario.builder().id(idUsuario).build();
+			List<Lancamento> removidos = new ArrayList<>();
+			List<Lancamento> incluidos = new ArrayList<>();
+			for(Object[] anterior : anteriores) {
+				Long id = (Long) anterior[0];
+				String descricao = (String) anterior[1];
+				String nova = recorrencia.descricaoDaParcela((Integer) anterior[2]);
+				if(!nova.equals(descricao)) {
+					removidos.add(Lancamento.builder().id(id).descricao(descricao).usuario(usuario).build());
+					incluidos.add(Lancamento.builder().id(id).descricao(nova).usuario(usuario).build());
+				}
+			}
+			if(!incluidos.isEmpty()) {
+				indiceService.registrar(removidos, incluidos);
+			}
+			saldoService.recalcular(idUsuario);
+			resumoService.invalidar(idUsuario);
+			alteracaoService.registrar(idUsuario);
+			notificarLote(idUsuario, TipoEventoLancamento.ALTERADO, anteriores.stream().map(anterior -> (Long) anterior[0]).collect(Collectors.toList()));
+		}
+		return afetados;
+	}
+	
+	@Override
+	@Transactional
+	public int cancelarSerie(Recorrencia recorrencia, int competenciaInicial) {
+		Long idUsuario = recorrencia.getUsuario().getId();
+		
+		sincronizacaoService.avancar(idUsuario);
+		int afetados = repository.cancelarSerie(idUsuario, recorrencia.getId(), competenciaInicial);
+		
+		//status não entra no saldo nem no índice de descrição
+		if(afetados > 0) {
+			resumoService.invalidar(idUsuario);
+			alteracaoService.registrar(idUsuario);
+			notificarLote(idUsuario, TipoEventoLancamento.ALTERADO, null);
+		}
+		return afetados;
+	}
+
 	@Override
 	public void validar(Lancamento lancamento) {
 		
@@ -104,10 +514,23 @@ public class LancamentoServiceImpl implements LancamentoService{
 
 	@Override
 	@Transactional(readOnly = true)
-	public BigDecimal obterSaldoPorUsuario(Long id) {
+	public Optional<LancamentoProjecao> obterProjecaoPorId(Long id) {
 		
-		BigDecimal receber = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.RECEITA);
-		BigDecimal pagar = repository.obterSaldoPorTipoLancamentoEUsuario(id, TipoLancamento.DESPESA);
+		return repository.listarPorIds(Collections.singletonList(id)).stream().findFirst();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public BigDecimal obterSaldoPorUsuario(Long idUsuario) {
+		
+		Optional<BigDecimal> saldo = saldoService.obterSaldo(idUsuario);
+		if(saldo.isPresent()) {
+			return saldo.get();
+		}
+		
+		//usuário ainda sem linha em saldo_usuario: calcula direto da tabela lancamento
+		BigDecimal receber = repository.obterSaldoPorTipoLancamentoEUsuario(idUsuario, TipoLancamento.RECEITA);
+		BigDecimal pagar = repository.obterSaldoPorTipoLancamentoEUsuario(idUsuario, TipoLancamento.DESPESA);
 		
 		if(receber == null) {
 			receber = BigDecimal.ZERO;
@@ -118,4 +541,187 @@ public class LancamentoServiceImpl implements LancamentoService{
 		return receber.subtract(pagar);
 	}
 	
+	private void registrarAlteracao(List<Lancamento> removidos, List<Lancamento> incluidos) {
+		saldoService.registrar(removidos, incluidos);
+		resumoService.registrar(removidos, incluidos);
+		indiceService.registrar(removidos, incluidos);
+		
+		Stream.concat(removidos.stream(), incluidos.stream())
+			.filter(lancamento -> lancamento.getUsuario() != null && lancamento.getUsuario().getId() != null)
+			.map(lancamento -> lancamento.getUsuario().getId())
+			.distinct()
+			.forEach(alteracaoService::registrar);
+	}
+	
+	/*
+	 * Eventos para os inscritos do usuário, montados antes do commit (com o saldo já
+	 * atualizado) e enviados depois dele. Sem inscritos não há custo.
+	 */
+	private void notificar(Long idUsuario, TipoEventoLancamento tipo, List<Long> ids, List<LancamentoProjecao> lancamentos) {
+		if(idUsuario == null) {
+			return;
+		}
+		notificacaoService.publicar(idUsuario, () -> new EventoLancamentoDto(tipo, ids, lancamentos, obterSaldoPorUsuario(idUsuario)));
+	}
+	
+	private void notificar(List<Lancamento> lancamentos, TipoEventoLancamento tipo) {
+		lancamentos.stream()
+			.filter(lancamento -> lancamento.getUsuario() != null && lancamento.getUsuario().getId() != null)
+			.collect(Collectors.groupingBy(lancamento -> lancamento.getUsuario().getId(),
+					Collectors.mapping(Lancamento::getId, Collectors.toList())))
+			.forEach((idUsuario, ids) -> notificar(idUsuario, tipo, ids, null));
+	}
+	
+	//pelo filtro os ids afetados não são lidos: o cliente sincroniza para saber o que mudou
+	private void notificarLote(Long idUsuario, TipoEventoLancamento tipo, List<Long> ids) {
+		if(ids != null && !ids.isEmpty()) {
+			notificar(idUsuario, tipo, new ArrayList<>(ids), null);
+		} else {
+			notificar(idUsuario, TipoEventoLancamento.LOTE, null, null);
+		}
+	}
+	
+	/*
+	 * Os ids pedidos só vão no evento quando o UPDATE/DELETE alcançou todos; se algum ficou de
+	 * fora (outro usuário, status que não admite a transição), vai um LOTE sem ids.
+	 */
+	private List<Long> idsAfetados(List<Long> ids, int afetados) {
+		if(ids == null) {
+			return null;
+		}
+		List<Long> distintos = ids.stream().distinct().collect(Collectors.toList());
+		return distintos.size() == afetados ? distintos : null;
+	}
+	
+	private LancamentoProjecao projetar(Lancamento lancamento, Long idUsuario) {
+		return new LancamentoProjecao(
+				lancamento.getId(),
+				lancamento.getDescricao(),
+				lancamento.getMes(),
+				lancamento.getAno(),
+				lancamento.getValor(),
+				lancamento.getTipo(),
+				lancamento.getStatus(),
+				idUsuario,
+				lancamento.getDataCadastro(),
+				lancamento.getVersao());
+	}
+	
+	//numera a escrita (um número por usuário na transação) para a sincronização incremental
+	private void marcarAlteracao(List<Lancamento> lancamentos) {
+		Map<Long, Long> alteracoes = new HashMap<>();
+		for(Lancamento lancamento : lancamentos) {
+			if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
+				continue;
+			}
+			lancamento.setAlteracao(alteracoes.computeIfAbsent(lancamento.getUsuario().getId(), sincronizacaoService::proximaAlteracao));
+		}
+	}
+	
+	//candidatos do índice conferidos pela descrição normalizada, na ordem (ano, mes, id) da listagem
+	private List<LancamentoProjecao> listarCandidatos(Lancamento lancamentoFiltro, List<Long> candidatos) {
+		String termo = IndiceDescricaoServiceImpl.normalizar(lancamentoFiltro.getDescricao());
+		List<LancamentoProjecao> lancamentos = new ArrayList<>();
+		for(List<Long> lote : particionar(candidatos)) {
+			repository.listarPorIds(lote)
+				.stream()
+				.filter(lancamento -> IndiceDescricaoServiceImpl.normalizar(lancamento.getDescricao()).contains(termo))
+				.filter(lancamento -> atendeFiltro(lancamentoFiltro, lancamento.getMes(), lancamento.getAno(), lancamento.getTipo(), lancamento.getStatus()))
+				.forEach(lancamentos::add);
+		}
+		lancamentos.sort(Comparator.comparing(LancamentoProjecao::getAno)
+						.thenComparing(LancamentoProjecao::getMes)
+						.thenComparing(LancamentoProjecao::getId));
+		return lancamentos;
+	}
+	
+	/*
+	 * Filtro por descrição usa o índice de trigramas em vez de LIKE '%x%' sobre a tabela toda.
+	 * Vazio quando não há descrição ou ela é curta demais para o índice.
+	 */
+	private Optional<List<Long>> candidatosPorDescricao(Lancamento lancamentoFiltro) {
+		if(lancamentoFiltro.getDescricao() == null || lancamentoFiltro.getUsuario() == null || lancamentoFiltro.getUsuario().getId() == null) {
+			return Optional.empty();
+		}
+		
+		Long idUsuario = lancamentoFiltro.getUsuario().getId();
+		if(!indiceService.indexado(idUsuario)) {
+			indiceService.reconstruir(idUsuario);
+		}
+		return indiceService.buscarCandidatos(idUsuario, lancamentoFiltro.getDescricao());
+	}
+	
+	private void validarFiltro(FiltroLancamento filtro) {
+		if(filtro.getUsuario() == null) {
+			throw new RegraNegocioException("Informe um usuário.");
+		}
+		if(filtro.getLimite() == null) {
+			filtro.setLimite(LIMITE_FILTRO);
+		}
+		if(filtro.getLimite() < 1 || filtro.getLimite() > LIMITE_FILTRO) {
+			throw new RegraNegocioException("Informe um limite entre 1 e " + LIMITE_FILTRO + ".");
+		}
+		if(filtro.getOrdem() != null) {
+			for(String campo : filtro.getOrdem()) {
+				String nome = campo != null && campo.startsWith("-") ? campo.substring(1) : campo;
+				if(!LancamentoRepositoryImpl.CAMPOS_ORDENACAO.contains(nome)) {
+					throw new RegraNegocioException("Campo de ordenação inválido: " + campo + ".");
+				}
+			}
+		}
+		if(filtro.getValorMinimo() != null && filtro.getValorMaximo() != null 
+				&& filtro.getValorMinimo().compareTo(filtro.getValorMaximo()) > 0) {
+			throw new RegraNegocioException("O valor mínimo não pode ser maior que o valor máximo.");
+		}
+		if(filtro.getPeriodoInicial() != null && filtro.getPeriodoFinal() != null 
+				&& filtro.getPeriodoInicial().isAfter(filtro.getPeriodoFinal())) {
+			throw new RegraNegocioException("O período inicial não pode ser posterior ao período final.");
+		}
+	}
+	
+	private Long usuarioDoLote(Lancamento filtro) {
+		if(filtro == null || filtro.getUsuario() == null || filtro.getUsuario().getId() == null) {
+			throw new RegraNegocioException("Informe um usuário.");
+		}
+		return filtro.getUsuario().getId();
+	}
+	
+	private List<List<Long>> particionar(List<Long> ids) {
+		List<List<Long>> lotes = new ArrayList<>();
+		for(int inicio = 0; inicio < ids.size(); inicio += LOTE_IDS) {
+			lotes.add(ids.subList(inicio, Math.min(inicio + LOTE_IDS, ids.size())));
+		}
+		return lotes;
+	}
+	
+	private boolean atendeFiltro(Lancamento filtro, Integer mes, Integer ano, TipoLancamento tipo, StatusLancamento status) {
+		return (filtro.getMes() == null || filtro.getMes().equals(mes))
+				&& (filtro.getAno() == null || filtro.getAno().equals(ano))
+				&& (filtro.getTipo() == null || filtro.getTipo() == tipo)
+				&& (filtro.getStatus() == null || filtro.getStatus() == status);
+	}
+	
+	private boolean pertenceAoUsuario(List<Lancamento> anterior, Long idUsuario) {
+		return !anterior.isEmpty() && idUsuario.equals(anterior.get(0).getUsuario().getId());
+	}
+	
+	private List<Lancamento> obterValoresPersistidos(Long id) {
+		List<Lancamento> valores = new ArrayList<>(1);
+		for(Object[] linha : repository.obterValoresPersistidos(id)) {
+			valores.add(Lancamento.builder()
+							.id((Long) linha[0])
+							.usuario(Usuario.builder().id((Long) linha[1]).build())
+							.mes((Integer) linha[2])
+							.ano((Integer) linha[3])
+							.valor((BigDecimal) linha[4])
+							.tipo((TipoLancamento) linha[5])
+							.status((StatusLancamento) linha[6])
+							.descricao((String) linha[7])
+							.dataCadastro((LocalDate) linha[8])
+							.versao((Long) linha[9])
+							.build());
+		}
+		return valores;
+	}
+	
 }
@@ -0,0 +1,202 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.BunkaBytes.IFriends.api.dto.EventoLancamentoDto;
+import com.BunkaBytes.IFriends.service.NotificacaoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Distribui os eventos de lançamento para as conexões SSE inscritas em cada usuário.
+ *
+ * Cada inscrito tem uma fila limitada; publicar só enfileira, e o envio é feito por um pool
+ * pequeno de threads, no máximo uma tarefa por inscrito (o que mantém a ordem). Se a fila
+ * de um inscrito enche, ele está lento demais: a conexão é encerrada e o cliente reconecta
+ * e recupera o que perdeu pela sincronização incremental, sem segurar os demais.
+ *
+ * Sem inscritos para o usuário, publicar não faz nada (nem monta o evento).
+ */
+@Slf4j
+@Service
+public class NotificacaoServiceImpl implements NotificacaoService {
+
+	private final Set<Inscricao> vazio = Collections.emptySet();
+	private final ConcurrentHashMap<Long, Set<Inscricao>> inscricoes = new ConcurrentHashMap<>();
+	private final int capacidade;
+	private final long timeout;
+	private final Executor envio;
+
+	@Autowired
+	public NotificacaoServiceImpl(
+			@Value("${ifriends.eventos.buffer:64}") int capacidade,
+			@Value("${ifriends.eventos.timeout:1800000}") long timeout,
+			@Value("${ifriends.eventos.threads:4}") int threads) {
+		this(capacidade, timeout, Executors.newFixedThreadPool(threads, novaThread()));
+	}
+
+	//o executor é informado à parte nos testes, para controlar quando os envios acontecem
+	public NotificacaoServiceImpl(int capacidade, long timeout, Executor envio) {
+		this.capacidade = capacidade;
+		this.timeout = timeout;
+		this.envio = envio;
+	}
+
+	@PreDestroy
+	public void encerrar() {
+		if(envio instanceof ExecutorService) {
+			((ExecutorService) envio).shutdownNow();
+		}
+		inscricoes.values().forEach(inscritos -> inscritos.forEach(inscricao -> inscricao.emitter.complete()));
+	}
+
+	@Override
+	public SseEmitter inscrever(Long idUsuario) {
+		SseEmitter emitter = new SseEmitter(timeout);
+		Inscricao inscricao = new Inscricao(idUsuario, emitter, new ArrayBlockingQueue<>(capacidade));
+
+		emitter.onCompletion(() -> remover(inscricao));
+		emitter.onTimeout(() -> remover(inscricao));
+		emitter.onError(erro -> remover(inscricao));
+		inscricoes.compute(idUsuario, (id, inscritos) -> {
+			Set<Inscricao> atualizados = inscritos == null ? ConcurrentHashMap.newKeySet() : inscritos;
+			atualizados.add(inscricao);
+			return atualizados;
+		});
+		return emitter;
+	}
+
+	@Override
+	public boolean possuiInscritos(Long idUsuario) {
+		return !inscricoes.getOrDefault(idUsuario, vazio).isEmpty();
+	}
+
+	/*
+	 * Dentro de uma transação o evento é montado antes do commit (enxergando a própria escrita)
+	 * e só é enfileirado depois dele; em rollback nada é enviado. Uma falha ao montar o evento
+	 * só é registrada: a notificação não pode desfazer a escrita que a gerou.
+	 */
+	@Override
+	public void publicar(Long idUsuario, Supplier<EventoLancamentoDto> evento) {
+		if(!possuiInscritos(idUsuario)) {
+			return;
+		}
+
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			EventoLancamentoDto montado = montar(idUsuario, evento);
+			if(montado != null) {
+				enfileirar(idUsuario, montado);
+			}
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			private EventoLancamentoDto montado;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				montado = montar(idUsuario, evento);
+			}
+
+			@Override
+			public void afterCommit() {
+				if(montado != null) {
+					enfileirar(idUsuario, montado);
+				}
+			}
+		});
+	}
+
+	private EventoLancamentoDto montar(Long idUsuario, Supplier<EventoLancamentoDto> evento) {
+		try {
+			return evento.get();
+		} catch (RuntimeException e) {
+			log.error("Falha ao montar o evento de lançamento do usuário {}; notificação descartada", idUsuario, e);
+			return null;
+		}
+	}
+
+	private void enfileirar(Long idUsuario, EventoLancamentoDto evento) {
+		for(Inscricao inscricao : inscricoes.getOrDefault(idUsuario, vazio)) {
+			if(!inscricao.fila.offer(evento)) {
+				log.info("Inscrito de eventos do usuário {} não acompanhou {} eventos pendentes; conexão encerrada", idUsuario, capacidade);
+				remover(inscricao);
+				inscricao.emitter.complete();
+				continue;
+			}
+			if(inscricao.agendada.compareAndSet(false, true)) {
+				envio.execute(() -> enviar(inscricao));
+			}
+		}
+	}
+
+	private void enviar(Inscricao inscricao) {
+		do {
+			EventoLancamentoDto evento;
+			while((evento = inscricao.fila.poll()) != null) {
+				try {
+					inscricao.emitter.send(SseEmitter.event()
+												.name(evento.getTipo().name().toLowerCase())
+												.data(evento, MediaType.APPLICATION_JSON));
+				} catch (IOException | IllegalStateException e) {
+					remover(inscricao);
+					inscricao.emitter.completeWithError(e);
+					return;
+				}
+			}
+			inscricao.agendada.set(false);
+			//um evento enfileirado entre o último poll e a liberação acima ficaria sem tarefa
+		} while(!inscricao.fila.isEmpty() && inscricao.agendada.compareAndSet(false, true));
+	}
+
+	private void remover(Inscricao inscricao) {
+		inscricoes.computeIfPresent(inscricao.idUsuario, (id, inscritos) -> {
+			inscritos.remove(inscricao);
+			return inscritos.isEmpty() ? null : inscritos;
+		});
+	}
+
+	private static ThreadFactory novaThread() {
+		AtomicInteger contador = new AtomicInteger();
+		return tarefa -> {
+			Thread thread = new Thread(tarefa, "ifriends-eventos-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private static class Inscricao {
+		private final Long idUsuario;
+		private final SseEmitter emitter;
+		private final BlockingQueue<EventoLancamentoDto> fila;
+		private final AtomicBoolean agendada = new AtomicBoolean();
+
+		private Inscricao(Long idUsuario, SseEmitter emitter, BlockingQueue<EventoLancamentoDto> fila) {
+			this.idUsuario = idUsuario;
+			this.emitter = emitter;
+			this.fila = fila;
+		}
+	}
+}
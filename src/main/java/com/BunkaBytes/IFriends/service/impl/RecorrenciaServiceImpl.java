@@ -0,0 +1,244 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.repository.RecorrenciaRepository;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.RecorrenciaService;
+
+/*
+ * Séries de lançamentos. As ocorrências são geradas de uma vez com salvarLote (inserts em
+ * lotes de 50): a série com quantidade ou competência final inteira já na criação, e a sem
+ * fim até o horizonte de ifriends.recorrencia.horizonte-meses, estendida pelo agendamento.
+ *
+ * Editar ou cancelar a série mexe só nas ocorrências PENDENTE a partir de uma competência,
+ * com um UPDATE pelo id da recorrência; as anteriores e as já efetivadas ficam como estão.
+ */
+@Service
+@Timed(value = "ifriends.servico", histogram = true)
+public class RecorrenciaServiceImpl implements RecorrenciaService {
+
+	//50 anos de uma série mensal; acima disso o pedido é quase certamente um erro
+	static final int MAXIMO_OCORRENCIAS = 600;
+	private static final int TAMANHO_DESCRICAO = 255;
+
+	private RecorrenciaRepository repository;
+	private LancamentoService lancamentoService;
+	private int horizonteMeses;
+
+	public RecorrenciaServiceImpl(RecorrenciaRepository repository, LancamentoService lancamentoService,
+			@Value("${ifriends.recorrencia.horizonte-meses:24}") int horizonteMeses) {
+		this.repository = repository;
+		this.lancamentoService = lancamentoService;
+		this.horizonteMeses = horizonteMeses;
+	}
+
+	@Override
+	@Transactional
+	public Recorrencia criar(Recorrencia recorrencia) {
+		validar(recorrencia);
+		recorrencia.setId(null);
+		recorrencia.setGeradas(0);
+		recorrencia.setEncerrada(false);
+		recorrencia.setDataCadastro(LocalDate.now());
+
+		//o id vem do sequence no persist; o INSERT da série sai no mesmo flush das ocorrências
+		Recorrencia salva = repository.save(recorrencia);
+		gerar(salva);
+		return salva;
+	}
+
+	@Override
+	@Transactional
+	public int atualizar(Recorrencia recorrencia, int competenciaInicial) {
+		Recorrencia existente = obter(recorrencia.getUsuario(), recorrencia.getId());
+		if(existente.isEncerrada()) {
+			throw new RegraNegocioException("A recorrência foi cancelada.");
+		}
+		if(recorrencia.getDescricao() != null) {
+			existente.setDescricao(recorrencia.getDescricao());
+		}
+		if(recorrencia.getValor() != null) {
+			existente.setValor(recorrencia.getValor());
+		}
+		if(recorrencia.getTipo() != null) {
+			existente.setTipo(recorrencia.getTipo());
+		}
+		validarModelo(existente);
+
+		//o UPDATE das ocorrências faz o flush da recorrência alterada antes de rodar
+		return lancamentoService.atualizarSerie(existente, competenciaInicial);
+	}
+
+	@Override
+	@Transactional
+	public int cancelar(Long idUsuario, Long id, int competenciaInicial) {
+		Recorrencia existente = obter(Usuario.builder().id(idUsuario).build(), id);
+		existente.setEncerrada(true);
+		return lancamentoService.cancelarSerie(existente, competenciaInicial);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Recorrencia> listar(Long idUsuario) {
+		return repository.listarPorUsuario(idUsuario);
+	}
+
+	@Override
+	@Transactional
+	public int materializar(Long idUsuario, Long id) {
+		Recorrencia recorrencia = obter(Usuario.builder().id(idUsuario).build(), id);
+		if(recorrencia.isEncerrada()) {
+			return 0;
+		}
+		return gerar(recorrencia);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Map<Long, List<Long>> listarSemFim() {
+		Map<Long, List<Long>> series = new LinkedHashMap<>();
+		for(Object[] linha : repository.listarSemFim()) {
+			series.computeIfAbsent((Long) linha[0], idUsuario -> new ArrayList<>()).add((Long) linha[1]);
+		}
+		return series;
+	}
+
+	/*
+	 * Gera as parcelas de geradas + 1 até o alvo. A recorrência está gerenciada, então o
+	 * novo valor de geradas é gravado no flush de salvarLote, junto com os inserts.
+	 */
+	private int gerar(Recorrencia recorrencia) {
+		int alvo = alvo(recorrencia);
+		if(alvo <= recorrencia.getGeradas()) {
+			return 0;
+		}
+
+		Usuario usuario = Usuario.builder().id(recorrencia.getUsuario().getId()).build();
+		int inicio = competencia(recorrencia.getAnoInicial(), recorrencia.getMesInicial());
+		int meses = recorrencia.getPeriodicidade().getMeses();
+		List<Lancamento> ocorrencias = new ArrayList<>(alvo - recorrencia.getGeradas());
+		for(int parcela = recorrencia.getGeradas() + 1; parcela <= alvo; parcela++) {
+			int competencia = inicio + (parcela - 1) * meses;
+			ocorrencias.add(Lancamento.builder()
+								.descricao(recorrencia.descricaoDaParcela(parcela))
+								.mes(competencia % 12 + 1)
+								.ano(competencia / 12)
+								.valor(recorrencia.getValor())
+								.tipo(recorrencia.getTipo())
+								.usuario(usuario)
+								.idRecorrencia(recorrencia.getId())
+								.parcela(parcela)
+								.build());
+		}
+		recorrencia.setGeradas(alvo);
+		lancamentoService.salvarLote(ocorrencias);
+		return ocorrencias.size();
+	}
+
+	//total de ocorrências da série; a sem fim vai até o horizonte contado a partir do mês corrente
+	private int alvo(Recorrencia recorrencia) {
+		if(recorrencia.getQuantidade() != null) {
+			return recorrencia.getQuantidade();
+		}
+		int inicio = competencia(recorrencia.getAnoInicial(), recorrencia.getMesInicial());
+		int fim = recorrencia.getAnoFinal() != null
+					? competencia(recorrencia.getAnoFinal(), recorrencia.getMesFinal())
+					: competencia(LocalDate.now().getYear(), LocalDate.now().getMonthValue()) + horizonteMeses;
+		return fim < inicio ? 0 : (fim - inicio) / recorrencia.getPeriodicidade().getMeses() + 1;
+	}
+
+	private Recorrencia obter(Usuario usuario, Long id) {
+		if(usuario == null || usuario.getId() == null) {
+			throw new RegraNegocioException("Informe um usuário.");
+		}
+		return repository.obterDoUsuario(usuario.getId(), id)
+				.orElseThrow(() -> new RegraNegocioException("Recorrência não encontrada para o Id informado."));
+	}
+
+	private void validar(Recorrencia recorrencia) {
+		if(recorrencia.getUsuario() == null || recorrencia.getUsuario().getId() == null) {
+			throw new RegraNegocioException("Informe um usuário.");
+		}
+
+		if(recorrencia.getPeriodicidade() == null) {
+			throw new RegraNegocioException("Informe a periodicidade.");
+		}
+
+		if(recorrencia.getMesInicial() == null || recorrencia.getMesInicial() < 1 || recorrencia.getMesInicial() > 12) {
+			throw new RegraNegocioException("Informe um mês inicial válido.");
+		}
+
+		if(recorrencia.getAnoInicial() == null || recorrencia.getAnoInicial().toString().length() != 4) {
+			throw new RegraNegocioException("Informe um ano inicial válido.");
+		}
+
+		if(recorrencia.getQuantidade() != null && (recorrencia.getAnoFinal() != null || recorrencia.getMesFinal() != null)) {
+			throw new RegraNegocioException("Informe a quantidade ou a competência final, não as duas.");
+		}
+
+		if(recorrencia.getQuantidade() != null && (recorrencia.getQuantidade() < 1 || recorrencia.getQuantidade() > MAXIMO_OCORRENCIAS)) {
+			throw new RegraNegocioException("A quantidade deve ser de 1 a " + MAXIMO_OCORRENCIAS + ".");
+		}
+
+		if(recorrencia.getAnoFinal() != null || recorrencia.getMesFinal() != null) {
+			if(recorrencia.getMesFinal() == null || recorrencia.getMesFinal() < 1 || recorrencia.getMesFinal() > 12
+					|| recorrencia.getAnoFinal() == null || recorrencia.getAnoFinal().toString().length() != 4) {
+				throw new RegraNegocioException("Informe uma competência final válida.");
+			}
+			int inicio = competencia(recorrencia.getAnoInicial(), recorrencia.getMesInicial());
+			int fim = competencia(recorrencia.getAnoFinal(), recorrencia.getMesFinal());
+			if(fim < inicio) {
+				throw new RegraNegocioException("A competência final deve ser igual ou posterior à inicial.");
+			}
+			if((fim - inicio) / recorrencia.getPeriodicidade().getMeses() + 1 > MAXIMO_OCORRENCIAS) {
+				throw new RegraNegocioException("A série deve ter no máximo " + MAXIMO_OCORRENCIAS + " ocorrências.");
+			}
+		}
+
+		if(recorrencia.isParcelada() && recorrencia.getQuantidade() == null) {
+			throw new RegraNegocioException("Informe a quantidade de parcelas.");
+		}
+
+		validarModelo(recorrencia);
+	}
+
+	//o que vai para cada ocorrência; a descrição mais longa é a da última parcela
+	private void validarModelo(Recorrencia recorrencia) {
+		if(recorrencia.getDescricao() == null || recorrencia.getDescricao().trim().equals("")) {
+			throw new RegraNegocioException("Informe uma descrição valida.");
+		}
+
+		int parcelas = recorrencia.getQuantidade() == null ? 0 : recorrencia.getQuantidade();
+		if(recorrencia.descricaoDaParcela(parcelas).length() > TAMANHO_DESCRICAO) {
+			throw new RegraNegocioException("A descrição deve ter no máximo " + TAMANHO_DESCRICAO + " caracteres, com o número da parcela.");
+		}
+
+		if(recorrencia.getValor() == null || recorrencia.getValor().compareTo(BigDecimal.ZERO) < 1) {
+			throw new RegraNegocioException("Informe um valor válido.");
+		}
+
+		if(recorrencia.getTipo() == null) {
+			throw new RegraNegocioException("Informe um tipo de lançamento.");
+		}
+	}
+
+	private static int competencia(int ano, int mes) {
+		return ano * 12 + mes - 1;
+	}
+}
@@ -0,0 +1,304 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BunkaBytes.IFriends.api.dto.ResumoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.ResumoArquivoRepository;
+import com.BunkaBytes.IFriends.service.ResumoLancamentoService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
+
+/*
+ * Cubo em memória com os totais (em centavos) de cada usuário por ano x mes x tipo x status.
+ * O cubo é carregado com uma única consulta agrupada na primeira leitura do usuário, atualizado
+ * depois do commit de cada escrita e descartado por LRU quando passa de max-usuarios.
+ *
+ * Para que uma carga concorrente com uma escrita não deixe o cubo com a escrita em dobro ou
+ * faltando, cada faixa de usuários tem um contador de geração: a escrita incrementa antes do
+ * commit e depois da conclusão, e a carga só entra no cache se a geração não mudou durante a
+ * consulta. No fim da escrita, o cubo recebe a diferença se foi carregado antes do commit;
+ * caso contrário é descartado e recarregado na próxima leitura.
+ *
+ * Escritas feitas em outros nós não passam por aqui: o cubo guarda o valor de
+ * sequencia_alteracao (o ETag do resumo) com que foi carregado, e cada leitura confere o
+ * valor atual com uma consulta pela chave e recarrega se ele andou. A escrita local só leva
+ * o cubo adiante se ele estava no valor anterior a ela; senão houve escrita de fora no meio.
+ */
+@Service
+public class ResumoLancamentoServiceImpl implements ResumoLancamentoService {
+
+	private static final int FAIXAS = 1024;
+	private static final int TIPOS = TipoLancamento.values().length;
+	private static final int STATUS = StatusLancamento.values().length;
+	private static final int CELULAS_POR_ANO = 12 * TIPOS * STATUS;
+	private static final List<String> DIMENSOES = Arrays.asList("ano", "mes", "tipo", "status");
+
+	private LancamentoRepository repository;
+	private ResumoArquivoRepository resumoArquivoRepository;
+	private SincronizacaoService sincronizacaoService;
+	private Map<Long, CuboUsuario> cubos;
+	private AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+
+	public ResumoLancamentoServiceImpl(LancamentoRepository repository, ResumoArquivoRepository resumoArquivoRepository,
+			SincronizacaoService sincronizacaoService, @Value("${ifriends.resumo.max-usuarios:10000}") int maxUsuarios) {
+		this.repository = repository;
+		this.resumoArquivoRepository = resumoArquivoRepository;
+		this.sincronizacaoService = sincronizacaoService;
+		this.cubos = Collections.synchronizedMap(new LinkedHashMap<Long, CuboUsuario>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CuboUsuario> maisAntigo) {
+				return size() > maxUsuarios;
+			}
+		});
+	}
+
+	@Override
+	public void registrar(List<Lancamento> removidos, List<Lancamento> incluidos) {
+
+		Map<Long, CuboUsuario> diferencas = new HashMap<>();
+		removidos.forEach(lancamento -> acumular(diferencas, lancamento, -1));
+		incluidos.forEach(lancamento -> acumular(diferencas, lancamento, 1));
+		if(diferencas.isEmpty()) {
+			return;
+		}
+
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			concluir(diferencas, marcar(diferencas), null, true);
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			private Map<Long, Long> marcas;
+			private Map<Long, long[]> alteracoes;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				alteracoes = alteracoes(diferencas);
+				marcas = marcar(diferencas);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				concluir(diferencas, marcas, alteracoes, status == STATUS_COMMITTED && marcas != null);
+			}
+		});
+	}
+
+	@Override
+	public List<ResumoDto> resumir(Long idUsuario, Set<String> agrupar, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status) {
+
+		for(String dimensao : agrupar) {
+			if(!DIMENSOES.contains(dimensao)) {
+				throw new RegraNegocioException("Dimensão de agrupamento inválida: " + dimensao + ". Use " + DIMENSOES + ".");
+			}
+		}
+		boolean porAno = agrupar.contains("ano");
+		boolean porMes = agrupar.contains("mes");
+		boolean porTipo = agrupar.contains("tipo");
+		boolean porStatus = agrupar.contains("status");
+
+		Map<List<Object>, Long> totais = new LinkedHashMap<>();
+		CuboUsuario cubo = obterCubo(idUsuario);
+		synchronized (cubo) {
+			for(Map.Entry<Integer, long[]> celulasDoAno : cubo.anos.entrySet()) {
+				if(ano != null && !ano.equals(celulasDoAno.getKey())) {
+					continue;
+				}
+				long[] celulas = celulasDoAno.getValue();
+
+				for(int celula = 0; celula < CELULAS_POR_ANO; celula++) {
+					if(celulas[celula] == 0) {
+						continue;
+					}
+					int mesCelula = celula / (TIPOS * STATUS) + 1;
+					TipoLancamento tipoCelula = TipoLancamento.values()[celula / STATUS % TIPOS];
+					StatusLancamento statusCelula = StatusLancamento.values()[celula % STATUS];
+					if((mes != null && mes != mesCelula) || (tipo != null && tipo != tipoCelula) || (status != null && status != statusCelula)) {
+						continue;
+					}
+
+					List<Object> chave = Arrays.asList(
+							porAno ? celulasDoAno.getKey() : null,
+							porMes ? mesCelula : null,
+							porTipo ? tipoCelula.name() : null,
+							porStatus ? statusCelula.name() : null);
+					totais.merge(chave, celulas[celula], Long::sum);
+				}
+			}
+		}
+
+		List<ResumoDto> resumo = new ArrayList<>(totais.size());
+		totais.forEach((chave, centavos) -> resumo.add(new ResumoDto(
+				(Integer) chave.get(0),
+				(Integer) chave.get(1),
+				(String) chave.get(2),
+				(String) chave.get(3),
+				BigDecimal.valueOf(centavos, 2))));
+		return resumo;
+	}
+
+	@Override
+	public void invalidar(Long idUsuario) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			descartar(idUsuario);
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				descartar(idUsuario);
+			}
+		});
+	}
+
+	//o valor de sequencia_alteracao é lido antes da carga: no pior caso o cubo é mais novo que ele e só recarrega de novo
+	private CuboUsuario obterCubo(Long idUsuario) {
+		long alteracao = sincronizacaoService.ultimaAlteracao(idUsuario);
+		CuboUsuario cubo = cubos.get(idUsuario);
+		if(cubo != null && cubo.getAlteracao() == alteracao) {
+			return cubo;
+		}
+
+		int faixa = faixa(idUsuario);
+		long geracao = geracoes.get(faixa);
+		CuboUsuario carregado = new CuboUsuario(geracao, alteracao);
+		carregar(carregado, repository.obterTotaisPorUsuario(idUsuario));
+		//anos arquivados entram pelos totais guardados no arquivamento
+		carregar(carregado, resumoArquivoRepository.obterTotaisPorUsuario(idUsuario));
+
+		synchronized (cubos) {
+			if(geracoes.get(faixa) == geracao) {
+				cubos.put(idUsuario, carregado);
+			}
+		}
+		return carregado;
+	}
+
+	private void carregar(CuboUsuario cubo, List<Object[]> linhas) {
+		for(Object[] linha : linhas) {
+			if(linha[0] == null || linha[1] == null || linha[2] == null || linha[3] == null || linha[4] == null) {
+				continue;
+			}
+			cubo.somar((Integer) linha[0], celula((Integer) linha[1], (TipoLancamento) linha[2], (StatusLancamento) linha[3]),
+							centavos((BigDecimal) linha[4]));
+		}
+	}
+
+	/*
+	 * Por usuário, o valor de sequencia_alteracao antes e depois da transação (a linha está
+	 * bloqueada por ela). Só de quem tem cubo neste nó: um cubo carregado depois disso já tem
+	 * geração posterior à marca e é descartado no fim da escrita.
+	 */
+	private Map<Long, long[]> alteracoes(Map<Long, CuboUsuario> diferencas) {
+		Map<Long, long[]> alteracoes = new HashMap<>();
+		diferencas.keySet().stream().filter(cubos::containsKey).forEach(idUsuario -> {
+			long depois = sincronizacaoService.ultimaAlteracao(idUsuario);
+			alteracoes.put(idUsuario, new long[] { depois - sincronizacaoService.avancosNaTransacao(idUsuario), depois });
+		});
+		return alteracoes;
+	}
+
+	private Map<Long, Long> marcar(Map<Long, CuboUsuario> diferencas) {
+		Map<Long, Long> marcas = new HashMap<>();
+		diferencas.keySet().forEach(idUsuario -> marcas.put(idUsuario, geracoes.incrementAndGet(faixa(idUsuario))));
+		return marcas;
+	}
+
+	//sem transação não há valores de sequencia_alteracao: o cubo recebe a diferença e continua no mesmo valor
+	private void concluir(Map<Long, CuboUsuario> diferencas, Map<Long, Long> marcas, Map<Long, long[]> alteracoes, boolean confirmada) {
+		diferencas.forEach((idUsuario, diferenca) -> {
+			if(confirmada) {
+				CuboUsuario cubo = cubos.get(idUsuario);
+				long[] alteracao = alteracoes == null ? null : alteracoes.get(idUsuario);
+				boolean semEscritaDeFora = alteracoes == null || (alteracao != null && cubo != null && cubo.getAlteracao() == alteracao[0]);
+				if(cubo != null && cubo.geracao < marcas.get(idUsuario) && semEscritaDeFora) {
+					cubo.aplicar(diferenca, alteracao == null ? cubo.getAlteracao() : alteracao[1]);
+				} else if(cubo != null) {
+					cubos.remove(idUsuario);
+				}
+			}
+			geracoes.incrementAndGet(faixa(idUsuario));
+		});
+	}
+
+	private void descartar(Long idUsuario) {
+		geracoes.incrementAndGet(faixa(idUsuario));
+		cubos.remove(idUsuario);
+	}
+
+	private void acumular(Map<Long, CuboUsuario> diferencas, Lancamento lancamento, int sinal) {
+		if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null || lancamento.getAno() == null
+				|| lancamento.getMes() == null || lancamento.getTipo() == null || lancamento.getStatus() == null
+				|| lancamento.getValor() == null) {
+			return;
+		}
+
+		diferencas
+			.computeIfAbsent(lancamento.getUsuario().getId(), id -> new CuboUsuario(0, 0))
+			.somar(lancamento.getAno(), celula(lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus()),
+					sinal * centavos(lancamento.getValor()));
+	}
+
+	private static int celula(int mes, TipoLancamento tipo, StatusLancamento status) {
+		return ((mes - 1) * TIPOS + tipo.ordinal()) * STATUS + status.ordinal();
+	}
+
+	private static long centavos(BigDecimal valor) {
+		return valor.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+	}
+
+	private static int faixa(Long idUsuario) {
+		return (int) Math.floorMod(idUsuario, (long) FAIXAS);
+	}
+
+	private static class CuboUsuario {
+		private final long geracao;
+		private final Map<Integer, long[]> anos = new TreeMap<>();
+		private long alteracao;
+
+		CuboUsuario(long geracao, long alteracao) {
+			this.geracao = geracao;
+			this.alteracao = alteracao;
+		}
+
+		synchronized long getAlteracao() {
+			return alteracao;
+		}
+
+		synchronized void somar(int ano, int celula, long centavos) {
+			anos.computeIfAbsent(ano, a -> new long[CELULAS_POR_ANO])[celula] += centavos;
+		}
+
+		synchronized void aplicar(CuboUsuario diferenca, long alteracao) {
+			this.alteracao = alteracao;
+			diferenca.anos.forEach((ano, celulas) -> {
+				for(int celula = 0; celula < CELULAS_POR_ANO; celula++) {
+					if(celulas[celula] != 0) {
+						somar(ano, celula, celulas[celula]);
+					}
+				}
+			});
+		}
+	}
+}
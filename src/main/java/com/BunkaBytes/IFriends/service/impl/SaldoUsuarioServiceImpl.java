@@ -0,0 +1,152 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.SaldoUsuario;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.ResumoArquivoRepository;
+import com.BunkaBytes.IFriends.model.repository.SaldoUsuarioRepository;
+import com.BunkaBytes.IFriends.service.SaldoUsuarioService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+	private SaldoUsuarioRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	private ResumoArquivoRepository resumoArquivoRepository;
+	private SincronizacaoService sincronizacaoService;
+	private EntityManager entityManager;
+	private TransactionTemplate transacaoPropria;
+
+	public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+			ResumoArquivoRepository resumoArquivoRepository, SincronizacaoService sincronizacaoService, EntityManager entityManager,
+			PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.resumoArquivoRepository = resumoArquivoRepository;
+		this.sincronizacaoService = sincronizacaoService;
+		this.entityManager = entityManager;
+		this.transacaoPropria = new TransactionTemplate(transactionManager);
+		this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/*
+	 * Aplica na tabela saldo_usuario a diferença causada pela escrita, na mesma
+	 * transação dela. Se o usuário ainda não tem linha (base anterior à tabela), ela
+	 * é criada numa transação própria com o que já está commitado na tabela lancamento
+	 * e a diferença é somada em seguida, como para quem já tinha linha.
+	 */
+	@Override
+	@Transactional
+	public void registrar(List<Lancamento> removidos, List<Lancamento> incluidos) {
+
+		Map<Long, BigDecimal[]> diferencas = new HashMap<>();
+		removidos.forEach(lancamento -> acumular(diferencas, lancamento, BigDecimal.ONE.negate()));
+		incluidos.forEach(lancamento -> acumular(diferencas, lancamento, BigDecimal.ONE));
+
+		diferencas.forEach((idUsuario, diferenca) -> {
+			if(diferenca[0].signum() == 0 && diferenca[1].signum() == 0) {
+				return;
+			}
+			int atualizados = repository.somar(idUsuario, diferenca[0], diferenca[1]);
+			if(atualizados == 0) {
+				criar(idUsuario);
+				atualizados = repository.somar(idUsuario, diferenca[0], diferenca[1]);
+			}
+			//só o saldo deste usuário sai do contexto (getReference não consulta); as entidades do chamador ficam
+			entityManager.detach(entityManager.getReference(SaldoUsuario.class, idUsuario));
+			if(atualizados == 0) {
+				throw new IllegalStateException("Saldo do usuário " + idUsuario + " não encontrado");
+			}
+		});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<BigDecimal> obterSaldo(Long idUsuario) {
+		return repository.findById(idUsuario).map(SaldoUsuario::getSaldo);
+	}
+
+	@Override
+	@Transactional
+	public boolean recalcular(Long idUsuario) {
+
+		BigDecimal receita = somarPorTipo(idUsuario, TipoLancamento.RECEITA);
+		BigDecimal despesa = somarPorTipo(idUsuario, TipoLancamento.DESPESA);
+
+		Optional<SaldoUsuario> armazenado = repository.findById(idUsuario);
+		boolean divergente = armazenado
+								.map(saldo -> saldo.getReceita().compareTo(receita) != 0 || saldo.getDespesa().compareTo(despesa) != 0)
+								.orElse(true);
+
+		if(divergente) {
+			//sem linha, ela também nasce na transação própria; aqui só recebe os totais desta transação
+			if(!armazenado.isPresent()) {
+				criar(idUsuario);
+			}
+			SaldoUsuario saldo = armazenado.orElseGet(() -> repository.findById(idUsuario)
+															.orElseThrow(() -> new IllegalStateException("Saldo do usuário " + idUsuario + " não encontrado")));
+			saldo.setReceita(receita);
+			saldo.setDespesa(despesa);
+			repository.save(saldo);
+			//o saldo guardado mudou sem escrita em lancamento: o ETag (sequencia_alteracao) precisa andar.
+			//Sem linha o saldo já era calculado da tabela lancamento e não muda para quem lê
+			if(armazenado.isPresent()) {
+				sincronizacaoService.avancar(idUsuario);
+			}
+		}
+		return divergente;
+	}
+
+	//a chave duplicada fica na transação própria: no PostgreSQL ela invalidaria a transação da escrita
+	private void criar(Long idUsuario) {
+		try {
+			transacaoPropria.executeWithoutResult(status -> {
+				entityManager.persist(SaldoUsuario.builder()
+										.idUsuario(idUsuario)
+										.receita(somarPorTipo(idUsuario, TipoLancamento.RECEITA))
+										.despesa(somarPorTipo(idUsuario, TipoLancamento.DESPESA))
+										.build());
+				entityManager.flush();
+			});
+		} catch (DataIntegrityViolationException | PersistenceException criadaPorOutra) {
+			//outra escrita criou a linha primeiro, já com os totais commitados
+		}
+	}
+
+	//tabela lancamento mais os totais dos anos arquivados
+	private BigDecimal somarPorTipo(Long idUsuario, TipoLancamento tipo) {
+		BigDecimal total = lancamentoRepository.obterSaldoPorTipoLancamentoEUsuario(idUsuario, tipo);
+		BigDecimal arquivado = resumoArquivoRepository.somarPorTipo(idUsuario, tipo);
+		return (total == null ? BigDecimal.ZERO : total).add(arquivado == null ? BigDecimal.ZERO : arquivado);
+	}
+
+	private void acumular(Map<Long, BigDecimal[]> diferencas, Lancamento lancamento, BigDecimal sinal) {
+		if(lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null
+				|| lancamento.getValor() == null || lancamento.getTipo() == null) {
+			return;
+		}
+
+		BigDecimal[] diferenca = diferencas.computeIfAbsent(lancamento.getUsuario().getId(),
+																id -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+		int posicao = lancamento.getTipo() == TipoLancamento.RECEITA ? 0 : 1;
+		diferenca[posicao] = diferenca[posicao].add(lancamento.getValor().multiply(sinal));
+	}
+}
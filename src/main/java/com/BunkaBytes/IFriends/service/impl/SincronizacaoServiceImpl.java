@@ -0,0 +1,169 @@
+package com.BunkaBytes.IFriends.service.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.api.dto.SincronizacaoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.LancamentoExcluido;
+import com.BunkaBytes.IFriends.model.entity.SequenciaAlteracao;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoExcluidoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.SequenciaAlteracaoRepository;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
+
+/*
+ * Sincronização incremental: cada escrita em lançamentos de um usuário incrementa
+ * sequencia_alteracao e grava o número na coluna alteracao das linhas tocadas (ou em
+ * lancamento_excluido, nas exclusões). O cliente guarda a marca devolvida e pede só o que
+ * mudou depois dela, então o custo acompanha a quantidade de alterações e não o ledger.
+ */
+@Service
+public class SincronizacaoServiceImpl implements SincronizacaoService {
+
+	private SequenciaAlteracaoRepository repository;
+	private LancamentoRepository lancamentoRepository;
+	private LancamentoExcluidoRepository excluidoRepository;
+	private EntityManager entityManager;
+	private TransactionTemplate transacaoPropria;
+
+	public SincronizacaoServiceImpl(SequenciaAlteracaoRepository repository, LancamentoRepository lancamentoRepository,
+			LancamentoExcluidoRepository excluidoRepository, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.excluidoRepository = excluidoRepository;
+		this.entityManager = entityManager;
+		this.transacaoPropria = new TransactionTemplate(transactionManager);
+		this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/*
+	 * O UPDATE bloqueia a linha do usuário até o commit; os UPDATEs de lançamento leem o valor por
+	 * subconsulta. Sem linha ela é criada zerada numa transação própria e o UPDATE é repetido: duas
+	 * primeiras escritas simultâneas não terminam em chave duplicada, e uma chave duplicada na
+	 * transação própria (a outra criou antes) não invalida a transação da escrita no PostgreSQL.
+	 */
+	@Override
+	@Transactional
+	public void avancar(Long idUsuario) {
+		if(repository.incrementar(idUsuario) == 0) {
+			criar(idUsuario);
+			if(repository.incrementar(idUsuario) == 0) {
+				throw new IllegalStateException("Sequência de alterações do usuário " + idUsuario + " não encontrada");
+			}
+		}
+		avancos().merge(idUsuario, 1, Integer::sum);
+	}
+
+	@Override
+	@Transactional
+	public Long proximaAlteracao(Long idUsuario) {
+		avancar(idUsuario);
+		return repository.obterUltima(idUsuario);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long ultimaAlteracao(Long idUsuario) {
+		Long ultima = repository.obterUltima(idUsuario);
+		return ultima == null ? 0 : ultima;
+	}
+
+	@Override
+	public int avancosNaTransacao(Long idUsuario) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return 0;
+		}
+		return avancos().getOrDefault(idUsuario, 0);
+	}
+
+	@Override
+	@Transactional
+	public void registrarExclusao(Lancamento lancamento) {
+		Long idUsuario = lancamento.getUsuario().getId();
+		entityManager.persist(LancamentoExcluido.builder()
+								.idLancamento(lancamento.getId())
+								.idUsuario(idUsuario)
+								.alteracao(proximaAlteracao(idUsuario))
+								.build());
+	}
+
+	//exclusões em lote: chamar depois de avancar e antes do DELETE, com o mesmo filtro
+	@Override
+	@Transactional
+	public int registrarExclusoesPorIds(Long idUsuario, Collection<Long> ids) {
+		return excluidoRepository.registrarPorIds(idUsuario, ids);
+	}
+
+	@Override
+	@Transactional
+	public int registrarExclusoesPorFiltro(Lancamento filtro) {
+		return excluidoRepository.registrarPorFiltro(filtro.getUsuario().getId(), filtro.getMes(), filtro.getAno(), filtro.getTipo(), filtro.getStatus());
+	}
+
+	/*
+	 * Sem marca (ou zero) devolve todos os lançamentos do usuário. Em REPEATABLE READ a marca
+	 * e as duas consultas enxergam o mesmo snapshot, então nenhuma escrita fica pela metade.
+	 */
+	@Override
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+	public SincronizacaoDto sincronizar(Long idUsuario, Long desde) {
+		Long ultima = repository.obterUltima(idUsuario);
+		long marca = ultima == null ? 0 : ultima;
+
+		if(desde == null || desde <= 0) {
+			return new SincronizacaoDto(lancamentoRepository.listar(idUsuario, "", null, null, null), Collections.emptyList(), marca);
+		}
+		if(desde >= marca) {
+			return new SincronizacaoDto(Collections.emptyList(), Collections.emptyList(), marca);
+		}
+
+		List<LancamentoProjecao> alterados = lancamentoRepository.listarAlteradosDesde(idUsuario, desde);
+		List<Long> excluidos = excluidoRepository.listarDesde(idUsuario, desde);
+		return new SincronizacaoDto(alterados, excluidos, marca);
+	}
+
+	private void criar(Long idUsuario) {
+		try {
+			transacaoPropria.executeWithoutResult(status -> {
+				entityManager.persist(SequenciaAlteracao.builder().idUsuario(idUsuario).ultima(0l).build());
+				entityManager.flush();
+			});
+		} catch (DataIntegrityViolationException | PersistenceException criadaPorOutra) {
+			//outra transação criou a linha primeiro; o UPDATE seguinte a encontra
+		}
+	}
+
+	//guardado numa sincronização, que é suspensa junto com a transação (REQUIRES_NEW não mistura as contagens)
+	private Map<Long, Integer> avancos() {
+		for(TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+			if(sincronizacao instanceof AvancosDaTransacao) {
+				return ((AvancosDaTransacao) sincronizacao).avancos;
+			}
+		}
+		AvancosDaTransacao avancos = new AvancosDaTransacao();
+		TransactionSynchronizationManager.registerSynchronization(avancos);
+		return avancos.avancos;
+	}
+
+	private static class AvancosDaTransacao implements TransactionSynchronization {
+		private final Map<Long, Integer> avancos = new HashMap<>();
+	}
+}
@@ -6,6 +6,9 @@ import javax.transaction.Transactional;
 
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
+import com.BunkaBytes.IFriends.config.RoteadorShards;
 import com.BunkaBytes.IFriends.exception.ErroAutenticacao;
 import com.BunkaBytes.IFriends.exception.RegraNegocioException;
 import com.BunkaBytes.IFriends.model.entity.Usuario;
@@ -13,14 +16,17 @@ import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
 import com.BunkaBytes.IFriends.service.UsuarioService;
 
 @Service
+@Timed(value = "ifriends.servico", histogram = true)
 public class UsuarioServiceImpl implements UsuarioService{
 	
 	
 	private UsuarioRepository repository;
+	private RoteadorShards roteador;
 
-	public UsuarioServiceImpl(UsuarioRepository repository) {
+	public UsuarioServiceImpl(UsuarioRepository repository, RoteadorShards roteador) {
 		super();
 		this.repository = repository;
+		this.roteador = roteador;
 	}
 
 	@Override
@@ -40,7 +46,9 @@ public class UsuarioServiceImpl implements UsuarioService{
 	@Transactional
 	public Usuario salvarUsuario(Usuario usuario) {
 		validarEmail(usuario.getEmail());
-		return repository.save(usuario);
+		Usuario salvo = repository.save(usuario);
+		roteador.registrar(salvo);
+		return salvo;
 	}
 
 	@Override
@@ -52,9 +60,9 @@ public class UsuarioServiceImpl implements UsuarioService{
 	}
 
 	@Override
-	public Optional<Usuario> obterPorId(Long id) {
+	public Optional<Usuario> obterPorId(Long idUsuario) {
 		// TODO Auto-generated method stub
-		return repository.findById(id);
+		return repository.findById(idUsuario);
 	}
 
 }
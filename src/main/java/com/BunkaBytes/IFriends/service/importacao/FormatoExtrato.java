@@ -0,0 +1,6 @@
+package com.BunkaBytes.IFriends.service.importacao;
+
+public enum FormatoExtrato {
+	OFX,
+	CSV
+}
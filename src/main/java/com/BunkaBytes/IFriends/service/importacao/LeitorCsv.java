@@ -0,0 +1,132 @@
+package com.BunkaBytes.IFriends.service.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+
+/*
+ * CSV com cabeçalho na primeira linha, separado por ponto e vírgula, vírgula ou tabulação
+ * (o que aparecer mais no cabeçalho). Colunas pelo nome, em qualquer ordem: data, descricao
+ * (ou historico) e valor. Campos entre aspas podem conter o separador, mas não quebras de linha.
+ */
+public class LeitorCsv implements LeitorExtrato {
+
+	private static final List<String> COLUNAS_DESCRICAO = Arrays.asList("descricao", "historico", "memo");
+
+	private final BufferedReader leitor;
+	private char separador;
+	private int colunaData = -1;
+	private int colunaDescricao = -1;
+	private int colunaValor = -1;
+	private int numero;
+
+	//o cabeçalho é lido aqui: sem ele o arquivo inteiro é recusado, não linha a linha
+	LeitorCsv(BufferedReader leitor) throws IOException {
+		this.leitor = leitor;
+		lerCabecalho();
+	}
+
+	@Override
+	public LinhaExtrato proxima() throws IOException {
+		String linha;
+		do {
+			linha = leitor.readLine();
+			numero++;
+			if(linha == null) {
+				return null;
+			}
+		} while(linha.trim().isEmpty());
+
+		List<String> campos = campos(linha);
+		if(campos.size() <= Math.max(colunaData, Math.max(colunaDescricao, colunaValor))) {
+			throw new RegraNegocioException("Linha " + numero + ": quantidade de colunas diferente do cabeçalho.");
+		}
+		try {
+			return new LinhaExtrato(numero,
+									LeitorExtrato.data(campos.get(colunaData)),
+									campos.get(colunaDescricao).trim(),
+									LeitorExtrato.valor(campos.get(colunaValor)),
+									null);
+		} catch (RegraNegocioException e) {
+			throw new RegraNegocioException("Linha " + numero + ": " + e.getMessage());
+		}
+	}
+
+	private void lerCabecalho() throws IOException {
+		String cabecalho = leitor.readLine();
+		numero++;
+		if(cabecalho == null) {
+			throw new RegraNegocioException("Extrato vazio.");
+		}
+		//BOM do UTF-8, comum em CSV exportado por planilha
+		if(cabecalho.startsWith("\uFEFF")) {
+			cabecalho = cabecalho.substring(1);
+		}
+
+		separador = ';';
+		long maior = contar(cabecalho, ';');
+		for(char candidato : new char[] { ',', '\t' }) {
+			if(contar(cabecalho, candidato) > maior) {
+				separador = candidato;
+				maior = contar(cabecalho, candidato);
+			}
+		}
+
+		List<String> nomes = campos(cabecalho);
+		for(int i = 0; i < nomes.size(); i++) {
+			String nome = normalizar(nomes.get(i));
+			if(nome.equals("data")) {
+				colunaData = i;
+			} else if(COLUNAS_DESCRICAO.contains(nome) && colunaDescricao < 0) {
+				colunaDescricao = i;
+			} else if(nome.equals("valor")) {
+				colunaValor = i;
+			}
+		}
+		if(colunaData < 0 || colunaDescricao < 0 || colunaValor < 0) {
+			throw new RegraNegocioException("O cabeçalho do CSV precisa das colunas data, descricao e valor.");
+		}
+	}
+
+	private List<String> campos(String linha) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean aspas = false;
+		for(int i = 0; i < linha.length(); i++) {
+			char c = linha.charAt(i);
+			if(c == '"') {
+				if(aspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else {
+					aspas = !aspas;
+				}
+			} else if(c == separador && !aspas) {
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+		campos.add(campo.toString());
+		return campos;
+	}
+
+	private static long contar(String texto, char caractere) {
+		return texto.chars().filter(c -> c == caractere).count();
+	}
+
+	private static String normalizar(String nome) {
+		return Normalizer.normalize(nome.trim().toLowerCase(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+	}
+
+	@Override
+	public void close() throws IOException {
+		leitor.close();
+	}
+}
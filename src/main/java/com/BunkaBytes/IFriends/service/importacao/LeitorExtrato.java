@@ -0,0 +1,77 @@
+package com.BunkaBytes.IFriends.service.importacao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+
+/*
+ * Lê um extrato uma transação por vez, sem carregar o arquivo. proxima() devolve null no
+ * fim; uma transação ilegível lança RegraNegocioException já depois de consumida, então a
+ * leitura pode continuar na seguinte.
+ */
+public interface LeitorExtrato extends Closeable {
+
+	int AMOSTRA = 1024;
+
+	LinhaExtrato proxima() throws IOException;
+
+	//sem formato informado, é OFX quando o início do arquivo tem o cabeçalho ou a tag OFX
+	static LeitorExtrato abrir(InputStream extrato, FormatoExtrato formato, Charset charset) throws IOException {
+		BufferedReader leitor = new BufferedReader(new InputStreamReader(extrato, charset));
+		if(formato == null) {
+			char[] inicio = new char[AMOSTRA];
+			leitor.mark(AMOSTRA);
+			int lidos = leitor.read(inicio);
+			leitor.reset();
+			String amostra = lidos <= 0 ? "" : new String(inicio, 0, lidos).toUpperCase();
+			formato = amostra.contains("OFXHEADER") || amostra.contains("<OFX") ? FormatoExtrato.OFX : FormatoExtrato.CSV;
+		}
+		return formato == FormatoExtrato.OFX ? new LeitorOfx(leitor) : new LeitorCsv(leitor);
+	}
+
+	/*
+	 * Aceita 1234.56, 1234,56, 1.234,56 e 1,234.56, com sinal e R$: o último separador
+	 * é o decimal.
+	 */
+	static BigDecimal valor(String texto) {
+		String limpo = texto.replace("R$", "").replaceAll("\\s", "");
+		int decimal = Math.max(limpo.lastIndexOf(','), limpo.lastIndexOf('.'));
+		if(decimal >= 0) {
+			String inteiro = limpo.substring(0, decimal).replace(".", "").replace(",", "");
+			limpo = inteiro + "." + limpo.substring(decimal + 1);
+		}
+		try {
+			return new BigDecimal(limpo);
+		} catch (NumberFormatException e) {
+			throw new RegraNegocioException("Valor inválido: " + texto);
+		}
+	}
+
+	List<DateTimeFormatter> FORMATOS_DATA = Arrays.asList(
+			DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+			DateTimeFormatter.ISO_LOCAL_DATE,
+			DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+			DateTimeFormatter.BASIC_ISO_DATE);
+
+	static LocalDate data(String texto) {
+		for(DateTimeFormatter formato : FORMATOS_DATA) {
+			try {
+				return LocalDate.parse(texto.trim(), formato);
+			} catch (DateTimeParseException e) {
+				//tenta o próximo formato
+			}
+		}
+		throw new RegraNegocioException("Data inválida: " + texto);
+	}
+}
@@ -0,0 +1,121 @@
+package com.BunkaBytes.IFriends.service.importacao;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+
+/*
+ * OFX 1.x (SGML, tags de valor sem fechamento) e 2.x (XML). Lê tag a tag e monta uma
+ * transação a cada bloco STMTTRN com DTPOSTED, TRNAMT, FITID e MEMO (ou NAME); o resto do
+ * arquivo (cabeçalho, contas, saldos) é ignorado.
+ */
+public class LeitorOfx implements LeitorExtrato {
+
+	//limite de cada texto entre tags, para que um arquivo malformado não vire uma string enorme
+	private static final int MAXIMO_TEXTO = 1024;
+
+	private final Reader leitor;
+	private final StringBuilder texto = new StringBuilder();
+	private boolean tagAberta;
+	private int numero;
+
+	LeitorOfx(Reader leitor) {
+		this.leitor = leitor;
+	}
+
+	@Override
+	public LinhaExtrato proxima() throws IOException {
+		Map<String, String> campos = null;
+		String tag;
+		while((tag = proximaTag()) != null) {
+			String valor = lerTexto();
+			if(tag.equals("STMTTRN")) {
+				campos = new HashMap<>();
+			} else if(tag.equals("/STMTTRN") && campos != null) {
+				numero++;
+				return montar(campos);
+			} else if(campos != null && !tag.startsWith("/") && !valor.isEmpty()) {
+				campos.put(tag, valor);
+			}
+		}
+		return null;
+	}
+
+	private LinhaExtrato montar(Map<String, String> campos) {
+		String data = campos.get("DTPOSTED");
+		String valor = campos.get("TRNAMT");
+		String descricao = campos.getOrDefault("MEMO", campos.get("NAME"));
+		if(data == null || data.length() < 8 || valor == null) {
+			throw new RegraNegocioException("Transação " + numero + ": DTPOSTED e TRNAMT são obrigatórios.");
+		}
+		try {
+			return new LinhaExtrato(numero,
+									LocalDate.parse(data.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE),
+									descricao,
+									LeitorExtrato.valor(valor),
+									campos.get("FITID"));
+		} catch (RuntimeException e) {
+			throw new RegraNegocioException("Transação " + numero + ": " + e.getMessage());
+		}
+	}
+
+	//nome da próxima tag, em maiúsculas; instruções <?...?> e comentários <!...> são pulados
+	private String proximaTag() throws IOException {
+		while(true) {
+			if(!tagAberta) {
+				int c;
+				while((c = leitor.read()) != '<') {
+					if(c < 0) {
+						return null;
+					}
+				}
+			}
+			tagAberta = false;
+
+			StringBuilder nome = new StringBuilder();
+			int c;
+			while((c = leitor.read()) != '>') {
+				if(c < 0) {
+					return null;
+				}
+				if(nome.length() < MAXIMO_TEXTO) {
+					nome.append((char) c);
+				}
+			}
+			String tag = nome.toString().trim().toUpperCase();
+			if(!tag.startsWith("?") && !tag.startsWith("!")) {
+				return tag;
+			}
+		}
+	}
+
+	//texto até a próxima tag, que fica aberta para proximaTag
+	private String lerTexto() throws IOException {
+		texto.setLength(0);
+		int c;
+		while((c = leitor.read()) >= 0) {
+			if(c == '<') {
+				tagAberta = true;
+				break;
+			}
+			if(texto.length() < MAXIMO_TEXTO) {
+				texto.append((char) c);
+			}
+		}
+		return texto.toString().trim()
+					.replace("&lt;", "<")
+					.replace("&gt;", ">")
+					.replace("&quot;", "\"")
+					.replace("&amp;", "&");
+	}
+
+	@Override
+	public void close() throws IOException {
+		leitor.close();
+	}
+}
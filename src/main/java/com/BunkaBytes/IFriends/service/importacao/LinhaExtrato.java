@@ -0,0 +1,19 @@
+package com.BunkaBytes.IFriends.service.importacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//uma transação do extrato; valor negativo é saída (despesa) e positivo é entrada (receita)
+@Data
+@AllArgsConstructor
+public class LinhaExtrato {
+	private int numero;
+	private LocalDate data;
+	private String descricao;
+	private BigDecimal valor;
+	//FITID do OFX, quando o banco informa
+	private String identificador;
+}
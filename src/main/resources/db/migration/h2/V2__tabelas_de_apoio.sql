@@ -0,0 +1,43 @@
+-- Estruturas criadas depois do esquema original (mesma versão do PostgreSQL).
+
+CREATE SEQUENCE financas.lancamento_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE financas.lancamento ADD COLUMN versao bigint DEFAULT 0;
+ALTER TABLE financas.lancamento ADD COLUMN alteracao bigint;
+CREATE INDEX financas.ix_lancamento_alteracao ON financas.lancamento (id_usuario, alteracao);
+
+CREATE TABLE financas.saldo_usuario (
+	id_usuario bigint NOT NULL,
+	receita decimal(19,2),
+	despesa decimal(19,2),
+	versao bigint DEFAULT 0,
+	CONSTRAINT pk_saldo_usuario PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE financas.indice_descricao (
+	id_usuario bigint NOT NULL,
+	data_indexacao timestamp,
+	CONSTRAINT pk_indice_descricao PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE financas.lancamento_trigrama (
+	id_lancamento bigint NOT NULL,
+	trigrama varchar(3) NOT NULL,
+	id_usuario bigint,
+	CONSTRAINT pk_lancamento_trigrama PRIMARY KEY (id_lancamento, trigrama)
+);
+CREATE INDEX financas.ix_lancamento_trigrama_busca ON financas.lancamento_trigrama (id_usuario, trigrama, id_lancamento);
+
+CREATE TABLE financas.sequencia_alteracao (
+	id_usuario bigint NOT NULL,
+	ultima bigint,
+	CONSTRAINT pk_sequencia_alteracao PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE financas.lancamento_excluido (
+	id_lancamento bigint NOT NULL,
+	id_usuario bigint,
+	alteracao bigint,
+	CONSTRAINT pk_lancamento_excluido PRIMARY KEY (id_lancamento)
+);
+CREATE INDEX financas.ix_lancamento_excluido_alteracao ON financas.lancamento_excluido (id_usuario, alteracao);
@@ -0,0 +1,4 @@
+-- mesmos índices do PostgreSQL (ver db/migration/postgresql/V3__indices_consulta.sql)
+CREATE UNIQUE INDEX financas.ux_usuario_email ON financas.usuario (email);
+CREATE INDEX financas.ix_lancamento_filtro ON financas.lancamento (id_usuario, ano, mes, tipo, status);
+CREATE INDEX financas.ix_lancamento_saldo ON financas.lancamento (id_usuario, tipo, valor);
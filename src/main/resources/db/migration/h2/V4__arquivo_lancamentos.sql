@@ -0,0 +1,26 @@
+-- Arquivo dos anos fechados (no PostgreSQL a tabela é particionada por ano).
+CREATE TABLE financas.lancamento_arquivo (
+	id bigint NOT NULL,
+	descricao varchar(255),
+	mes integer,
+	ano integer NOT NULL,
+	id_usuario bigint,
+	valor decimal(19,2),
+	data_cadastro timestamp,
+	tipo varchar(255),
+	status varchar(255),
+	versao bigint,
+	CONSTRAINT pk_lancamento_arquivo PRIMARY KEY (id, ano)
+);
+CREATE INDEX financas.ix_lancamento_arquivo_usuario ON financas.lancamento_arquivo (id_usuario, ano, mes);
+
+CREATE TABLE financas.resumo_arquivo (
+	id_usuario bigint NOT NULL,
+	ano integer NOT NULL,
+	mes integer NOT NULL,
+	tipo varchar(255) NOT NULL,
+	status varchar(255) NOT NULL,
+	total decimal(19,2),
+	quantidade bigint,
+	CONSTRAINT pk_resumo_arquivo PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
@@ -0,0 +1,8 @@
+-- Diretório de shards (usado só no banco principal): em qual shard estão os dados de cada
+-- usuário. Usuário sem linha aqui está no principal.
+CREATE TABLE financas.shard_usuario (
+	id_usuario bigint NOT NULL,
+	shard varchar(50) NOT NULL,
+	movendo boolean DEFAULT false NOT NULL,
+	CONSTRAINT pk_shard_usuario PRIMARY KEY (id_usuario)
+);
@@ -0,0 +1,29 @@
+-- Séries de lançamentos (recorrências e parcelamentos). As ocorrências geradas ficam na
+-- tabela lancamento com id_recorrencia e parcela, para que editar ou cancelar a série
+-- seja um único UPDATE.
+CREATE SEQUENCE financas.recorrencia_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE financas.recorrencia (
+	id bigint NOT NULL,
+	id_usuario bigint NOT NULL,
+	descricao varchar(255),
+	valor decimal(19,2),
+	tipo varchar(255),
+	periodicidade varchar(20) NOT NULL,
+	mes_inicial integer NOT NULL,
+	ano_inicial integer NOT NULL,
+	quantidade integer,
+	mes_final integer,
+	ano_final integer,
+	parcelada boolean DEFAULT false NOT NULL,
+	geradas integer DEFAULT 0 NOT NULL,
+	encerrada boolean DEFAULT false NOT NULL,
+	data_cadastro timestamp,
+	CONSTRAINT pk_recorrencia PRIMARY KEY (id),
+	CONSTRAINT fk_recorrencia_usuario FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id)
+);
+CREATE INDEX financas.ix_recorrencia_usuario ON financas.recorrencia (id_usuario);
+
+ALTER TABLE financas.lancamento ADD COLUMN id_recorrencia bigint;
+ALTER TABLE financas.lancamento ADD COLUMN parcela integer;
+CREATE INDEX financas.ix_lancamento_recorrencia ON financas.lancamento (id_recorrencia, parcela);
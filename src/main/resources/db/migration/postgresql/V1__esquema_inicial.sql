@@ -0,0 +1,24 @@
+-- Esquema original (Modelagem de dados): usuários e lançamentos.
+-- Bancos que já tinham estas tabelas antes das migrações entram na versão 1 pelo baseline.
+
+CREATE TABLE financas.usuario (
+	id bigserial NOT NULL,
+	nome varchar(255),
+	email varchar(255),
+	senha varchar(255),
+	CONSTRAINT pk_usuario PRIMARY KEY (id)
+);
+
+CREATE TABLE financas.lancamento (
+	id bigserial NOT NULL,
+	descricao varchar(255),
+	mes integer,
+	ano integer,
+	id_usuario bigint,
+	valor numeric(19,2),
+	data_cadastro timestamp,
+	tipo varchar(255),
+	status varchar(255),
+	CONSTRAINT pk_lancamento PRIMARY KEY (id),
+	CONSTRAINT fk_lancamento_usuario FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id)
+);
@@ -0,0 +1,49 @@
+-- Estruturas criadas depois do esquema original. IF NOT EXISTS porque em alguns bancos
+-- elas já foram criadas pelo Hibernate (ddl-auto) antes das migrações.
+
+-- id do lançamento passa a vir de sequence (allocationSize = 50), continuando depois do maior id
+CREATE SEQUENCE IF NOT EXISTS financas.lancamento_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('financas.lancamento_seq', COALESCE((SELECT MAX(id) FROM financas.lancamento), 0) + 50, false);
+ALTER TABLE financas.lancamento ALTER COLUMN id DROP DEFAULT;
+
+-- versão para lock otimista e posição na sequência de alterações do usuário (sincronização)
+ALTER TABLE financas.lancamento ADD COLUMN IF NOT EXISTS versao bigint DEFAULT 0;
+ALTER TABLE financas.lancamento ADD COLUMN IF NOT EXISTS alteracao bigint;
+UPDATE financas.lancamento SET versao = 0 WHERE versao IS NULL;
+CREATE INDEX IF NOT EXISTS ix_lancamento_alteracao ON financas.lancamento (id_usuario, alteracao);
+
+CREATE TABLE IF NOT EXISTS financas.saldo_usuario (
+	id_usuario bigint NOT NULL,
+	receita numeric(19,2),
+	despesa numeric(19,2),
+	versao bigint DEFAULT 0,
+	CONSTRAINT pk_saldo_usuario PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE IF NOT EXISTS financas.indice_descricao (
+	id_usuario bigint NOT NULL,
+	data_indexacao timestamp,
+	CONSTRAINT pk_indice_descricao PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE IF NOT EXISTS financas.lancamento_trigrama (
+	id_lancamento bigint NOT NULL,
+	trigrama varchar(3) NOT NULL,
+	id_usuario bigint,
+	CONSTRAINT pk_lancamento_trigrama PRIMARY KEY (id_lancamento, trigrama)
+);
+CREATE INDEX IF NOT EXISTS ix_lancamento_trigrama_busca ON financas.lancamento_trigrama (id_usuario, trigrama, id_lancamento);
+
+CREATE TABLE IF NOT EXISTS financas.sequencia_alteracao (
+	id_usuario bigint NOT NULL,
+	ultima bigint,
+	CONSTRAINT pk_sequencia_alteracao PRIMARY KEY (id_usuario)
+);
+
+CREATE TABLE IF NOT EXISTS financas.lancamento_excluido (
+	id_lancamento bigint NOT NULL,
+	id_usuario bigint,
+	alteracao bigint,
+	CONSTRAINT pk_lancamento_excluido PRIMARY KEY (id_lancamento)
+);
+CREATE INDEX IF NOT EXISTS ix_lancamento_excluido_alteracao ON financas.lancamento_excluido (id_usuario, alteracao);
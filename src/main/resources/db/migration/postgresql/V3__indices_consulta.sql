@@ -0,0 +1,11 @@
+-- findByEmail/existsByEmail; também impede dois cadastros com o mesmo email em paralelo
+CREATE UNIQUE INDEX IF NOT EXISTS ux_usuario_email ON financas.usuario (email);
+
+-- listagens, paginação e operações em lote filtram por usuário e depois ano, mes, tipo e status
+CREATE INDEX IF NOT EXISTS ix_lancamento_filtro ON financas.lancamento (id_usuario, ano, mes, tipo, status);
+
+-- SUM(valor) por usuário e tipo resolvido só pelo índice (index-only scan)
+CREATE INDEX IF NOT EXISTS ix_lancamento_saldo ON financas.lancamento (id_usuario, tipo, valor);
+
+ANALYZE financas.usuario;
+ANALYZE financas.lancamento;
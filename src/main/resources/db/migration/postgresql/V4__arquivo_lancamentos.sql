@@ -0,0 +1,42 @@
+-- Arquivo dos anos fechados. A tabela lancamento continua comum (só com os anos recentes,
+-- mantidos pelo arquivamento), e o arquivo, que só cresce, é particionado por ano em faixas
+-- de dez anos; anos fora das faixas caem na partição padrão.
+CREATE TABLE IF NOT EXISTS financas.lancamento_arquivo (
+	id bigint NOT NULL,
+	descricao varchar(255),
+	mes integer,
+	ano integer NOT NULL,
+	id_usuario bigint,
+	valor numeric(19,2),
+	data_cadastro timestamp,
+	tipo varchar(255),
+	status varchar(255),
+	versao bigint,
+	CONSTRAINT pk_lancamento_arquivo PRIMARY KEY (id, ano)
+) PARTITION BY RANGE (ano);
+
+DO $$
+DECLARE
+	decada integer;
+BEGIN
+	FOR decada IN 1990..2090 BY 10 LOOP
+		EXECUTE format('CREATE TABLE IF NOT EXISTS financas.lancamento_arquivo_%s PARTITION OF financas.lancamento_arquivo FOR VALUES FROM (%s) TO (%s)',
+						decada, decada, decada + 10);
+	END LOOP;
+END
+$$;
+CREATE TABLE IF NOT EXISTS financas.lancamento_arquivo_padrao PARTITION OF financas.lancamento_arquivo DEFAULT;
+
+CREATE INDEX IF NOT EXISTS ix_lancamento_arquivo_usuario ON financas.lancamento_arquivo (id_usuario, ano, mes);
+
+-- totais dos lançamentos arquivados, somados ao saldo e ao resumo
+CREATE TABLE IF NOT EXISTS financas.resumo_arquivo (
+	id_usuario bigint NOT NULL,
+	ano integer NOT NULL,
+	mes integer NOT NULL,
+	tipo varchar(255) NOT NULL,
+	status varchar(255) NOT NULL,
+	total numeric(19,2),
+	quantidade bigint,
+	CONSTRAINT pk_resumo_arquivo PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
@@ -0,0 +1,8 @@
+-- Diretório de shards (usado só no banco principal): em qual shard estão os dados de cada
+-- usuário. Usuário sem linha aqui está no principal.
+CREATE TABLE IF NOT EXISTS financas.shard_usuario (
+	id_usuario bigint NOT NULL,
+	shard varchar(50) NOT NULL,
+	movendo boolean NOT NULL DEFAULT false,
+	CONSTRAINT pk_shard_usuario PRIMARY KEY (id_usuario)
+);
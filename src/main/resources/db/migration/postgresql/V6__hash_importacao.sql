@@ -0,0 +1,7 @@
+-- Hash do conteúdo de cada linha importada de extrato (OFX/CSV), para que importar o mesmo
+-- arquivo de novo não duplique lançamentos. Fica também no arquivo dos anos fechados.
+ALTER TABLE financas.lancamento ADD COLUMN IF NOT EXISTS hash_importacao varchar(64);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_lancamento_importacao ON financas.lancamento (id_usuario, hash_importacao);
+
+ALTER TABLE financas.lancamento_arquivo ADD COLUMN IF NOT EXISTS hash_importacao varchar(64);
+CREATE INDEX IF NOT EXISTS ix_lancamento_arquivo_importacao ON financas.lancamento_arquivo (id_usuario, hash_importacao);
@@ -0,0 +1,29 @@
+-- Séries de lançamentos (recorrências e parcelamentos). As ocorrências geradas ficam na
+-- tabela lancamento com id_recorrencia e parcela, para que editar ou cancelar a série
+-- seja um único UPDATE.
+CREATE SEQUENCE IF NOT EXISTS financas.recorrencia_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS financas.recorrencia (
+	id bigint NOT NULL,
+	id_usuario bigint NOT NULL,
+	descricao varchar(255),
+	valor numeric(19,2),
+	tipo varchar(255),
+	periodicidade varchar(20) NOT NULL,
+	mes_inicial integer NOT NULL,
+	ano_inicial integer NOT NULL,
+	quantidade integer,
+	mes_final integer,
+	ano_final integer,
+	parcelada boolean NOT NULL DEFAULT false,
+	geradas integer NOT NULL DEFAULT 0,
+	encerrada boolean NOT NULL DEFAULT false,
+	data_cadastro timestamp,
+	CONSTRAINT pk_recorrencia PRIMARY KEY (id),
+	CONSTRAINT fk_recorrencia_usuario FOREIGN KEY (id_usuario) REFERENCES financas.usuario (id)
+);
+CREATE INDEX IF NOT EXISTS ix_recorrencia_usuario ON financas.recorrencia (id_usuario);
+
+ALTER TABLE financas.lancamento ADD COLUMN IF NOT EXISTS id_recorrencia bigint;
+ALTER TABLE financas.lancamento ADD COLUMN IF NOT EXISTS parcela integer;
+CREATE INDEX IF NOT EXISTS ix_lancamento_recorrencia ON financas.lancamento (id_recorrencia, parcela);
@@ -0,0 +1,70 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+@AutoConfigureMockMvc
+public class LancamentoEventosResourceTest {
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Test
+	public void deveEnviarOLancamentoCriadoEOSaldoAosInscritos() throws Exception {
+		//cenário
+		Usuario usuario = usuarioRepository.save(Usuario.builder()
+											.nome("eventos")
+											.email("eventos." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+		MvcResult inscricao = mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/eventos").param("usuario", usuario.getId().toString()))
+									.andExpect(MockMvcResultMatchers.request().asyncStarted())
+									.andReturn();
+		
+		//execução
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento = lancamentoService.salvar(lancamento);
+		
+		//verificação: o envio é assíncrono
+		String conteudo = "";
+		for(int tentativa = 0; tentativa < 50 && !conteudo.contains("event:criado"); tentativa++) {
+			Thread.sleep(100);
+			conteudo = inscricao.getResponse().getContentAsString();
+		}
+		Assertions.assertTrue(conteudo.contains("event:criado"), conteudo);
+		Assertions.assertTrue(conteudo.contains("\"ids\":[" + lancamento.getId() + "]"), conteudo);
+		Assertions.assertTrue(conteudo.contains("\"saldo\":"), conteudo);
+	}
+	
+	@Test
+	public void deveRecusarInscricaoDeUsuarioInexistente() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/eventos").param("usuario", "-1"))
+			.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+}
@@ -0,0 +1,46 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+@WebMvcTest(controllers = LancamentoExportacaoResource.class)
+@AutoConfigureMockMvc
+public class LancamentoExportacaoResourceTest {
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	LancamentoService service;
+	
+	@MockBean
+	UsuarioService usuarioService;
+	
+	@Test
+	public void deveRecusarAExportacaoDeUsuarioInexistenteAntesDeAbrirOStream() throws Exception {
+		Mockito.when(usuarioService.obterPorId(1l)).thenReturn(Optional.empty());
+		
+		mvc.perform(MockMvcRequestBuilders.get("/api/lancamentos/exportar").param("usuario", "1"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest())
+			.andExpect(MockMvcResultMatchers.content().string("Usuário não encontrado para o Id informado."));
+		
+		Mockito.verify(service, Mockito.never()).exportar(Mockito.any(), Mockito.any());
+	}
+}
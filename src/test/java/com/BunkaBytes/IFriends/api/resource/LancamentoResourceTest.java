@@ -0,0 +1,96 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.BunkaBytes.IFriends.service.impl.LancamentoServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+@WebMvcTest(controllers = LancamentoResource.class)
+@AutoConfigureMockMvc
+public class LancamentoResourceTest {
+	
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	LancamentoService service;
+	
+	@MockBean
+	UsuarioService usuarioService;
+	
+	@MockBean
+	AlteracaoUsuarioService alteracaoService;
+	
+	@MockBean
+	SincronizacaoService sincronizacaoService;
+	
+	@Test
+	public void deveSalvarUmLoteInformandoOResultadoDeCadaItem() throws Exception {
+		//cenário
+		Usuario usuario = Usuario.builder().id(1l).build();
+		Mockito.when(usuarioService.obterPorId(1l)).thenReturn(Optional.of(usuario));
+		Mockito.doAnswer(invocacao -> {
+			new LancamentoServiceImpl(null, null, null, null, null, null, null, null).validar(invocacao.getArgument(0));
+			return null;
+		}).when(service).validar(Mockito.any(Lancamento.class));
+		Mockito.when(service.salvarLote(Mockito.anyList())).thenAnswer(invocacao -> {
+			List<Lancamento> lote = invocacao.getArgument(0);
+			lote.forEach(lancamento -> lancamento.setId(10l));
+			return lote;
+		});
+		
+		LancamentoDto valido = LancamentoDto.builder().descricao("salario").mes(1).ano(2022)
+									.valor(BigDecimal.TEN).tipo("RECEITA").usuario(1l).build();
+		LancamentoDto semDescricao = LancamentoDto.builder().mes(1).ano(2022)
+									.valor(BigDecimal.TEN).tipo("RECEITA").usuario(1l).build();
+		
+		String json = new ObjectMapper().writeValueAsString(Arrays.asList(valido, semDescricao, valido));
+		
+		//execução
+		MockHttpServletRequestBuilder request =  MockMvcRequestBuilders
+													.post(API.concat("/lote"))
+													.accept(JSON)
+													.contentType(JSON)
+													.content(json);
+		//verificação
+		mvc
+			.perform(request)
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(10))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[1].erro").value("Informe uma descrição valida."))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[2].id").value(10));
+		
+		Mockito.verify(usuarioService, Mockito.times(1)).obterPorId(1l);
+		Mockito.verify(service, Mockito.times(1)).salvarLote(Mockito.anyList());
+	}
+}
@@ -0,0 +1,245 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.BunkaBytes.IFriends.api.dto.AtualizaStatusDto;
+import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.api.dto.RecorrenciaDto;
+import com.BunkaBytes.IFriends.config.ContagemConsultas;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.Periodicidade;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.RecorrenciaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Quantidade máxima de comandos SQL por operação. Se um destes testes quebrar, alguma
+ * mudança adicionou consultas ao caminho (ou um N+1); ajuste o limite só de propósito.
+ */
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+@AutoConfigureMockMvc
+public class OrcamentoConsultasTest {
+	
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	RecorrenciaService recorrenciaService;
+	
+	Usuario usuario;
+	Lancamento lancamento;
+	
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("orcamento")
+											.email("orcamento." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+		lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento = lancamentoService.salvar(lancamento);
+	}
+	
+	@Test
+	public void deveAtualizarUmLancamentoDentroDoOrcamento() throws Exception {
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId())
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(dto())))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+		contagem.encerrar();
+		
+		//inclui o incremento de sequencia_alteracao (sincronização incremental)
+		assertMaximo(contagem, 7);
+	}
+	
+	@Test
+	public void deveTrocarOStatusComUmUnicoComando() throws Exception {
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId() + "/atualizar-status")
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(new AtualizaStatusDto("EFETIVADO", usuario.getId()))))
+			.andExpect(MockMvcResultMatchers.status().isNoContent());
+		contagem.encerrar();
+		
+		//o UPDATE do lançamento mais o incremento de sequencia_alteracao
+		assertMaximo(contagem, 2);
+		Assertions.assertEquals(StatusLancamento.EFETIVADO, lancamentoRepository.findById(lancamento.getId()).get().getStatus());
+	}
+	
+	@Test
+	public void deveResponderNaoEncontradoAoAlterarLancamentoDeOutroUsuario() throws Exception {
+		Long outroUsuario = usuario.getId() + 1000;
+		
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId() + "/atualizar-status")
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(new AtualizaStatusDto("EFETIVADO", outroUsuario))))
+			.andExpect(MockMvcResultMatchers.status().isNotFound());
+		
+		LancamentoDto dto = dto();
+		dto.setUsuario(outroUsuario);
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId())
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isNotFound());
+		
+		Assertions.assertEquals(StatusLancamento.PENDENTE, lancamentoRepository.findById(lancamento.getId()).get().getStatus());
+	}
+	
+	@Test
+	public void deveSalvarUmLancamentoDentroDoOrcamento() throws Exception {
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.post(API)
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(dto())))
+			.andExpect(MockMvcResultMatchers.status().isCreated());
+		contagem.encerrar();
+		
+		//inclui o "next value" de lancamento_seq, que sai a cada 50 ids (duas vezes no primeiro uso):
+		//conforme a ordem dos testes ele cai ou não neste POST, então o limite já o considera
+		assertMaximo(contagem, 9);
+	}
+	
+	@Test
+	public void deveListarOsLancamentosDentroDoOrcamento() throws Exception {
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+		contagem.encerrar();
+		
+		//a leitura de sequencia_alteracao para o ETag mais a consulta
+		assertMaximo(contagem, 3);
+	}
+	
+	@Test
+	public void deveObterOSaldoDentroDoOrcamento() throws Exception {
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo"))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+		contagem.encerrar();
+		
+		//a leitura de sequencia_alteracao para o ETag mais a consulta
+		assertMaximo(contagem, 3);
+	}
+	
+	@Test
+	public void deveCriarUmParcelamentoDe60MesesDentroDoOrcamento() throws Exception {
+		RecorrenciaDto recorrencia = RecorrenciaDto.builder()
+										.descricao("Financiamento")
+										.valor(BigDecimal.TEN)
+										.tipo("DESPESA")
+										.periodicidade("MENSAL")
+										.mes(1)
+										.ano(2022)
+										.quantidade(60)
+										.parcelada(true)
+										.usuario(usuario.getId())
+										.build();
+		
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.post("/api/recorrencias")
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(recorrencia)))
+			.andExpect(MockMvcResultMatchers.status().isCreated())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.geradas").value(60));
+		contagem.encerrar();
+		
+		//usuário, sequences, inserts em lotes de 50 e os contadores de saldo, resumo e alteração
+		assertMaximo(contagem, 16);
+	}
+	
+	@Test
+	public void deveCancelarUmaSerieComUmUnicoUpdate() throws Exception {
+		Recorrencia recorrencia = recorrenciaService.criar(Recorrencia.builder()
+																.descricao("Academia")
+																.valor(BigDecimal.TEN)
+																.tipo(TipoLancamento.DESPESA)
+																.periodicidade(Periodicidade.MENSAL)
+																.mesInicial(1)
+																.anoInicial(2022)
+																.quantidade(60)
+																.usuario(usuario)
+																.build());
+		
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.put("/api/recorrencias/" + recorrencia.getId() + "/cancelar")
+						.param("usuario", usuario.getId().toString())
+						.param("mes", "1")
+						.param("ano", "2023"))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.afetados").value(48));
+		contagem.encerrar();
+		
+		//a leitura da série, o UPDATE das 48 ocorrências, o da série e o de sequencia_alteracao
+		assertMaximo(contagem, 5);
+	}
+	
+	@Test
+	public void deveApontarSelectsIdenticosRepetidos() {
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		for(int i = 0; i < 3; i++) {
+			lancamentoRepository.findById(lancamento.getId());
+		}
+		contagem.encerrar();
+		
+		Assertions.assertEquals(3, contagem.getTotal());
+		Assertions.assertEquals(1, contagem.getRepetidas(3).size());
+		Assertions.assertTrue(contagem.getRepetidas(4).isEmpty());
+	}
+	
+	private void assertMaximo(ContagemConsultas contagem, int limite) {
+		Assertions.assertTrue(contagem.getTotal() <= limite,
+				"Executou " + contagem.getTotal() + " comandos SQL, o máximo é " + limite);
+		Assertions.assertTrue(contagem.getRepetidas(3).isEmpty(), "SELECT repetido: " + contagem.getRepetidas(3));
+	}
+	
+	private LancamentoDto dto() {
+		return LancamentoDto.builder()
+				.descricao("Aluguel")
+				.mes(1)
+				.ano(2022)
+				.valor(BigDecimal.TEN)
+				.tipo("DESPESA")
+				.usuario(usuario.getId())
+				.build();
+	}
+}
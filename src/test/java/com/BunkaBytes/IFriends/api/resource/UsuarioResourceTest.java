@@ -19,7 +19,10 @@ import com.BunkaBytes.IFriends.api.dto.UsuarioDto;
 import com.BunkaBytes.IFriends.exception.ErroAutenticacao;
 import com.BunkaBytes.IFriends.exception.RegraNegocioException;
 import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.service.AlteracaoUsuarioService;
 import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.ResumoLancamentoService;
+import com.BunkaBytes.IFriends.service.SaldoUsuarioService;
 import com.BunkaBytes.IFriends.service.UsuarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -38,9 +41,18 @@ public class UsuarioResourceTest {
 	@MockBean
 	UsuarioService service;
 
+	@MockBean
+	AlteracaoUsuarioService alteracaoService;
+	
 	@MockBean
 	LancamentoService lancamentoService;
 	
+	@MockBean
+	SaldoUsuarioService saldoService;
+	
+	@MockBean
+	ResumoLancamentoService resumoService;
+	
 	@Test
 	public void deveAutenticarUmUsuario() throws Exception{
 		//cenário
@@ -0,0 +1,179 @@
+package com.BunkaBytes.IFriends.api.resource;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.BunkaBytes.IFriends.api.dto.AtualizaStatusDto;
+import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.config.ContagemConsultas;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.SincronizacaoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+@AutoConfigureMockMvc
+public class VersaoLancamentoTest {
+	
+	static final String API = "/api/lancamentos";
+	static final MediaType JSON = MediaType.APPLICATION_JSON;
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	SincronizacaoService sincronizacaoService;
+	
+	Usuario usuario;
+	Lancamento lancamento;
+	
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("versao")
+											.email("versao." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+		lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento = lancamentoService.salvar(lancamento);
+	}
+	
+	@Test
+	public void deveInformarAVersaoComoETag() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(API + "/" + lancamento.getId()))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\""))
+			.andExpect(MockMvcResultMatchers.jsonPath("versao").value(0));
+		
+		mvc.perform(MockMvcRequestBuilders.get(API + "/" + lancamento.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+			.andExpect(MockMvcResultMatchers.status().isNotModified());
+	}
+	
+	@Test
+	public void deveAtualizarComIfMatchDaVersaoAtualERejeitarVersaoAntiga() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId())
+						.header(HttpHeaders.IF_MATCH, "\"0\"")
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(dto("Aluguel"))))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""));
+		
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId())
+						.header(HttpHeaders.IF_MATCH, "\"0\"")
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(dto("Condomínio"))))
+			.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+		
+		Lancamento gravado = lancamentoRepository.findById(lancamento.getId()).get();
+		Assertions.assertEquals("Aluguel", gravado.getDescricao());
+		Assertions.assertEquals(1l, gravado.getVersao());
+	}
+	
+	@Test
+	public void deveConferirAVersaoNaTrocaDeStatus() throws Exception {
+		String corpo = objectMapper.writeValueAsString(new AtualizaStatusDto("EFETIVADO", usuario.getId()));
+		
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId() + "/atualizar-status")
+						.header(HttpHeaders.IF_MATCH, "\"7\"")
+						.contentType(JSON)
+						.content(corpo))
+			.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+		
+		mvc.perform(MockMvcRequestBuilders.put(API + "/" + lancamento.getId() + "/atualizar-status")
+						.header(HttpHeaders.IF_MATCH, "\"0\"")
+						.contentType(JSON)
+						.content(corpo))
+			.andExpect(MockMvcResultMatchers.status().isNoContent())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""));
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoSoComALeituraDaSequenciaEnquantoNaoHouverEscrita() throws Exception {
+		String etagListagem = mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()))
+									.andExpect(MockMvcResultMatchers.status().isOk())
+									.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String etagSaldo = mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo"))
+									.andExpect(MockMvcResultMatchers.status().isOk())
+									.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		Assertions.assertNotNull(etagListagem);
+		
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).header(HttpHeaders.IF_NONE_MATCH, etagListagem))
+			.andExpect(MockMvcResultMatchers.status().isNotModified());
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo").header(HttpHeaders.IF_NONE_MATCH, etagSaldo))
+			.andExpect(MockMvcResultMatchers.status().isNotModified());
+		contagem.encerrar();
+		//uma leitura de sequencia_alteracao por requisição, sem a consulta da listagem ou do saldo
+		Assertions.assertEquals(2, contagem.getTotal());
+		
+		mvc.perform(MockMvcRequestBuilders.post(API)
+						.contentType(JSON)
+						.content(objectMapper.writeValueAsString(dto("Internet"))))
+			.andExpect(MockMvcResultMatchers.status().isCreated());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).header(HttpHeaders.IF_NONE_MATCH, etagListagem))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2));
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo").header(HttpHeaders.IF_NONE_MATCH, etagSaldo))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+	
+	//a escrita feita em outro nó só aparece em sequencia_alteracao, e o ETag precisa mudar com ela
+	@Test
+	public void deveMudarOETagComAEscritaDeOutroNo() throws Exception {
+		String etag = mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()))
+							.andExpect(MockMvcResultMatchers.status().isOk())
+							.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		sincronizacaoService.avancar(usuario.getId());
+		
+		mvc.perform(MockMvcRequestBuilders.get(API).param("usuario", usuario.getId().toString()).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+		mvc.perform(MockMvcRequestBuilders.get("/api/usuarios/" + usuario.getId() + "/saldo").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(MockMvcResultMatchers.status().isOk());
+	}
+	
+	private LancamentoDto dto(String descricao) {
+		return LancamentoDto.builder()
+				.descricao(descricao)
+				.mes(1)
+				.ano(2022)
+				.valor(BigDecimal.TEN)
+				.tipo("DESPESA")
+				.usuario(usuario.getId())
+				.build();
+	}
+}
@@ -0,0 +1,290 @@
+package com.BunkaBytes.IFriends.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.BunkaBytes.IFriends.api.dto.AtualizaStatusDto;
+import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/*
+ * Teste de carga ponta a ponta contra o perfil H2 (application-teste.properties): gera a
+ * base sintética, sobe a aplicação numa porta aleatória e dispara requisições HTTP reais
+ * de várias threads contra LancamentoResource e UsuarioResource. Grava p50, p99, máximo e
+ * vazão de cada endpoint em JSON.
+ *
+ * Não roda no build normal. Exemplo:
+ * mvn test -Dtest=CargaLancamentosTest -Dcarga=true -Dcarga.usuarios=50 -Dcarga.lancamentos=2000 -Dcarga.threads=16
+ *
+ * Parâmetros (propriedades de sistema): carga.usuarios, carga.lancamentos (por usuário),
+ * carga.threads, carga.aquecimento e carga.segundos (duração da medição) e carga.saida.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("teste")
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+public class CargaLancamentosTest {
+
+	@LocalServerPort
+	int porta;
+
+	@Autowired
+	UsuarioService usuarioService;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	public void deveMedirLatenciaEVazaoPorEndpoint() throws Exception {
+		int usuarios = Integer.getInteger("carga.usuarios", 20);
+		int lancamentosPorUsuario = Integer.getInteger("carga.lancamentos", 500);
+		int threads = Integer.getInteger("carga.threads", 8);
+		int aquecimento = Integer.getInteger("carga.aquecimento", 5);
+		int segundos = Integer.getInteger("carga.segundos", 30);
+		Path saida = Paths.get(System.getProperty("carga.saida", "target/carga/resultado.json"));
+
+		Map<Long, List<Long>> base = new GeradorDados(usuarioService, lancamentoService, 42).gerar(usuarios, lancamentosPorUsuario);
+		List<Long> idsUsuarios = new ArrayList<>(base.keySet());
+
+		HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		List<Operacao> operacoes = operacoes(base, idsUsuarios);
+
+		executar(cliente, operacoes, threads, aquecimento);
+		long inicio = System.nanoTime();
+		Map<String, Medicoes> medicoes = executar(cliente, operacoes, threads, segundos);
+		double duracao = (System.nanoTime() - inicio) / 1e9;
+
+		List<ResultadoEndpoint> resultados = new ArrayList<>();
+		Medicoes total = new Medicoes();
+		for(Operacao operacao : operacoes) {
+			Medicoes medicao = medicoes.getOrDefault(operacao.nome, new Medicoes());
+			resultados.add(resumir(operacao.nome, medicao, duracao));
+			total.juntar(medicao);
+		}
+		resultados.add(resumir("TOTAL", total, duracao));
+
+		Map<String, Object> relatorio = new LinkedHashMap<>();
+		Map<String, Object> parametros = new LinkedHashMap<>();
+		parametros.put("usuarios", usuarios);
+		parametros.put("lancamentosPorUsuario", lancamentosPorUsuario);
+		parametros.put("threads", threads);
+		parametros.put("segundos", segundos);
+		relatorio.put("parametros", parametros);
+		relatorio.put("duracaoSegundos", duracao);
+		relatorio.put("endpoints", resultados);
+
+		Files.createDirectories(saida.toAbsolutePath().getParent());
+		objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(saida.toFile(), relatorio);
+
+		Assertions.assertTrue(total.quantidade > 0);
+	}
+
+	/*
+	 * Mistura de requisições com peso: leitura predomina, como no uso real do app.
+	 */
+	private List<Operacao> operacoes(Map<Long, List<Long>> base, List<Long> idsUsuarios) {
+		String url = "http://localhost:" + porta;
+		Function<ThreadLocalRandom, Long> usuario = aleatorio -> idsUsuarios.get(aleatorio.nextInt(idsUsuarios.size()));
+
+		return Arrays.asList(
+			new Operacao("GET /api/lancamentos", 20, aleatorio ->
+				get(url + "/api/lancamentos?usuario=" + usuario.apply(aleatorio))),
+			new Operacao("GET /api/lancamentos?descricao", 10, aleatorio ->
+				get(url + "/api/lancamentos?descricao=merc&usuario=" + usuario.apply(aleatorio))),
+			new Operacao("GET /api/lancamentos?limite", 15, aleatorio ->
+				get(url + "/api/lancamentos?limite=50&usuario=" + usuario.apply(aleatorio))),
+			new Operacao("GET /api/usuarios/{id}/saldo", 20, aleatorio ->
+				get(url + "/api/usuarios/" + usuario.apply(aleatorio) + "/saldo")),
+			new Operacao("GET /api/usuarios/{id}/resumo", 10, aleatorio ->
+				get(url + "/api/usuarios/" + usuario.apply(aleatorio) + "/resumo?agrupar=ano,mes")),
+			new Operacao("POST /api/lancamentos", 15, aleatorio -> {
+				Long idUsuario = usuario.apply(aleatorio);
+				Lancamento lancamento = new GeradorDados(null, null, aleatorio.nextLong())
+											.criarLancamento(Usuario.builder().id(idUsuario).build());
+				LancamentoDto dto = LancamentoDto.builder()
+										.descricao(lancamento.getDescricao())
+										.mes(lancamento.getMes())
+										.ano(lancamento.getAno())
+										.valor(lancamento.getValor())
+										.tipo(lancamento.getTipo().name())
+										.usuario(idUsuario)
+										.build();
+				return enviar("POST", url + "/api/lancamentos", dto);
+			}),
+			new Operacao("PUT /api/lancamentos/{id}/atualizar-status", 10, aleatorio -> {
+				Long idUsuario = usuario.apply(aleatorio);
+				List<Long> ids = base.get(idUsuario);
+				String status = aleatorio.nextBoolean() ? "EFETIVADO" : "PENDENTE";
+				return enviar("PUT", url + "/api/lancamentos/" + ids.get(aleatorio.nextInt(ids.size())) + "/atualizar-status",
+								new AtualizaStatusDto(status, idUsuario));
+			}));
+	}
+
+	private Map<String, Medicoes> executar(HttpClient cliente, List<Operacao> operacoes, int threads, int segundos) throws Exception {
+		int pesoTotal = operacoes.stream().mapToInt(operacao -> operacao.peso).sum();
+		long fim = System.nanoTime() + segundos * 1_000_000_000l;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Map<String, Medicoes>>> tarefas = new ArrayList<>();
+			for(int t = 0; t < threads; t++) {
+				tarefas.add(executor.submit(() -> {
+					Map<String, Medicoes> medicoes = new LinkedHashMap<>();
+					ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+					while(System.nanoTime() < fim) {
+						Operacao operacao = sortear(operacoes, aleatorio.nextInt(pesoTotal));
+						HttpRequest requisicao = operacao.requisicao.apply(aleatorio);
+
+						long inicio = System.nanoTime();
+						boolean sucesso;
+						try {
+							HttpResponse<byte[]> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+							sucesso = resposta.statusCode() < 300;
+						} catch (Exception e) {
+							sucesso = false;
+						}
+						medicoes.computeIfAbsent(operacao.nome, nome -> new Medicoes()).registrar(System.nanoTime() - inicio, sucesso);
+					}
+					return medicoes;
+				}));
+			}
+
+			Map<String, Medicoes> medicoes = new LinkedHashMap<>();
+			for(Future<Map<String, Medicoes>> tarefa : tarefas) {
+				tarefa.get().forEach((nome, medicao) -> medicoes.computeIfAbsent(nome, n -> new Medicoes()).juntar(medicao));
+			}
+			return medicoes;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Operacao sortear(List<Operacao> operacoes, int sorteio) {
+		for(Operacao operacao : operacoes) {
+			sorteio -= operacao.peso;
+			if(sorteio < 0) {
+				return operacao;
+			}
+		}
+		return operacoes.get(operacoes.size() - 1);
+	}
+
+	private ResultadoEndpoint resumir(String endpoint, Medicoes medicao, double duracao) {
+		long[] latencias = Arrays.copyOf(medicao.latencias, medicao.quantidade);
+		Arrays.sort(latencias);
+		return new ResultadoEndpoint(
+				endpoint,
+				medicao.quantidade,
+				medicao.erros,
+				milissegundos(percentil(latencias, 0.50)),
+				milissegundos(percentil(latencias, 0.99)),
+				milissegundos(latencias.length == 0 ? 0 : latencias[latencias.length - 1]),
+				medicao.quantidade / duracao);
+	}
+
+	//percentil pelo posto mais próximo
+	private long percentil(long[] ordenadas, double percentil) {
+		if(ordenadas.length == 0) {
+			return 0;
+		}
+		int posicao = (int) Math.ceil(percentil * ordenadas.length) - 1;
+		return ordenadas[Math.max(0, posicao)];
+	}
+
+	private double milissegundos(long nanos) {
+		return nanos / 1e6;
+	}
+
+	private HttpRequest get(String url) {
+		return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+	}
+
+	private HttpRequest enviar(String metodo, String url, Object corpo) {
+		try {
+			return HttpRequest.newBuilder(URI.create(url))
+						.timeout(Duration.ofSeconds(60))
+						.header("Content-Type", "application/json")
+						.method(metodo, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(corpo)))
+						.build();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@AllArgsConstructor
+	private static class Operacao {
+		private final String nome;
+		private final int peso;
+		private final Function<ThreadLocalRandom, HttpRequest> requisicao;
+	}
+
+	private static class Medicoes {
+		private long[] latencias = new long[1024];
+		private int quantidade;
+		private long erros;
+
+		void registrar(long nanos, boolean sucesso) {
+			if(quantidade == latencias.length) {
+				latencias = Arrays.copyOf(latencias, quantidade * 2);
+			}
+			latencias[quantidade++] = nanos;
+			if(!sucesso) {
+				erros++;
+			}
+		}
+
+		void juntar(Medicoes outra) {
+			for(int i = 0; i < outra.quantidade; i++) {
+				registrar(outra.latencias[i], true);
+			}
+			erros += outra.erros;
+		}
+	}
+
+	@Data
+	@AllArgsConstructor
+	public static class ResultadoEndpoint {
+		private String endpoint;
+		private long requisicoes;
+		private long erros;
+		private double p50Ms;
+		private double p99Ms;
+		private double maximoMs;
+		private double requisicoesPorSegundo;
+	}
+}
@@ -0,0 +1,127 @@
+package com.BunkaBytes.IFriends.carga;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+
+/*
+ * Gera uma base sintética com N usuários e M lançamentos por usuário, gravados pelos
+ * próprios serviços (salvarLote) para que saldo, resumo e índice de descrição fiquem
+ * consistentes. A semente é fixa, então duas execuções geram a mesma base.
+ *
+ * Distribuições: anos concentrados nos mais recentes, despesas bem mais frequentes que
+ * receitas, a maioria dos lançamentos já efetivada, valores de despesa pequenos com
+ * cauda longa e receitas maiores e mais regulares.
+ */
+public class GeradorDados {
+
+	private static final String[] DESPESAS = {
+			"Mercado", "Padaria", "Aluguel", "Conta de luz", "Conta de água", "Internet", "Combustível",
+			"Farmácia", "Restaurante", "Academia", "Streaming", "Plano de saúde", "Material escolar",
+			"Manutenção do carro", "Presente de aniversário", "Condomínio", "Uber", "Cinema" };
+	private static final String[] RECEITAS = {
+			"Salário", "Freelance", "Bolsa de estudos", "Reembolso", "Venda de usado", "Rendimento poupança" };
+	private static final String[] COMPLEMENTOS = {
+			"", "", "", " - mensal", " do mês", " (parcela)", " extra", " com amigos", " família" };
+
+	private static final int LOTE = 1000;
+
+	private final UsuarioService usuarioService;
+	private final LancamentoService lancamentoService;
+	private final Random aleatorio;
+
+	public GeradorDados(UsuarioService usuarioService, LancamentoService lancamentoService, long semente) {
+		this.usuarioService = usuarioService;
+		this.lancamentoService = lancamentoService;
+		this.aleatorio = new Random(semente);
+	}
+
+	/*
+	 * Retorna, para cada usuário criado, os ids dos lançamentos gerados.
+	 */
+	public Map<Long, List<Long>> gerar(int usuarios, int lancamentosPorUsuario) {
+		Map<Long, List<Long>> gerados = new LinkedHashMap<>();
+		String prefixo = Long.toString(System.nanoTime(), 36);
+
+		for(int u = 0; u < usuarios; u++) {
+			Usuario usuario = usuarioService.salvarUsuario(Usuario.builder()
+									.nome("Usuário carga " + u)
+									.email("carga." + prefixo + "." + u + "@email.com")
+									.senha("senha")
+									.build());
+
+			List<Long> ids = new ArrayList<>(lancamentosPorUsuario);
+			List<Lancamento> lote = new ArrayList<>(LOTE);
+			for(int i = 0; i < lancamentosPorUsuario; i++) {
+				lote.add(criarLancamento(usuario));
+				if(lote.size() == LOTE || i == lancamentosPorUsuario - 1) {
+					lancamentoService.salvarLote(lote).forEach(lancamento -> ids.add(lancamento.getId()));
+					lote = new ArrayList<>(LOTE);
+				}
+			}
+			gerados.put(usuario.getId(), ids);
+		}
+		return gerados;
+	}
+
+	public Lancamento criarLancamento(Usuario usuario) {
+		boolean receita = aleatorio.nextInt(100) < 20;
+		String[] descricoes = receita ? RECEITAS : DESPESAS;
+
+		return Lancamento.builder()
+				.descricao(descricoes[aleatorio.nextInt(descricoes.length)] + COMPLEMENTOS[aleatorio.nextInt(COMPLEMENTOS.length)])
+				.ano(sortearAno())
+				.mes(aleatorio.nextInt(12) + 1)
+				.tipo(receita ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+				.status(sortearStatus())
+				.valor(receita ? sortearValorReceita() : sortearValorDespesa())
+				.usuario(usuario)
+				.build();
+	}
+
+	//metade no ano corrente, um terço no anterior e o resto espalhado pelos três antes dele
+	private int sortearAno() {
+		int atual = LocalDate.now().getYear();
+		int sorteio = aleatorio.nextInt(100);
+		if(sorteio < 50) {
+			return atual;
+		}
+		if(sorteio < 83) {
+			return atual - 1;
+		}
+		return atual - 2 - aleatorio.nextInt(3);
+	}
+
+	private StatusLancamento sortearStatus() {
+		int sorteio = aleatorio.nextInt(100);
+		if(sorteio < 70) {
+			return StatusLancamento.EFETIVADO;
+		}
+		if(sorteio < 92) {
+			return StatusLancamento.PENDENTE;
+		}
+		return StatusLancamento.CANCELADO;
+	}
+
+	//log-normal: a maioria das despesas fica entre 10 e 300, com algumas bem maiores
+	private BigDecimal sortearValorDespesa() {
+		double valor = Math.exp(4 + 1.2 * aleatorio.nextGaussian());
+		return BigDecimal.valueOf(Math.max(1, Math.round(valor * 100)), 2);
+	}
+
+	private BigDecimal sortearValorReceita() {
+		double valor = 2500 + 900 * aleatorio.nextGaussian();
+		return BigDecimal.valueOf(Math.max(100, Math.round(valor * 100)), 2);
+	}
+}
@@ -0,0 +1,56 @@
+package com.BunkaBytes.IFriends.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class AnelShardsTest {
+
+	private static final int USUARIOS = 30_000;
+
+	@Test
+	public void deveDistribuirIdsSequenciaisEntreOsShards() {
+		AnelShards anel = new AnelShards(List.of("principal", "shard-1", "shard-2"));
+
+		Map<String, Integer> contagem = new HashMap<>();
+		for(long id = 1; id <= USUARIOS; id++) {
+			contagem.merge(anel.shardDe(id), 1, Integer::sum);
+		}
+
+		assertThat(contagem).hasSize(3);
+		assertThat(contagem.values()).allSatisfy(quantidade -> assertThat(quantidade).isBetween(USUARIOS / 5, USUARIOS / 2));
+	}
+
+	@Test
+	public void deveMoverSoOsUsuariosDoShardIncluido() {
+		AnelShards tres = new AnelShards(List.of("principal", "shard-1", "shard-2"));
+		AnelShards quatro = new AnelShards(List.of("principal", "shard-1", "shard-2", "shard-3"));
+
+		int movidos = 0;
+		for(long id = 1; id <= USUARIOS; id++) {
+			String antes = tres.shardDe(id);
+			String depois = quatro.shardDe(id);
+			if(!antes.equals(depois)) {
+				assertThat(depois).isEqualTo("shard-3");
+				movidos++;
+			}
+		}
+
+		//o esperado é um quarto dos usuários
+		assertThat(movidos).isBetween(USUARIOS / 8, USUARIOS * 3 / 8);
+	}
+
+	@Test
+	public void deveSerIndependenteDaOrdemDosShards() {
+		AnelShards anel = new AnelShards(List.of("principal", "shard-1", "shard-2"));
+		AnelShards invertido = new AnelShards(List.of("shard-2", "shard-1", "principal"));
+
+		for(long id = 1; id <= 1000; id++) {
+			assertThat(invertido.shardDe(id)).isEqualTo(anel.shardDe(id));
+		}
+	}
+}
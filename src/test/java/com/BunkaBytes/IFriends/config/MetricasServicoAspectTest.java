@@ -0,0 +1,43 @@
+package com.BunkaBytes.IFriends.config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.BunkaBytes.IFriends.service.LancamentoService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("teste")
+public class MetricasServicoAspectTest {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Test
+	public void deveExporTimersDeServicoRepositorioHibernateEHikariNoScrape() throws Exception {
+		lancamentoService.obterSaldoPorUsuario(1l);
+
+		mvc.perform(get("/actuator/prometheus"))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("ifriends_servico_seconds_bucket{")))
+			.andExpect(content().string(containsString("method=\"obterSaldoPorUsuario\"")))
+			.andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+			.andExpect(content().string(containsString("method=\"obterSaldoPorTipoLancamentoEUsuario\"")))
+			.andExpect(content().string(containsString("hibernate_statements_total")))
+			.andExpect(content().string(containsString("hikaricp_connections_pending")));
+	}
+}
@@ -0,0 +1,143 @@
+package com.BunkaBytes.IFriends.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.BunkaBytes.IFriends.api.dto.LancamentoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Primário e réplica são dois bancos H2 separados, sem replicação entre eles: o que cada
+ * leitura encontra mostra para qual dos dois ela foi.
+ */
+@SpringBootTest(properties = {
+		"ifriends.replicas.urls=" + RoteamentoDataSourceTest.REPLICA,
+		"ifriends.replicas.janela-leitura=" + RoteamentoDataSourceTest.JANELA
+})
+@ActiveProfiles("teste")
+@AutoConfigureMockMvc
+public class RoteamentoDataSourceTest {
+
+	static final String REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas";
+	static final long JANELA = 300;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@Autowired
+	HikariDataSource primarioDataSource;
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	static JdbcTemplate replica;
+
+	@BeforeAll
+	public static void criarReplica() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(REPLICA, "sa", "sa");
+		Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").schemas("financas").load().migrate();
+		replica = new JdbcTemplate(dataSource);
+	}
+
+	@AfterEach
+	public void limpar() {
+		ContextoLeitura.limpar();
+	}
+
+	@Test
+	public void deveLerDoPrimarioDentroDaJanelaEDaReplicaDepois() throws InterruptedException {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("roteamento").email("roteamento." + System.nanoTime() + "@email.com").senha("123").build());
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamentoService.salvar(lancamento);
+		ContextoLeitura.definir(usuario.getId());
+
+		assertThat(lancamentoService.listar(filtro(usuario.getId()))).hasSize(1);
+
+		Thread.sleep(JANELA + 100);
+		assertThat(lancamentoService.listar(filtro(usuario.getId()))).isEmpty();
+	}
+
+	@Test
+	public void deveLerDaReplicaQuemNaoEscreveuRecentemente() {
+		long idUsuario = 900_000l;
+		replica.update("INSERT INTO financas.usuario (id, nome, email, senha) VALUES (?, 'replica', 'replica@email.com', '123')", idUsuario);
+		replica.update("INSERT INTO financas.lancamento (id, descricao, mes, ano, id_usuario, valor, tipo, status, versao) "
+						+ "VALUES (1, 'somente na replica', 1, 2022, ?, 10, 'DESPESA', 'PENDENTE', 0)", idUsuario);
+		ContextoLeitura.definir(idUsuario);
+
+		List<LancamentoProjecao> lancamentos = lancamentoService.listar(filtro(idUsuario));
+
+		assertThat(lancamentos).extracting(LancamentoProjecao::getDescricao).containsExactly("somente na replica");
+	}
+
+	//a leitura do usuário no início do POST vai para a réplica, mas a escrita precisa ir para o primário
+	@Test
+	public void deveEscreverNoPrimarioMesmoDepoisDeLerDaReplicaNaRequisicao() throws Exception {
+		long idUsuario = 900_001l;
+		String inserirUsuario = "INSERT INTO financas.usuario (id, nome, email, senha) VALUES (?, 'ambos', 'ambos@email.com', '123')";
+		replica.update(inserirUsuario, idUsuario);
+		new JdbcTemplate(primarioDataSource).update(inserirUsuario, idUsuario);
+
+		LancamentoDto dto = LancamentoDto.builder().descricao("escrita").mes(1).ano(2022).valor(BigDecimal.TEN).tipo("DESPESA").usuario(idUsuario).build();
+		mvc.perform(MockMvcRequestBuilders.post("/api/lancamentos").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(dto)))
+			.andExpect(MockMvcResultMatchers.status().isCreated());
+
+		String contar = "SELECT COUNT(*) FROM financas.lancamento WHERE id_usuario = ?";
+		assertThat(new JdbcTemplate(primarioDataSource).queryForObject(contar, Long.class, idUsuario)).isEqualTo(1);
+		assertThat(replica.queryForObject(contar, Long.class, idUsuario)).isZero();
+	}
+
+	@Test
+	public void deveIdentificarOUsuarioPeloParametroOuPeloCaminho() {
+		MockHttpServletRequest parametro = new MockHttpServletRequest("GET", "/api/lancamentos");
+		parametro.setQueryString("descricao=luz&usuario=7");
+		assertThat(UsuarioRequisicaoFilter.usuarioDa(parametro)).isEqualTo(7l);
+
+		//o corpo de formulário não é lido: os endpoints de corpo cru precisam dele intacto
+		MockHttpServletRequest formulario = new MockHttpServletRequest("POST", "/api/lancamentos/importar");
+		formulario.setContentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+		formulario.setParameter("usuario", "7");
+		assertThat(UsuarioRequisicaoFilter.usuarioDa(formulario)).isNull();
+
+		assertThat(UsuarioRequisicaoFilter.usuarioDa(new MockHttpServletRequest("GET", "/api/usuarios/8/saldo"))).isEqualTo(8l);
+		assertThat(UsuarioRequisicaoFilter.usuarioDa(new MockHttpServletRequest("GET", "/api/lancamentos/9"))).isNull();
+	}
+
+	private Lancamento filtro(Long idUsuario) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(idUsuario).build());
+		return filtro;
+	}
+}
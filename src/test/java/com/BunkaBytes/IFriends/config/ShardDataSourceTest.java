@@ -0,0 +1,150 @@
+package com.BunkaBytes.IFriends.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.BunkaBytes.IFriends.api.dto.DistribuicaoShardDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.service.LancamentoService;
+import com.BunkaBytes.IFriends.service.UsuarioService;
+
+/*
+ * Principal e dois shards em bancos H2 separados; o que cada banco tem mostra para onde
+ * foram as escritas de cada usuário.
+ */
+@SpringBootTest(properties = {
+		"ifriends.shards.urls=" + ShardDataSourceTest.SHARD_1 + "," + ShardDataSourceTest.SHARD_2,
+		"ifriends.shards.cache-diretorio=200ms",
+		"ifriends.shards.espera-mudanca=0s"
+})
+@ActiveProfiles("teste")
+public class ShardDataSourceTest {
+
+	static final String SHARD_1 = "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas";
+	static final String SHARD_2 = "jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas";
+
+	@Autowired
+	UsuarioService usuarioService;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	RoteadorShards roteador;
+
+	@Autowired
+	RebalanceamentoShards rebalanceamento;
+
+	@Test
+	public void deveGravarOsLancamentosDeCadaUsuarioNoShardDoAnel() {
+		Set<String> usados = new HashSet<>();
+		for(int i = 0; i < 12; i++) {
+			Usuario usuario = criarUsuario();
+			Lancamento lancamento = lancamentoService.salvar(criarLancamento(usuario));
+			String shard = roteador.shardNoAnel(usuario.getId());
+			usados.add(shard);
+
+			assertThat(roteador.shardDo(usuario.getId())).isEqualTo(shard);
+			for(String outro : roteador.shards()) {
+				assertThat(contarLancamentos(outro, usuario.getId())).isEqualTo(outro.equals(shard) ? 1 : 0);
+			}
+			assertThat(lancamentoService.listar(filtro(usuario))).hasSize(1);
+			assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("-10");
+			assertThat(usuarioService.obterPorId(usuario.getId())).isPresent();
+			//sem o usuário, a busca pelo id procura em cada shard
+			assertThat(lancamentoService.obterProjecaoPorId(lancamento.getId())).isPresent();
+		}
+		assertThat(usados).hasSizeGreaterThan(1);
+	}
+
+	@Test
+	public void deveMoverOsDadosDoUsuarioEntreShards() {
+		Usuario usuario = criarUsuario();
+		lancamentoService.salvar(criarLancamento(usuario));
+		lancamentoService.salvar(criarLancamento(usuario));
+		String noAnel = roteador.shardNoAnel(usuario.getId());
+		String outro = roteador.shards().stream().filter(shard -> !shard.equals(noAnel)).findFirst().get();
+
+		long inicio = System.nanoTime();
+		rebalanceamento.mover(usuario.getId(), outro);
+
+		//os outros nós só veem a marca de mudança quando o cache do diretório expira
+		assertThat(System.nanoTime() - inicio).isGreaterThanOrEqualTo(roteador.validadeDiretorio().toNanos());
+		assertThat(roteador.shardDo(usuario.getId())).isEqualTo(outro);
+		assertThat(contarLancamentos(outro, usuario.getId())).isEqualTo(2);
+		assertThat(contarLancamentos(noAnel, usuario.getId())).isZero();
+		assertThat(lancamentoService.listar(filtro(usuario))).hasSize(2);
+		assertThat(lancamentoService.obterSaldoPorUsuario(usuario.getId())).isEqualByComparingTo("-20");
+		assertThat(rebalanceamento.listarPendentes()).containsEntry(usuario.getId(), noAnel);
+
+		rebalanceamento.mover(usuario.getId(), noAnel);
+
+		assertThat(contarLancamentos(noAnel, usuario.getId())).isEqualTo(2);
+		assertThat(contarLancamentos(outro, usuario.getId())).isZero();
+		assertThat(rebalanceamento.listarPendentes()).doesNotContainKey(usuario.getId());
+		assertThat(lancamentoService.salvar(criarLancamento(usuario)).getId()).isNotNull();
+		assertThat(lancamentoService.listar(filtro(usuario))).hasSize(3);
+	}
+
+	@Test
+	public void deveSomarTodosOsShardsNaDistribuicao() {
+		Usuario usuario = criarUsuario();
+		lancamentoService.salvar(criarLancamento(usuario));
+
+		List<DistribuicaoShardDto> distribuicao = rebalanceamento.distribuicao();
+
+		assertThat(distribuicao).extracting(DistribuicaoShardDto::getShard).containsExactlyElementsOf(roteador.shards());
+		for(DistribuicaoShardDto shard : distribuicao) {
+			Long total = roteador.jdbc(shard.getShard()).queryForObject("SELECT COUNT(*) FROM financas.lancamento", Long.class);
+			assertThat(shard.getLancamentos()).isEqualTo(total);
+		}
+	}
+
+	@Test
+	public void deveRecusarLoteComUsuariosDeShardsDiferentes() {
+		Usuario primeiro = criarUsuario();
+		Usuario segundo = criarUsuario();
+		while(roteador.shardDo(segundo.getId()).equals(roteador.shardDo(primeiro.getId()))) {
+			segundo = criarUsuario();
+		}
+
+		List<Lancamento> lote = new ArrayList<>(List.of(criarLancamento(primeiro), criarLancamento(segundo)));
+
+		assertThatThrownBy(() -> lancamentoService.salvarLote(lote)).isInstanceOf(RegraNegocioException.class);
+	}
+
+	private Usuario criarUsuario() {
+		return usuarioService.salvarUsuario(Usuario.builder().nome("shard").email("shard." + System.nanoTime() + "@email.com").senha("123").build());
+	}
+
+	private Lancamento criarLancamento(Usuario usuario) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setValor(BigDecimal.TEN);
+		return lancamento;
+	}
+
+	private long contarLancamentos(String shard, Long idUsuario) {
+		return roteador.jdbc(shard).queryForObject("SELECT COUNT(*) FROM financas.lancamento WHERE id_usuario = ?", Long.class, idUsuario);
+	}
+
+	private Lancamento filtro(Usuario usuario) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(usuario.getId()).build());
+		return filtro;
+	}
+}
@@ -0,0 +1,35 @@
+package com.BunkaBytes.IFriends.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("teste")
+public class VerificacaoIndicesTest {
+
+	@Autowired
+	VerificacaoIndices verificacao;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void deveEncontrarTodosOsIndicesCriadosPelasMigracoes() {
+		assertThat(verificacao.verificar()).isEmpty();
+	}
+
+	@Test
+	public void deveApontarIndiceRemovido() {
+		jdbcTemplate.execute("DROP INDEX financas.ix_lancamento_saldo");
+		try {
+			assertThat(verificacao.verificar()).containsExactly("lancamento.ix_lancamento_saldo");
+		} finally {
+			jdbcTemplate.execute("CREATE INDEX financas.ix_lancamento_saldo ON financas.lancamento (id_usuario, tipo, valor)");
+		}
+	}
+}
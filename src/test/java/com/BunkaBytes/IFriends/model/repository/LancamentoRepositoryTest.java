@@ -2,7 +2,15 @@ package com.BunkaBytes.IFriends.model.repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import org.junit.jupiter.api.Test;
@@ -12,12 +20,16 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
 import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
 import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("teste")
@@ -73,6 +85,119 @@ public class LancamentoRepositoryTest {
 		assertThat(lancamentoEncontrado.isPresent()).isTrue();
 	}
 	
+	@Test
+	public void deveBuscarLancamentosPaginadosPorKeyset() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		entityManager.persist(usuario);
+		
+		for(int mes = 3; mes >= 1; mes--) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setMes(mes);
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+		}
+		
+		List<LancamentoProjecao> primeiraPagina = repository.buscarPagina(usuario.getId(), "", null, null, null, 0, 0, 0l, PageRequest.of(0, 2));
+		assertThat(primeiraPagina).extracting(LancamentoProjecao::getMes).containsExactly(1, 2);
+		
+		LancamentoProjecao ultimo = primeiraPagina.get(1);
+		List<LancamentoProjecao> segundaPagina = repository.buscarPagina(usuario.getId(), "", null, null, null, ultimo.getAno(), ultimo.getMes(), ultimo.getId(), PageRequest.of(0, 2));
+		assertThat(segundaPagina).extracting(LancamentoProjecao::getMes).containsExactly(3);
+	}
+	
+	@Test
+	public void devePercorrerOsLancamentosDoUsuarioEmStream() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		entityManager.persist(usuario);
+		
+		for(int i = 0; i < 3; i++) {
+			Lancamento lancamento = criarLancamento();
+			lancamento.setUsuario(usuario);
+			entityManager.persist(lancamento);
+		}
+		
+		try (Stream<LancamentoProjecao> stream = repository.streamPorUsuario(usuario.getId())) {
+			List<LancamentoProjecao> lancamentos = stream.collect(Collectors.toList());
+			assertThat(lancamentos).hasSize(3);
+			assertThat(lancamentos).extracting(LancamentoProjecao::getUsuario).containsOnly(usuario.getId());
+		}
+	}
+	
+	@Test
+	public void deveListarProjecoesFiltrandoPelaDescricao() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		entityManager.persist(usuario);
+		
+		Lancamento aluguel = criarLancamento();
+		aluguel.setDescricao("Aluguel de Março");
+		aluguel.setUsuario(usuario);
+		entityManager.persist(aluguel);
+		
+		Lancamento mercado = criarLancamento();
+		mercado.setDescricao("mercado");
+		mercado.setUsuario(usuario);
+		entityManager.persist(mercado);
+		
+		List<LancamentoProjecao> lancamentos = repository.listar(usuario.getId(), "ALUGUEL", null, null, null);
+		
+		assertThat(lancamentos).extracting(LancamentoProjecao::getId).containsExactly(aluguel.getId());
+	}
+	
+	@Test
+	public void deveFiltrarPorFaixasListasEOrdenacao() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		entityManager.persist(usuario);
+		
+		Lancamento dezembro = persistir(usuario, 2021, 12, 50, StatusLancamento.EFETIVADO);
+		Lancamento janeiro = persistir(usuario, 2022, 1, 200, StatusLancamento.PENDENTE);
+		persistir(usuario, 2022, 2, 5, StatusLancamento.PENDENTE);
+		persistir(usuario, 2022, 3, 80, StatusLancamento.CANCELADO);
+		persistir(usuario, 2022, 4, 90, StatusLancamento.PENDENTE);
+		
+		FiltroLancamento filtro = FiltroLancamento.builder()
+									.usuario(usuario.getId())
+									.periodoInicial(YearMonth.of(2021, 12))
+									.periodoFinal(YearMonth.of(2022, 3))
+									.valorMinimo(BigDecimal.valueOf(10))
+									.status(EnumSet.of(StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO))
+									.ordem(Arrays.asList("-valor"))
+									.build();
+		
+		List<LancamentoProjecao> lancamentos = repository.filtrar(filtro, LancamentoProjecao.class);
+		
+		assertThat(lancamentos).extracting(LancamentoProjecao::getId).containsExactly(janeiro.getId(), dezembro.getId());
+		
+		filtro.setLimite(1);
+		assertThat(repository.filtrar(filtro, LancamentoProjecao.class)).extracting(LancamentoProjecao::getId).containsExactly(janeiro.getId());
+	}
+	
+	//a segunda consulta tem a mesma assinatura e reaproveita o JPQL compilado, com outros valores
+	@Test
+	public void deveReaproveitarAConsultaCompiladaComOutrosValores() {
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		entityManager.persist(usuario);
+		
+		Lancamento marco = persistir(usuario, 2022, 3, 10, StatusLancamento.PENDENTE);
+		Lancamento abril = persistir(usuario, 2022, 4, 10, StatusLancamento.PENDENTE);
+		
+		FiltroLancamento filtro = FiltroLancamento.builder().usuario(usuario.getId()).meses(Collections.singleton(3)).build();
+		assertThat(repository.filtrar(filtro, Lancamento.class)).extracting(Lancamento::getId).containsExactly(marco.getId());
+		
+		filtro.setMeses(new HashSet<>(Arrays.asList(4, 5)));
+		assertThat(repository.filtrar(filtro, Lancamento.class)).extracting(Lancamento::getId).containsExactly(abril.getId());
+	}
+	
+	private Lancamento persistir(Usuario usuario, int ano, int mes, long valor, StatusLancamento status) {
+		Lancamento lancamento = criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setAno(ano);
+		lancamento.setMes(mes);
+		lancamento.setValor(BigDecimal.valueOf(valor));
+		lancamento.setStatus(status);
+		entityManager.persist(lancamento);
+		return lancamento;
+	}
+	
 	private Lancamento criarEPersistirUmLancamento() {
 		Lancamento lancamento = criarLancamento();
 		entityManager.persist(lancamento);
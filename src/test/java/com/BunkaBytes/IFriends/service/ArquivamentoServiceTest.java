@@ -0,0 +1,172 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.api.dto.ResumoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class ArquivamentoServiceTest {
+	
+	private static final int ANO_FECHADO = 2015;
+	
+	@Autowired
+	ArquivamentoService service;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	SaldoUsuarioService saldoService;
+	
+	@Autowired
+	ResumoLancamentoService resumoService;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("arquivo")
+											.email("arquivo." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+	}
+	
+	@Test
+	public void deveMoverAnoFechadoMantendoSaldoEResumo() {
+		//cenário
+		int anoAtual = LocalDate.now().getYear();
+		lancamentoService.salvarLote(Arrays.asList(
+				lancamento(ANO_FECHADO, TipoLancamento.RECEITA, "100.00"),
+				lancamento(ANO_FECHADO, TipoLancamento.DESPESA, "30.00"),
+				lancamento(anoAtual, TipoLancamento.DESPESA, "5.00")));
+		BigDecimal saldoAntes = lancamentoService.obterSaldoPorUsuario(usuario.getId());
+		Assertions.assertTrue(service.listarPendentes().get(ANO_FECHADO).contains(usuario.getId()));
+		
+		//execução
+		int arquivados = service.arquivar(usuario.getId(), ANO_FECHADO);
+		
+		//verificação
+		Assertions.assertEquals(2, arquivados);
+		Assertions.assertEquals(Collections.singletonList(anoAtual), anos(lancamentoService.listar(filtro())));
+		Assertions.assertEquals(2, service.listarArquivados(usuario.getId(), ANO_FECHADO).size());
+		Assertions.assertFalse(service.listarPendentes().getOrDefault(ANO_FECHADO, Collections.emptyList()).contains(usuario.getId()));
+		
+		Assertions.assertEquals(0, saldoAntes.compareTo(lancamentoService.obterSaldoPorUsuario(usuario.getId())));
+		Assertions.assertFalse(saldoService.recalcular(usuario.getId()));
+		Assertions.assertEquals(0, new BigDecimal("70.00").compareTo(saldoDoAno(ANO_FECHADO)));
+	}
+	
+	@Test
+	public void deveSomarAoResumoLancamentoIncluidoDepoisNoAnoArquivado() {
+		lancamentoService.salvar(lancamento(ANO_FECHADO, TipoLancamento.RECEITA, "100.00"));
+		service.arquivar(usuario.getId(), ANO_FECHADO);
+		
+		lancamentoService.salvar(lancamento(ANO_FECHADO, TipoLancamento.RECEITA, "50.00"));
+		service.arquivar(usuario.getId(), ANO_FECHADO);
+		
+		Assertions.assertEquals(2, service.listarArquivados(usuario.getId(), ANO_FECHADO).size());
+		Assertions.assertEquals(0, new BigDecimal("150.00").compareTo(saldoDoAno(ANO_FECHADO)));
+		Assertions.assertFalse(saldoService.recalcular(usuario.getId()));
+	}
+	
+	//o arquivamento espera a escrita em andamento: totais e cópia incluem o lançamento dela
+	@Test
+	public void deveEsperarAEscritaEmAndamentoDoUsuario() throws Exception {
+		lancamentoService.salvar(lancamento(ANO_FECHADO, TipoLancamento.RECEITA, "100.00"));
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		CountDownLatch salvou = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		
+		try {
+			Future<?> escrita = executor.submit(() -> transacao.executeWithoutResult(status -> {
+				lancamentoService.salvar(lancamento(ANO_FECHADO, TipoLancamento.RECEITA, "50.00"));
+				salvou.countDown();
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			salvou.await();
+			Assertions.assertEquals(2, service.arquivar(usuario.getId(), ANO_FECHADO));
+			escrita.get();
+		} finally {
+			executor.shutdown();
+		}
+		
+		Assertions.assertTrue(lancamentoService.listar(filtro()).isEmpty());
+		Assertions.assertEquals(0, new BigDecimal("150.00").compareTo(saldoDoAno(ANO_FECHADO)));
+		Assertions.assertFalse(saldoService.recalcular(usuario.getId()));
+	}
+	
+	@Test
+	public void naoDeveArquivarAnoAberto() {
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.arquivar(usuario.getId(), LocalDate.now().getYear()));
+	}
+	
+	private Lancamento lancamento(int ano, TipoLancamento tipo, String valor) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setAno(ano);
+		lancamento.setTipo(tipo);
+		lancamento.setStatus(StatusLancamento.EFETIVADO);
+		lancamento.setValor(new BigDecimal(valor));
+		return lancamento;
+	}
+	
+	private Lancamento filtro() {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		return filtro;
+	}
+	
+	private List<Integer> anos(List<LancamentoProjecao> lancamentos) {
+		return Arrays.asList(lancamentos.stream().map(LancamentoProjecao::getAno).distinct().toArray(Integer[]::new));
+	}
+	
+	//receitas menos despesas do ano pelo cubo de resumo
+	private BigDecimal saldoDoAno(int ano) {
+		BigDecimal saldo = BigDecimal.ZERO;
+		for(ResumoDto linha : resumoService.resumir(usuario.getId(), new HashSet<>(Arrays.asList("tipo")), ano, null, null, null)) {
+			saldo = "RECEITA".equals(linha.getTipo()) ? saldo.add(linha.getValor()) : saldo.subtract(linha.getValor());
+		}
+		return saldo;
+	}
+}
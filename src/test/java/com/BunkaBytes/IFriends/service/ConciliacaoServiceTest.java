@@ -0,0 +1,129 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.BunkaBytes.IFriends.api.dto.ResultadoConciliacaoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.service.conciliacao.OpcoesConciliacao;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class ConciliacaoServiceTest {
+
+	private static final String EXTRATO = "data;historico;valor\n"
+										+ "08/03/2021;PAG*PADARIA;-12,50\n"
+										+ "05/03/2021;SALARIO EMPRESA;5.000,00\n"
+										+ "09/03/2021;UBER TRIP;-23,00\n"
+										+ "xx/03/2021;ilegível;-1,00\n";
+
+	@Autowired
+	ConciliacaoService service;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	Usuario usuario;
+	Lancamento padaria;
+	Lancamento salario;
+	Lancamento academia;
+	Lancamento luz;
+
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("conciliacao")
+											.email("conciliacao." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+		padaria = salvar("Padaria", "12.50", TipoLancamento.DESPESA, 3);
+		salario = salvar("Salário", "5000", TipoLancamento.RECEITA, 3);
+		academia = salvar("Academia", "99.90", TipoLancamento.DESPESA, 3);
+		//fora dos meses do extrato: não é conciliado nem cancelado
+		luz = salvar("Conta de luz", "150", TipoLancamento.DESPESA, 5);
+	}
+
+	@Test
+	public void deveSimularSemAlterarStatus() throws IOException {
+		ResultadoConciliacaoDto resultado = service.conciliar(usuario.getId(), extrato(), null, StandardCharsets.UTF_8, opcoes(true, true));
+
+		Assertions.assertTrue(resultado.isSimulacao());
+		Assertions.assertEquals(4, resultado.getLidas());
+		Assertions.assertEquals(1, resultado.getRejeitadas());
+		Assertions.assertEquals(2, resultado.getConciliados().size());
+		Assertions.assertEquals(1, resultado.getLinhasSemCorrespondencia().size());
+		Assertions.assertEquals("UBER TRIP", resultado.getLinhasSemCorrespondencia().get(0).getDescricao());
+		Assertions.assertEquals(1, resultado.getLancamentosSemCorrespondencia().size());
+		Assertions.assertEquals(academia.getId(), resultado.getLancamentosSemCorrespondencia().get(0).getId());
+		Assertions.assertEquals(0, resultado.getEfetivados());
+		Assertions.assertEquals(StatusLancamento.PENDENTE, status(padaria));
+	}
+
+	@Test
+	public void deveEfetivarOsConciliadosECancelarOsQueSobraram() throws IOException {
+		ResultadoConciliacaoDto resultado = service.conciliar(usuario.getId(), extrato(), null, StandardCharsets.UTF_8, opcoes(true, false));
+
+		Assertions.assertEquals(2, resultado.getEfetivados());
+		Assertions.assertEquals(1, resultado.getCancelados());
+		Assertions.assertEquals(StatusLancamento.EFETIVADO, status(padaria));
+		Assertions.assertEquals(StatusLancamento.EFETIVADO, status(salario));
+		Assertions.assertEquals(StatusLancamento.CANCELADO, status(academia));
+		Assertions.assertEquals(StatusLancamento.PENDENTE, status(luz));
+
+		//os efetivados não são pendentes: o mesmo extrato de novo não concilia nada
+		ResultadoConciliacaoDto repeticao = service.conciliar(usuario.getId(), extrato(), null, StandardCharsets.UTF_8, opcoes(false, false));
+		Assertions.assertEquals(0, repeticao.getConciliados().size());
+		Assertions.assertEquals(0, repeticao.getEfetivados());
+	}
+
+	@Test
+	public void deveRecusarJanelaInvalida() {
+		OpcoesConciliacao opcoes = new OpcoesConciliacao(-1, 0.2, false, false);
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> service.conciliar(usuario.getId(), extrato(), null, StandardCharsets.UTF_8, opcoes));
+	}
+
+	private Lancamento salvar(String descricao, String valor, TipoLancamento tipo, int mes) {
+		return lancamentoService.salvar(Lancamento.builder()
+											.descricao(descricao)
+											.valor(new BigDecimal(valor))
+											.tipo(tipo)
+											.mes(mes)
+											.ano(2021)
+											.usuario(usuario)
+											.build());
+	}
+
+	private StatusLancamento status(Lancamento lancamento) {
+		return lancamentoService.obterProjecaoPorId(lancamento.getId()).get().getStatus();
+	}
+
+	private OpcoesConciliacao opcoes(boolean cancelar, boolean simular) {
+		return new OpcoesConciliacao(5, 0.2, cancelar, simular);
+	}
+
+	private InputStream extrato() {
+		return new ByteArrayInputStream(EXTRATO.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,160 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.BunkaBytes.IFriends.api.dto.ResultadoImportacaoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.service.importacao.FormatoExtrato;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class ImportacaoServiceTest {
+
+	private static final String CSV = "\uFEFFData;Histórico;Valor\n"
+									+ "05/03/2021;Salário;\"5.000,00\"\n"
+									+ "06/03/2021;Padaria;-12,50\n"
+									+ "06/03/2021;Padaria;-12,50\n"
+									+ "\n"
+									+ "32/02/2021;Data errada;-1,00\n"
+									+ "07/03/2021;Tarifa zerada;0,00\n";
+
+	private static final String OFX = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+									+ "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20210410120000[-3:BRT]<TRNAMT>-89.90<FITID>A1<MEMO>Mercado &amp; cia</STMTTRN>\n"
+									+ "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20210411<TRNAMT>150.00<FITID>A2<NAME>Pix recebido</STMTTRN>\n"
+									+ "<STMTTRN><TRNTYPE>DEBIT<TRNAMT>-1.00<FITID>A3</STMTTRN>\n"
+									+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+
+	@Autowired
+	ImportacaoService service;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	@SpyBean
+	LancamentoRepository lancamentoRepository;
+
+	Usuario usuario;
+
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("importacao")
+											.email("importacao." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+	}
+
+	@Test
+	public void deveImportarCsvEIgnorarAsLinhasJaImportadas() throws IOException {
+		ResultadoImportacaoDto resultado = service.importar(usuario.getId(), extrato(CSV), null, StandardCharsets.UTF_8);
+
+		Assertions.assertEquals(5, resultado.getLidas());
+		Assertions.assertEquals(3, resultado.getImportadas());
+		Assertions.assertEquals(0, resultado.getDuplicadas());
+		Assertions.assertEquals(2, resultado.getRejeitadas());
+		Assertions.assertTrue(resultado.getErros().get(0).startsWith("Linha 6:"));
+
+		List<LancamentoProjecao> lancamentos = lancamentoService.listar(filtro());
+		Assertions.assertEquals(3, lancamentos.size());
+		LancamentoProjecao salario = lancamentos.stream().filter(l -> l.getDescricao().equals("Salário")).findFirst().get();
+		Assertions.assertEquals(TipoLancamento.RECEITA, salario.getTipo());
+		Assertions.assertEquals(0, salario.getValor().compareTo(new BigDecimal("5000")));
+		Assertions.assertEquals(3, salario.getMes());
+		Assertions.assertEquals(2021, salario.getAno());
+		Assertions.assertEquals(2, lancamentos.stream().filter(l -> l.getTipo() == TipoLancamento.DESPESA).count());
+
+		//as duas padarias do mesmo dia continuam duas, e nenhuma é gravada de novo
+		ResultadoImportacaoDto reimportacao = service.importar(usuario.getId(), extrato(CSV), FormatoExtrato.CSV, StandardCharsets.UTF_8);
+
+		Assertions.assertEquals(0, reimportacao.getImportadas());
+		Assertions.assertEquals(3, reimportacao.getDuplicadas());
+		Assertions.assertEquals(3, lancamentoService.listar(filtro()).size());
+	}
+
+	@Test
+	public void deveImportarOfxPeloFitid() throws IOException {
+		ResultadoImportacaoDto resultado = service.importar(usuario.getId(), extrato(OFX), null, StandardCharsets.UTF_8);
+
+		Assertions.assertEquals(3, resultado.getLidas());
+		Assertions.assertEquals(2, resultado.getImportadas());
+		Assertions.assertEquals(1, resultado.getRejeitadas());
+
+		List<LancamentoProjecao> lancamentos = lancamentoService.listar(filtro());
+		LancamentoProjecao mercado = lancamentos.stream().filter(l -> l.getDescricao().equals("Mercado & cia")).findFirst().get();
+		Assertions.assertEquals(TipoLancamento.DESPESA, mercado.getTipo());
+		Assertions.assertEquals(4, mercado.getMes());
+		Assertions.assertTrue(lancamentos.stream().anyMatch(l -> l.getDescricao().equals("Pix recebido") && l.getTipo() == TipoLancamento.RECEITA));
+
+		ResultadoImportacaoDto reimportacao = service.importar(usuario.getId(), extrato(OFX), FormatoExtrato.OFX, StandardCharsets.UTF_8);
+
+		Assertions.assertEquals(0, reimportacao.getImportadas());
+		Assertions.assertEquals(2, reimportacao.getDuplicadas());
+	}
+
+	@Test
+	public void deveContarComoDuplicadoOFitidRepetidoNoMesmoLote() throws IOException {
+		String repetido = OFX.replace("<FITID>A2", "<FITID>A1").replace("<TRNAMT>150.00", "<TRNAMT>-89.90").replace("<DTPOSTED>20210411", "<DTPOSTED>20210410");
+
+		ResultadoImportacaoDto resultado = service.importar(usuario.getId(), extrato(repetido), FormatoExtrato.OFX, StandardCharsets.UTF_8);
+
+		Assertions.assertEquals(1, resultado.getImportadas());
+		Assertions.assertEquals(1, resultado.getDuplicadas());
+		Assertions.assertEquals(1, lancamentoService.listar(filtro()).size());
+	}
+
+	//outra importação grava os mesmos hashes entre a consulta e o INSERT: o índice único recusa
+	@Test
+	public void deveContarComoDuplicadaALinhaGravadaPorOutraImportacao() throws IOException {
+		service.importar(usuario.getId(), extrato(OFX), FormatoExtrato.OFX, StandardCharsets.UTF_8);
+		Mockito.doReturn(Collections.emptyList()).when(lancamentoRepository).listarHashesImportados(Mockito.eq(usuario.getId()), Mockito.any());
+
+		ResultadoImportacaoDto resultado = service.importar(usuario.getId(), extrato(OFX), FormatoExtrato.OFX, StandardCharsets.UTF_8);
+
+		Assertions.assertEquals(0, resultado.getImportadas());
+		Assertions.assertEquals(2, resultado.getDuplicadas());
+		Assertions.assertEquals(2, lancamentoService.listar(filtro()).size());
+	}
+
+	@Test
+	public void deveRecusarCsvSemAsColunasObrigatorias() {
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> service.importar(usuario.getId(), extrato("data;valor\n01/01/2021;10\n"), FormatoExtrato.CSV, StandardCharsets.UTF_8));
+	}
+
+	private InputStream extrato(String conteudo) {
+		return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Lancamento filtro() {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(usuario.getId()).build());
+		return filtro;
+	}
+}
@@ -0,0 +1,165 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class IndiceDescricaoServiceTest {
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	IndiceDescricaoService service;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@PersistenceContext
+	EntityManager entityManager;
+	
+	@Test
+	public void deveBuscarPorTrechoDaDescricaoIgnorandoAcentosEMaiusculas() {
+		//cenário
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("indice").email("indice@email.com").senha("123").build());
+		salvar(usuario, "Conta de Água");
+		salvar(usuario, "Mercado");
+		
+		//execução: a primeira busca indexa os lançamentos já existentes
+		List<Lancamento> resultado = lancamentoService.buscar(filtro(usuario, "AGUA"));
+		
+		//verificação
+		Assertions.assertTrue(service.indexado(usuario.getId()));
+		Assertions.assertEquals(1, resultado.size());
+		Assertions.assertEquals("Conta de Água", resultado.get(0).getDescricao());
+		
+		//novas escritas mantêm o índice
+		Lancamento agua = salvar(usuario, "água mineral");
+		Assertions.assertEquals(2, lancamentoService.buscar(filtro(usuario, "Água")).size());
+		
+		agua.setDescricao("Padaria");
+		lancamentoService.atualizar(agua);
+		Assertions.assertEquals(1, lancamentoService.buscar(filtro(usuario, "agua")).size());
+		Assertions.assertEquals(1, lancamentoService.buscar(filtro(usuario, "padar")).size());
+		
+		//trechos fora de ordem não casam mesmo tendo os mesmos trigramas
+		Assertions.assertEquals(0, lancamentoService.buscar(filtro(usuario, "guaagu")).size());
+	}
+	
+	//sem índice as escritas não gravam trigramas: a primeira busca reconstrói a partir da tabela lancamento
+	@Test
+	public void naoDeveGravarTrigramasParaUsuarioSemIndice() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("indice").email("indice." + System.nanoTime() + "@email.com").senha("123").build());
+		salvar(usuario, "Conta de luz");
+		
+		Assertions.assertFalse(service.indexado(usuario.getId()));
+		Assertions.assertEquals(0l, entityManager.createQuery("SELECT COUNT(t) FROM LancamentoTrigrama t WHERE t.idUsuario = :idUsuario", Long.class)
+											.setParameter("idUsuario", usuario.getId())
+											.getSingleResult());
+		Assertions.assertEquals(1, lancamentoService.buscar(filtro(usuario, "luz")).size());
+	}
+	
+	//a paginação por cursor casa os mesmos lançamentos que a listagem
+	@Test
+	public void devePaginarABuscaIgnorandoAcentosComoAListagem() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("indice").email("indice." + System.nanoTime() + "@email.com").senha("123").build());
+		salvar(usuario, "Conta de Água");
+		salvar(usuario, "Mercado");
+		salvar(usuario, "água mineral");
+		salvar(usuario, "Agua tratada");
+		
+		List<LancamentoProjecao> primeira = lancamentoService.buscarPagina(filtro(usuario, "agua"), null, 2);
+		Lancamento ultimo = Lancamento.builder()
+								.id(primeira.get(1).getId())
+								.ano(primeira.get(1).getAno())
+								.mes(primeira.get(1).getMes())
+								.build();
+		List<LancamentoProjecao> segunda = lancamentoService.buscarPagina(filtro(usuario, "agua"), ultimo, 2);
+		
+		Assertions.assertEquals(2, primeira.size());
+		Assertions.assertEquals(1, segunda.size());
+		Assertions.assertEquals(lancamentoService.listar(filtro(usuario, "agua")).get(2).getId(), segunda.get(0).getId());
+	}
+	
+	//mais candidatos que o lote de ids: a busca consulta em partes, como a listagem
+	@Test
+	public void deveBuscarEmLotesQuandoHaMuitosCandidatos() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("indice").email("indice." + System.nanoTime() + "@email.com").senha("123").build());
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for(int i = 0; i < 1001; i++) {
+			Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setUsuario(usuario);
+			lancamento.setDescricao("Conta de luz " + i);
+			lancamentos.add(lancamento);
+		}
+		lancamentoRepository.saveAll(lancamentos);
+		
+		Assertions.assertEquals(1001, lancamentoService.buscar(filtro(usuario, "luz")).size());
+	}
+	
+	@Test
+	public void deveManterAsEntidadesDoChamadorAoGravarMaisDeUmLoteDeTrigramas() {
+		Usuario usuario = usuarioRepository.save(Usuario.builder().nome("indice").email("indice." + System.nanoTime() + "@email.com").senha("123").build());
+		//gravados sem passar pelo serviço, então ainda fora do índice; cada descrição rende uns 250 trigramas
+		Random aleatorio = new Random(42);
+		List<Lancamento> lancamentos = new ArrayList<>();
+		for(int i = 0; i < 3; i++) {
+			Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setUsuario(usuario);
+			lancamento.setDescricao(aleatorio.ints(255, 'a', 'z' + 1)
+											.collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+											.toString());
+			lancamentos.add(lancamentoRepository.save(lancamento));
+		}
+		
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Lancamento gerenciado = entityManager.find(Lancamento.class, lancamentos.get(0).getId());
+			service.registrar(Collections.emptyList(), lancamentos);
+			Assertions.assertTrue(entityManager.contains(gerenciado));
+		});
+	}
+	
+	private Lancamento salvar(Usuario usuario, String descricao) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setDescricao(descricao);
+		return lancamentoService.salvar(lancamento);
+	}
+	
+	private Lancamento filtro(Usuario usuario, String descricao) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setDescricao(descricao);
+		return filtro;
+	}
+}
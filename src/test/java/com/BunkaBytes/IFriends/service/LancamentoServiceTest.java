@@ -12,7 +12,6 @@ import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -21,6 +20,7 @@ import com.BunkaBytes.IFriends.exception.RegraNegocioException;
 import com.BunkaBytes.IFriends.model.entity.Lancamento;
 import com.BunkaBytes.IFriends.model.entity.Usuario;
 import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
 import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
 import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
 import com.BunkaBytes.IFriends.service.impl.LancamentoServiceImpl;
@@ -139,7 +139,7 @@ public class LancamentoServiceTest {
 			
 			List<Lancamento> lista = Arrays.asList(lancamento);
 			
-			Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+			Mockito.when(repository.filtrar(Mockito.any(FiltroLancamento.class), Mockito.eq(Lancamento.class))).thenReturn(lista);
 			//execução
 			List<Lancamento> result = service.buscar(lancamento);
 			
@@ -148,6 +148,21 @@ public class LancamentoServiceTest {
 		});
 	}
 	
+	@Test
+	public void deveRecusarFiltroInvalidoSemConsultar() {
+		FiltroLancamento filtro = FiltroLancamento.builder().usuario(1l).ordem(Arrays.asList("-senha")).build();
+		
+		Throwable exception = org.assertj.core.api.Assertions.catchThrowable(() -> service.filtrar(filtro));
+		org.assertj.core.api.Assertions.assertThat(exception).isInstanceOf(RegraNegocioException.class).hasMessage("Campo de ordenação inválido: -senha.");
+		
+		filtro.setOrdem(Arrays.asList("-valor"));
+		filtro.setLimite(0);
+		exception = org.assertj.core.api.Assertions.catchThrowable(() -> service.filtrar(filtro));
+		org.assertj.core.api.Assertions.assertThat(exception).isInstanceOf(RegraNegocioException.class);
+		
+		Mockito.verify(repository, Mockito.never()).filtrar(Mockito.any(), Mockito.any());
+	}
+	
 	@Test
 	public void deveAtualizarStatusDeUmLancamento() {
 		Assertions.assertDoesNotThrow(()-> {
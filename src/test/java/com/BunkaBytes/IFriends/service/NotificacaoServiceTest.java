@@ -0,0 +1,112 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.BunkaBytes.IFriends.api.dto.EventoLancamentoDto;
+import com.BunkaBytes.IFriends.model.enums.TipoEventoLancamento;
+import com.BunkaBytes.IFriends.service.impl.NotificacaoServiceImpl;
+
+public class NotificacaoServiceTest {
+	
+	//as tarefas de envio ficam paradas aqui, como se o cliente não estivesse lendo
+	List<Runnable> envios = new ArrayList<>();
+	NotificacaoService service = new NotificacaoServiceImpl(2, 60000, envios::add);
+	
+	@Test
+	public void naoDeveMontarOEventoSemInscritos() {
+		AtomicInteger montagens = new AtomicInteger();
+		
+		service.publicar(1l, () -> {
+			montagens.incrementAndGet();
+			return evento();
+		});
+		
+		Assertions.assertEquals(0, montagens.get());
+		Assertions.assertTrue(envios.isEmpty());
+	}
+	
+	@Test
+	public void deveDesconectarOInscritoQueNaoAcompanhaOsEventos() {
+		//cenário
+		service.inscrever(1l);
+		service.inscrever(2l);
+		
+		//execução: a fila comporta dois eventos pendentes
+		service.publicar(1l, this::evento);
+		service.publicar(1l, this::evento);
+		Assertions.assertTrue(service.possuiInscritos(1l));
+		service.publicar(1l, this::evento);
+		
+		//verificação: só o inscrito lento sai, e com uma única tarefa de envio agendada
+		Assertions.assertFalse(service.possuiInscritos(1l));
+		Assertions.assertTrue(service.possuiInscritos(2l));
+		Assertions.assertEquals(1, envios.size());
+	}
+	
+	@Test
+	public void deveEnviarSomenteDepoisDoCommit() {
+		service.inscrever(1l);
+		
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			service.publicar(1l, this::evento);
+			List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+			Assertions.assertTrue(envios.isEmpty());
+			
+			sincronizacoes.forEach(sincronizacao -> sincronizacao.beforeCommit(false));
+			Assertions.assertTrue(envios.isEmpty());
+			sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+			Assertions.assertEquals(1, envios.size());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		
+		//rollback: o evento nem chega a ser montado
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			AtomicInteger montagens = new AtomicInteger();
+			service.publicar(1l, () -> {
+				montagens.incrementAndGet();
+				return evento();
+			});
+			TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sincronizacao -> sincronizacao.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+			Assertions.assertEquals(0, montagens.get());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	//uma falha ao montar o evento não pode chegar ao commit e desfazer a escrita
+	@Test
+	public void naoDevePropagarAFalhaAoMontarOEventoAntesDoCommit() {
+		service.inscrever(1l);
+		
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			service.publicar(1l, () -> {
+				throw new IllegalStateException("falha ao montar");
+			});
+			List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+			
+			Assertions.assertDoesNotThrow(() -> sincronizacoes.forEach(sincronizacao -> sincronizacao.beforeCommit(false)));
+			sincronizacoes.forEach(TransactionSynchronization::afterCommit);
+			Assertions.assertTrue(envios.isEmpty());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+	
+	private EventoLancamentoDto evento() {
+		return new EventoLancamentoDto(TipoEventoLancamento.ALTERADO, Collections.singletonList(1l), null, BigDecimal.TEN);
+	}
+}
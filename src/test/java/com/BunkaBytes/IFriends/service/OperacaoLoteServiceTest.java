@@ -0,0 +1,203 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.api.dto.EventoLancamentoDto;
+import com.BunkaBytes.IFriends.config.ContagemConsultas;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoEventoLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class OperacaoLoteServiceTest {
+	
+	@Autowired
+	LancamentoService service;
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@MockBean
+	NotificacaoService notificacaoService;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@PersistenceContext
+	EntityManager entityManager;
+	
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("lote")
+											.email("lote." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+	}
+	
+	@Test
+	public void deveEfetivarOsPendentesDoMesComUmUnicoComando() {
+		//cenário
+		Lancamento primeiro = salvar(1, TipoLancamento.DESPESA);
+		Lancamento segundo = salvar(1, TipoLancamento.RECEITA);
+		Lancamento outroMes = salvar(2, TipoLancamento.DESPESA);
+		Lancamento cancelado = salvar(1, TipoLancamento.DESPESA);
+		service.atualizarStatus(cancelado.getId(), usuario.getId(), StatusLancamento.CANCELADO, null);
+		
+		//execução
+		ContagemConsultas contagem = ContagemConsultas.iniciar();
+		int afetados = service.atualizarStatusEmLote(filtro(1, null), null, StatusLancamento.EFETIVADO);
+		contagem.encerrar();
+		
+		//verificação: CANCELADO não passa direto para EFETIVADO; o segundo comando é o incremento de sequencia_alteracao
+		Assertions.assertEquals(2, afetados);
+		Assertions.assertEquals(2, contagem.getTotal());
+		Assertions.assertEquals(StatusLancamento.EFETIVADO, status(primeiro));
+		Assertions.assertEquals(StatusLancamento.EFETIVADO, status(segundo));
+		Assertions.assertEquals(StatusLancamento.PENDENTE, status(outroMes));
+		Assertions.assertEquals(StatusLancamento.CANCELADO, status(cancelado));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveNotificarSoOsIdsQueOLoteAlterou() {
+		Lancamento primeiro = salvar(1, TipoLancamento.DESPESA);
+		Lancamento segundo = salvar(1, TipoLancamento.DESPESA);
+		Lancamento efetivado = salvar(1, TipoLancamento.DESPESA);
+		service.atualizarStatus(efetivado.getId(), usuario.getId(), StatusLancamento.EFETIVADO, null);
+		Mockito.clearInvocations(notificacaoService);
+		
+		//todos os pedidos mudaram: o evento leva os ids
+		service.atualizarStatusEmLote(filtro(null, null), Arrays.asList(primeiro.getId(), primeiro.getId()), StatusLancamento.EFETIVADO);
+		ArgumentCaptor<Supplier<EventoLancamentoDto>> evento = ArgumentCaptor.forClass(Supplier.class);
+		Mockito.verify(notificacaoService).publicar(Mockito.eq(usuario.getId()), evento.capture());
+		Assertions.assertEquals(TipoEventoLancamento.ALTERADO, evento.getValue().get().getTipo());
+		Assertions.assertEquals(Arrays.asList(primeiro.getId()), evento.getValue().get().getIds());
+		
+		//o já efetivado e o de outro usuário não são alterados: vai um LOTE sem ids
+		Mockito.clearInvocations(notificacaoService);
+		service.atualizarStatusEmLote(filtro(null, null), Arrays.asList(segundo.getId(), efetivado.getId(), usuario.getId() + 1000), StatusLancamento.EFETIVADO);
+		Mockito.verify(notificacaoService).publicar(Mockito.eq(usuario.getId()), evento.capture());
+		Assertions.assertEquals(TipoEventoLancamento.LOTE, evento.getValue().get().getTipo());
+		Assertions.assertNull(evento.getValue().get().getIds());
+	}
+	
+	@Test
+	public void deveRejeitarUmaTransicaoInvalidaPeloFiltro() {
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> service.atualizarStatusEmLote(filtro(null, StatusLancamento.CANCELADO), null, StatusLancamento.EFETIVADO));
+	}
+	
+	@Test
+	public void deveRejeitarOLoteQuandoAlgumIdNaoAdmiteATransicao() {
+		//cenário
+		Lancamento pendente = salvar(1, TipoLancamento.DESPESA);
+		Lancamento cancelado = salvar(1, TipoLancamento.DESPESA);
+		service.atualizarStatus(cancelado.getId(), usuario.getId(), StatusLancamento.CANCELADO, null);
+		
+		//execução
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> service.atualizarStatusEmLote(filtro(null, null), Arrays.asList(pendente.getId(), cancelado.getId()), StatusLancamento.EFETIVADO));
+		
+		//verificação
+		Assertions.assertEquals(StatusLancamento.PENDENTE, status(pendente));
+	}
+	
+	@Test
+	public void deveExcluirEmLoteEManterOSaldo() {
+		//cenário
+		Lancamento receita = salvar(1, TipoLancamento.RECEITA);
+		Lancamento despesa = salvar(1, TipoLancamento.DESPESA);
+		salvar(2, TipoLancamento.DESPESA);
+		
+		//execução
+		int porIds = service.deletarEmLote(filtro(null, null), Arrays.asList(receita.getId(), despesa.getId()));
+		int porFiltro = service.deletarEmLote(filtro(2, StatusLancamento.PENDENTE), null);
+		
+		//verificação
+		Assertions.assertEquals(2, porIds);
+		Assertions.assertEquals(1, porFiltro);
+		Assertions.assertFalse(repository.existsById(receita.getId()));
+		Assertions.assertEquals(0, BigDecimal.ZERO.compareTo(service.obterSaldoPorUsuario(usuario.getId())));
+	}
+	
+	@Test
+	public void naoDeveExcluirTodosOsLancamentosDoUsuarioSemFiltro() {
+		salvar(1, TipoLancamento.DESPESA);
+		
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.deletarEmLote(filtro(null, null), null));
+	}
+	
+	@Test
+	public void deveManterAsEntidadesDoChamadorAoSalvarUmLote() {
+		Lancamento existente = salvar(1, TipoLancamento.DESPESA);
+		List<Lancamento> lote = new ArrayList<>();
+		for(int i = 0; i < 60; i++) {
+			Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+			lancamento.setUsuario(usuario);
+			lote.add(lancamento);
+		}
+		
+		//o lançamento lido antes do lote continua gerenciado na transação do chamador
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Lancamento gerenciado = entityManager.find(Lancamento.class, existente.getId());
+			service.salvarLote(lote);
+			Assertions.assertTrue(entityManager.contains(gerenciado));
+		});
+		Assertions.assertEquals(61, service.listar(filtro(null, null)).size());
+	}
+	
+	private Lancamento salvar(int mes, TipoLancamento tipo) {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setMes(mes);
+		lancamento.setTipo(tipo);
+		lancamento.setUsuario(usuario);
+		return service.salvar(lancamento);
+	}
+	
+	private Lancamento filtro(Integer mes, StatusLancamento status) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		filtro.setMes(mes);
+		filtro.setStatus(status);
+		return filtro;
+	}
+	
+	private StatusLancamento status(Lancamento lancamento) {
+		return repository.findById(lancamento.getId()).get().getStatus();
+	}
+}
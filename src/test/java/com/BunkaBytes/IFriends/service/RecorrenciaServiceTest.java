@@ -0,0 +1,169 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Recorrencia;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.Periodicidade;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.filtro.FiltroLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class RecorrenciaServiceTest {
+
+	@Autowired
+	RecorrenciaService service;
+
+	@Autowired
+	LancamentoService lancamentoService;
+
+	@Autowired
+	UsuarioRepository usuarioRepository;
+
+	Usuario usuario;
+
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("recorrencia")
+											.email("recorrencia." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+	}
+
+	@Test
+	public void deveGerarTodasAsParcelasNaCriacao() {
+		Recorrencia recorrencia = service.criar(parcelamento(60));
+
+		Assertions.assertEquals(60, recorrencia.getGeradas());
+		List<LancamentoProjecao> parcelas = ordenadas();
+		Assertions.assertEquals(60, parcelas.size());
+		Assertions.assertEquals("Financiamento 1/60", parcelas.get(0).getDescricao());
+		Assertions.assertEquals(11, parcelas.get(0).getMes());
+		Assertions.assertEquals(2022, parcelas.get(0).getAno());
+		Assertions.assertEquals("Financiamento 60/60", parcelas.get(59).getDescricao());
+		Assertions.assertEquals(10, parcelas.get(59).getMes());
+		Assertions.assertEquals(2027, parcelas.get(59).getAno());
+		Assertions.assertEquals(0, lancamentoService.obterSaldoPorUsuario(usuario.getId()).compareTo(new BigDecimal("-6000")));
+	}
+
+	@Test
+	public void deveEditarSoAsParcelasPendentesAPartirDaCompetencia() {
+		Recorrencia recorrencia = service.criar(parcelamento(12));
+		List<LancamentoProjecao> parcelas = ordenadas();
+		//a parcela 8 já foi paga e não muda com a série
+		lancamentoService.atualizarStatus(parcelas.get(7).getId(), usuario.getId(), StatusLancamento.EFETIVADO, null);
+
+		Recorrencia alteracao = new Recorrencia();
+		alteracao.setId(recorrencia.getId());
+		alteracao.setUsuario(usuario);
+		alteracao.setDescricao("Carro");
+		alteracao.setValor(new BigDecimal("150"));
+		int afetadas = service.atualizar(alteracao, 2023 * 12 + 4 - 1);
+
+		//abril a outubro de 2023: parcelas 6 a 12, menos a efetivada
+		Assertions.assertEquals(6, afetadas);
+		parcelas = ordenadas();
+		Assertions.assertEquals("Financiamento 5/12", parcelas.get(4).getDescricao());
+		Assertions.assertEquals("Carro 6/12", parcelas.get(5).getDescricao());
+		Assertions.assertEquals(0, parcelas.get(5).getValor().compareTo(new BigDecimal("150")));
+		Assertions.assertEquals("Financiamento 8/12", parcelas.get(7).getDescricao());
+		Assertions.assertEquals(0, lancamentoService.obterSaldoPorUsuario(usuario.getId()).compareTo(new BigDecimal("-1500")));
+		Assertions.assertEquals(6, lancamentoService.filtrar(filtroDescricao("carro")).size());
+	}
+
+	@Test
+	public void deveCancelarASerieAPartirDaCompetencia() {
+		Recorrencia recorrencia = service.criar(parcelamento(12));
+
+		int canceladas = service.cancelar(usuario.getId(), recorrencia.getId(), 2023 * 12 + 1 - 1);
+
+		Assertions.assertEquals(10, canceladas);
+		List<LancamentoProjecao> parcelas = ordenadas();
+		Assertions.assertEquals(2, parcelas.stream().filter(l -> l.getStatus() == StatusLancamento.PENDENTE).count());
+		Assertions.assertTrue(service.listar(usuario.getId()).get(0).isEncerrada());
+		Assertions.assertEquals(0, service.materializar(usuario.getId(), recorrencia.getId()));
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.atualizar(recorrencia, 0));
+	}
+
+	@Test
+	public void deveGerarASerieSemFimAteOHorizonte() {
+		LocalDate hoje = LocalDate.now();
+		Recorrencia recorrencia = Recorrencia.builder()
+									.usuario(usuario)
+									.descricao("Aluguel")
+									.valor(new BigDecimal("1000"))
+									.tipo(TipoLancamento.DESPESA)
+									.periodicidade(Periodicidade.TRIMESTRAL)
+									.mesInicial(hoje.getMonthValue())
+									.anoInicial(hoje.getYear())
+									.build();
+
+		recorrencia = service.criar(recorrencia);
+
+		//horizonte de 24 meses: o mês corrente e mais 8 trimestres
+		Assertions.assertEquals(9, recorrencia.getGeradas());
+		Assertions.assertEquals(9, ordenadas().size());
+		Assertions.assertEquals("Aluguel", ordenadas().get(8).getDescricao());
+		Assertions.assertTrue(service.listarSemFim().get(usuario.getId()).contains(recorrencia.getId()));
+		Assertions.assertEquals(0, service.materializar(usuario.getId(), recorrencia.getId()));
+	}
+
+	@Test
+	public void deveRecusarParcelamentoSemQuantidade() {
+		Recorrencia recorrencia = parcelamento(12);
+		recorrencia.setQuantidade(null);
+
+		Assertions.assertThrows(RegraNegocioException.class, () -> service.criar(recorrencia));
+		Assertions.assertTrue(ordenadas().isEmpty());
+	}
+
+	private Recorrencia parcelamento(int quantidade) {
+		return Recorrencia.builder()
+				.usuario(usuario)
+				.descricao("Financiamento")
+				.valor(new BigDecimal("100"))
+				.tipo(TipoLancamento.DESPESA)
+				.periodicidade(Periodicidade.MENSAL)
+				.mesInicial(11)
+				.anoInicial(2022)
+				.quantidade(quantidade)
+				.parcelada(true)
+				.build();
+	}
+
+	private List<LancamentoProjecao> ordenadas() {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(usuario.getId()).build());
+		return lancamentoService.listar(filtro).stream()
+				.sorted(Comparator.comparing((LancamentoProjecao l) -> l.getAno() * 12 + l.getMes()))
+				.collect(Collectors.toList());
+	}
+
+	private FiltroLancamento filtroDescricao(String descricao) {
+		FiltroLancamento filtro = new FiltroLancamento();
+		filtro.setUsuario(usuario.getId());
+		filtro.setDescricao(descricao);
+		return filtro;
+	}
+}
@@ -0,0 +1,137 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.api.dto.ResumoDto;
+import com.BunkaBytes.IFriends.exception.RegraNegocioException;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class ResumoLancamentoServiceTest {
+	
+	@Autowired
+	ResumoLancamentoService service;
+	
+	@MockBean
+	LancamentoRepository repository;
+	
+	@Autowired
+	SincronizacaoService sincronizacaoService;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@Test
+	public void deveResumirPorTipoEAtualizarAposEscrita() {
+		//cenário
+		Long idUsuario = 1l;
+		Mockito.when(repository.obterTotaisPorUsuario(idUsuario)).thenReturn(Arrays.asList(
+				new Object[] { 2022, 1, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, new BigDecimal("1000.00") },
+				new Object[] { 2022, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, new BigDecimal("200.50") },
+				new Object[] { 2022, 2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, new BigDecimal("99.50") }));
+		
+		//execução
+		List<ResumoDto> resumo = service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), 2022, null, null, null);
+		
+		//verificação
+		Assertions.assertEquals(2, resumo.size());
+		Assertions.assertEquals(0, new BigDecimal("300.00").compareTo(valorDoTipo(resumo, "DESPESA")));
+		
+		//uma nova despesa entra no cubo sem nova consulta
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
+		lancamento.setAno(2022);
+		lancamento.setValor(new BigDecimal("10.00"));
+		service.registrar(Collections.emptyList(), Collections.singletonList(lancamento));
+		
+		resumo = service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), 2022, null, null, null);
+		Assertions.assertEquals(0, new BigDecimal("310.00").compareTo(valorDoTipo(resumo, "DESPESA")));
+		Mockito.verify(repository, Mockito.times(1)).obterTotaisPorUsuario(idUsuario);
+	}
+	
+	//a escrita de outro nó só aparece em sequencia_alteracao: o cubo deste nó precisa recarregar
+	@Test
+	public void deveRecarregarOCuboQuandoASequenciaAndarEmOutroNo() {
+		Long idUsuario = usuarioRepository.save(Usuario.builder()
+												.nome("resumo")
+												.email("resumo." + System.nanoTime() + "@email.com")
+												.senha("123")
+												.build()).getId();
+		Mockito.when(repository.obterTotaisPorUsuario(idUsuario)).thenReturn(Collections.singletonList(
+				new Object[] { 2022, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, new BigDecimal("200.00") }));
+		service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), null, null, null, null);
+		service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), null, null, null, null);
+		Mockito.verify(repository, Mockito.times(1)).obterTotaisPorUsuario(idUsuario);
+		
+		Mockito.when(repository.obterTotaisPorUsuario(idUsuario)).thenReturn(Collections.singletonList(
+				new Object[] { 2022, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, new BigDecimal("250.00") }));
+		sincronizacaoService.avancar(idUsuario);
+		
+		List<ResumoDto> resumo = service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), null, null, null, null);
+		Assertions.assertEquals(0, new BigDecimal("250.00").compareTo(valorDoTipo(resumo, "DESPESA")));
+		Mockito.verify(repository, Mockito.times(2)).obterTotaisPorUsuario(idUsuario);
+	}
+	
+	//a escrita deste nó avança a sequência na própria transação: o cubo recebe a diferença sem recarregar
+	@Test
+	public void deveManterOCuboComAEscritaLocalQueAvancaASequencia() {
+		Long idUsuario = usuarioRepository.save(Usuario.builder()
+												.nome("resumo")
+												.email("resumo." + System.nanoTime() + "@email.com")
+												.senha("123")
+												.build()).getId();
+		Mockito.when(repository.obterTotaisPorUsuario(idUsuario)).thenReturn(Collections.singletonList(
+				new Object[] { 2022, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, new BigDecimal("200.00") }));
+		service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), null, null, null, null);
+		
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(Usuario.builder().id(idUsuario).build());
+		lancamento.setValor(new BigDecimal("10.00"));
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			sincronizacaoService.avancar(idUsuario);
+			sincronizacaoService.avancar(idUsuario);
+			service.registrar(Collections.emptyList(), Collections.singletonList(lancamento));
+		});
+		
+		List<ResumoDto> resumo = service.resumir(idUsuario, new HashSet<>(Arrays.asList("tipo")), null, null, null, null);
+		Assertions.assertEquals(0, new BigDecimal("210.00").compareTo(valorDoTipo(resumo, "DESPESA")));
+		Mockito.verify(repository, Mockito.times(1)).obterTotaisPorUsuario(idUsuario);
+	}
+	
+	@Test
+	public void deveLancarErroAoAgruparPorDimensaoInvalida() {
+		Assertions.assertThrows(RegraNegocioException.class, () ->
+			service.resumir(2l, new HashSet<>(Arrays.asList("descricao")), null, null, null, null));
+	}
+	
+	private BigDecimal valorDoTipo(List<ResumoDto> resumo, String tipo) {
+		return resumo.stream().filter(item -> tipo.equals(item.getTipo())).findFirst().get().getValor();
+	}
+}
@@ -0,0 +1,142 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepositoryTest;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class SaldoUsuarioServiceTest {
+	
+	@Autowired
+	SaldoUsuarioService service;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@PersistenceContext
+	EntityManager entityManager;
+	
+	@Test
+	public void deveManterOSaldoIncrementalEReconstruirQuandoHouverDivergencia() {
+		//cenário
+		Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+		
+		Lancamento receita = LancamentoRepositoryTest.criarLancamento();
+		receita.setUsuario(usuario);
+		receita.setTipo(TipoLancamento.RECEITA);
+		receita.setValor(BigDecimal.valueOf(100));
+		lancamentoRepository.save(receita);
+		
+		//execução: primeira escrita cria a linha a partir da tabela lancamento
+		service.registrar(Collections.emptyList(), Collections.singletonList(receita));
+		Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(service.obterSaldo(usuario.getId()).get()));
+		
+		//uma despesa que não foi persistida deixa o saldo materializado divergente
+		Lancamento despesa = LancamentoRepositoryTest.criarLancamento();
+		despesa.setUsuario(usuario);
+		despesa.setValor(BigDecimal.valueOf(30));
+		service.registrar(Collections.emptyList(), Collections.singletonList(despesa));
+		Assertions.assertEquals(0, BigDecimal.valueOf(70).compareTo(service.obterSaldo(usuario.getId()).get()));
+		
+		//verificação
+		Assertions.assertTrue(service.recalcular(usuario.getId()));
+		Assertions.assertEquals(0, BigDecimal.valueOf(100).compareTo(service.obterSaldo(usuario.getId()).get()));
+		Assertions.assertFalse(service.recalcular(usuario.getId()));
+	}
+	
+	@Test
+	public void deveManterAsEntidadesDoChamadorAoSomarOSaldo() {
+		Usuario usuario = usuarioRepository.save(UsuarioRepositoryTest.criarUsuario());
+		Lancamento receita = LancamentoRepositoryTest.criarLancamento();
+		receita.setUsuario(usuario);
+		receita.setTipo(TipoLancamento.RECEITA);
+		lancamentoRepository.save(receita);
+		service.registrar(Collections.emptyList(), Collections.singletonList(receita));
+		
+		//a segunda escrita já cai no UPDATE incremental, que não pode desanexar o usuário gerenciado
+		Lancamento outra = LancamentoRepositoryTest.criarLancamento();
+		outra.setUsuario(usuario);
+		outra.setTipo(TipoLancamento.RECEITA);
+		service.registrar(Collections.emptyList(), Collections.singletonList(outra));
+		
+		Assertions.assertTrue(entityManager.contains(usuario));
+	}
+	
+	//as duas primeiras escritas do usuário encontram a tabela sem linha; nenhuma pode falhar por chave duplicada
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void deveSomarAsPrimeirasEscritasSimultaneasDoUsuario() throws Exception {
+		//fica commitado: o e-mail não pode repetir o dos outros testes
+		Usuario usuario = UsuarioRepositoryTest.criarUsuario();
+		usuario.setEmail("saldo." + System.nanoTime() + "@email.com");
+		usuarioRepository.save(usuario);
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		CountDownLatch registrou = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		
+		try {
+			//a outra escrita registra primeiro e segura o commit enquanto esta procura a linha
+			Future<?> outra = executor.submit(() -> transacao.executeWithoutResult(status -> {
+				receita(usuario, 100);
+				registrou.countDown();
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			registrou.await();
+			transacao.executeWithoutResult(status -> receita(usuario, 50));
+			outra.get();
+		} finally {
+			executor.shutdown();
+		}
+		
+		Assertions.assertEquals(0, BigDecimal.valueOf(150).compareTo(service.obterSaldo(usuario.getId()).get()));
+		Assertions.assertFalse(service.recalcular(usuario.getId()));
+	}
+	
+	private void receita(Usuario usuario, int valor) {
+		Lancamento receita = LancamentoRepositoryTest.criarLancamento();
+		receita.setUsuario(usuario);
+		receita.setTipo(TipoLancamento.RECEITA);
+		receita.setValor(BigDecimal.valueOf(valor));
+		lancamentoRepository.save(receita);
+		service.registrar(Collections.emptyList(), Collections.singletonList(receita));
+	}
+}
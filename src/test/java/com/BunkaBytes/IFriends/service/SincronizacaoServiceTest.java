@@ -0,0 +1,152 @@
+package com.BunkaBytes.IFriends.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.BunkaBytes.IFriends.api.dto.SincronizacaoDto;
+import com.BunkaBytes.IFriends.model.entity.Lancamento;
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepository;
+import com.BunkaBytes.IFriends.model.repository.LancamentoRepositoryTest;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class SincronizacaoServiceTest {
+	
+	@Autowired
+	SincronizacaoService service;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@Autowired
+	LancamentoRepository lancamentoRepository;
+	
+	@Autowired
+	UsuarioRepository usuarioRepository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	Usuario usuario;
+	
+	@BeforeEach
+	public void setUp() {
+		usuario = usuarioRepository.save(Usuario.builder()
+											.nome("sincronizacao")
+											.email("sincronizacao." + System.nanoTime() + "@email.com")
+											.senha("123")
+											.build());
+	}
+	
+	@Test
+	public void deveDevolverTudoSemMarcaESoOQueMudouDepoisDela() {
+		//cenário
+		Lancamento primeiro = salvar();
+		Lancamento segundo = salvar();
+		SincronizacaoDto inicial = service.sincronizar(usuario.getId(), null);
+		
+		//execução
+		Lancamento terceiro = salvar();
+		lancamentoService.atualizarStatus(primeiro.getId(), usuario.getId(), StatusLancamento.EFETIVADO, null);
+		lancamentoService.deletar(lancamentoRepository.findById(segundo.getId()).get());
+		SincronizacaoDto incremental = service.sincronizar(usuario.getId(), inicial.getMarca());
+		
+		//verificação
+		Assertions.assertEquals(2, inicial.getAlterados().size());
+		Assertions.assertEquals(Arrays.asList(terceiro.getId(), primeiro.getId()), ids(incremental));
+		Assertions.assertEquals(StatusLancamento.EFETIVADO, incremental.getAlterados().get(1).getStatus());
+		Assertions.assertEquals(Collections.singletonList(segundo.getId()), incremental.getExcluidos());
+		Assertions.assertTrue(incremental.getMarca() > inicial.getMarca());
+		
+		SincronizacaoDto semMudanca = service.sincronizar(usuario.getId(), incremental.getMarca());
+		Assertions.assertTrue(semMudanca.getAlterados().isEmpty());
+		Assertions.assertTrue(semMudanca.getExcluidos().isEmpty());
+		Assertions.assertEquals(incremental.getMarca(), semMudanca.getMarca());
+	}
+	
+	@Test
+	public void deveRegistrarAsExclusoesEAsTrocasDeStatusEmLote() {
+		//cenário
+		Lancamento primeiro = salvar();
+		Lancamento segundo = salvar();
+		Lancamento terceiro = salvar();
+		Long marca = service.sincronizar(usuario.getId(), null).getMarca();
+		
+		//execução
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(usuario);
+		lancamentoService.atualizarStatusEmLote(filtro, Arrays.asList(primeiro.getId(), segundo.getId()), StatusLancamento.CANCELADO);
+		lancamentoService.deletarEmLote(filtro, Collections.singletonList(terceiro.getId()));
+		filtro.setStatus(StatusLancamento.CANCELADO);
+		SincronizacaoDto aposStatus = service.sincronizar(usuario.getId(), marca);
+		lancamentoService.deletarEmLote(filtro, null);
+		SincronizacaoDto aposExclusao = service.sincronizar(usuario.getId(), aposStatus.getMarca());
+		
+		//verificação
+		Assertions.assertEquals(Arrays.asList(primeiro.getId(), segundo.getId()), ids(aposStatus));
+		Assertions.assertEquals(Collections.singletonList(terceiro.getId()), aposStatus.getExcluidos());
+		Assertions.assertTrue(aposExclusao.getAlterados().isEmpty());
+		Assertions.assertEquals(Arrays.asList(primeiro.getId(), segundo.getId()), aposExclusao.getExcluidos());
+	}
+	
+	@Test
+	public void deveCriarASequenciaUmaVezNasPrimeirasEscritasSimultaneas() throws Exception {
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		CountDownLatch avancou = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		
+		try {
+			//a outra escrita avança primeiro e segura o commit enquanto esta procura a linha
+			Future<?> outra = executor.submit(() -> transacao.executeWithoutResult(status -> {
+				service.avancar(usuario.getId());
+				avancou.countDown();
+				try {
+					Thread.sleep(300);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			avancou.await();
+			transacao.executeWithoutResult(status -> service.avancar(usuario.getId()));
+			outra.get();
+		} finally {
+			executor.shutdown();
+		}
+		
+		Assertions.assertEquals(2, service.ultimaAlteracao(usuario.getId()));
+	}
+	
+	private Lancamento salvar() {
+		Lancamento lancamento = LancamentoRepositoryTest.criarLancamento();
+		lancamento.setUsuario(usuario);
+		lancamento.setValor(BigDecimal.TEN);
+		return lancamentoService.salvar(lancamento);
+	}
+	
+	private List<Long> ids(SincronizacaoDto sincronizacao) {
+		return sincronizacao.getAlterados().stream().map(LancamentoProjecao::getId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,45 @@
+package com.BunkaBytes.IFriends.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.BunkaBytes.IFriends.model.entity.Usuario;
+import com.BunkaBytes.IFriends.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("teste")
+public class UsuarioCacheTest {
+	
+	@Autowired
+	UsuarioService service;
+	
+	@Autowired
+	CacheManager cacheManager;
+	
+	@Test
+	public void deveGuardarUsuarioEmCacheEInvalidarAoSalvar() {
+		//cenário
+		Usuario usuario = service.salvarUsuario(Usuario.builder().nome("cache").email("cache@email.com").senha("123").build());
+		
+		//execução
+		service.obterPorId(usuario.getId());
+		
+		//verificação
+		Assertions.assertNotNull(cacheManager.getCache(UsuarioRepository.CACHE_POR_ID).get(usuario.getId()));
+		Assertions.assertEquals(usuario.getEmail(), service.obterPorId(usuario.getId()).get().getEmail());
+		
+		service.autenticar("cache@email.com", "123");
+		Assertions.assertNotNull(cacheManager.getCache(UsuarioRepository.CACHE_POR_EMAIL).get("cache@email.com"));
+		
+		service.salvarUsuario(Usuario.builder().nome("outro").email("outro.cache@email.com").senha("123").build());
+		Assertions.assertNull(cacheManager.getCache(UsuarioRepository.CACHE_POR_ID).get(usuario.getId()));
+		Assertions.assertNull(cacheManager.getCache(UsuarioRepository.CACHE_POR_EMAIL).get("cache@email.com"));
+	}
+}
@@ -0,0 +1,61 @@
+package com.BunkaBytes.IFriends.service.conciliacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.BunkaBytes.IFriends.api.dto.CorrespondenciaDto;
+import com.BunkaBytes.IFriends.model.enums.StatusLancamento;
+import com.BunkaBytes.IFriends.model.enums.TipoLancamento;
+import com.BunkaBytes.IFriends.model.projection.LancamentoProjecao;
+import com.BunkaBytes.IFriends.service.importacao.LinhaExtrato;
+
+public class ConciliadorTest {
+
+	@Test
+	public void deveEscolherADescricaoMaisParecidaEntreOsDeMesmoValor() {
+		Conciliador conciliador = new Conciliador(5, 0.2);
+		conciliador.adicionar(pendente(1l, "Farmácia", "45.90", TipoLancamento.DESPESA, 3, 2021));
+		conciliador.adicionar(pendente(2l, "Padaria", "45.90", TipoLancamento.DESPESA, 3, 2021));
+		conciliador.adicionar(pendente(3l, "Padaria", "45.90", TipoLancamento.RECEITA, 3, 2021));
+
+		Optional<CorrespondenciaDto> correspondencia = conciliador.conciliar(linha("2021-03-10", "PAG*PADARIA CENTRAL", "-45.9"));
+
+		Assertions.assertTrue(correspondencia.isPresent());
+		Assertions.assertEquals(2l, correspondencia.get().getLancamento().getId());
+		//o pendente conciliado sai do índice e a farmácia não é parecida o bastante
+		Assertions.assertFalse(conciliador.conciliar(linha("2021-03-10", "PAG*PADARIA CENTRAL", "-45.90")).isPresent());
+		Assertions.assertEquals(1l, conciliador.conciliar(linha("2021-03-11", "FARMACIA SAO JOAO", "-45.90")).get().getLancamento().getId());
+		Assertions.assertEquals(1, conciliador.restantes().size());
+	}
+
+	@Test
+	public void deveRespeitarAJanelaDeDiasNaViradaDoMes() {
+		Conciliador conciliador = new Conciliador(3, 0.2);
+		conciliador.adicionar(pendente(1l, "Aluguel", "1200", TipoLancamento.DESPESA, 12, 2020));
+
+		Assertions.assertFalse(conciliador.conciliar(linha("2021-01-05", "Aluguel", "-1200")).isPresent());
+		Assertions.assertTrue(conciliador.conciliar(linha("2021-01-02", "Aluguel", "-1200")).isPresent());
+	}
+
+	@Test
+	public void deveRecusarDescricaoAbaixoDaSimilaridadeMinima() {
+		Conciliador conciliador = new Conciliador(5, 0.2);
+		conciliador.adicionar(pendente(1l, "Salário", "5000", TipoLancamento.RECEITA, 4, 2021));
+
+		Assertions.assertFalse(conciliador.conciliar(linha("2021-04-05", "PIX RECEBIDO JOAO", "5000")).isPresent());
+		Assertions.assertTrue(new Conciliador(5, 0).conciliar(linha("2021-04-05", "PIX", "1")).isEmpty());
+		Assertions.assertEquals(1.0, Conciliador.similaridade(Conciliador.trigramas("Salário"), Conciliador.trigramas("SALARIO")));
+	}
+
+	private LancamentoProjecao pendente(Long id, String descricao, String valor, TipoLancamento tipo, int mes, int ano) {
+		return new LancamentoProjecao(id, descricao, mes, ano, new BigDecimal(valor), tipo, StatusLancamento.PENDENTE, 1l, null, 0l);
+	}
+
+	private LinhaExtrato linha(String data, String descricao, String valor) {
+		return new LinhaExtrato(1, LocalDate.parse(data), descricao, new BigDecimal(valor), null);
+	}
+}